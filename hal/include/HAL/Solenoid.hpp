@@ -11,6 +11,7 @@ extern "C"
 	bool getSolenoid(void* solenoid_port_pointer, int32_t *status);
 	uint8_t getAllSolenoids(void* solenoid_port_pointer, int32_t *status);
 	void setSolenoid(void* solenoid_port_pointer, bool value, int32_t *status);
+	void setSolenoids(void* solenoid_port_pointer, uint8_t value, uint8_t mask, int32_t *status);
 
 	int getPCMSolenoidBlackList(void* solenoid_port_pointer, int32_t *status);
 	bool getPCMSolenoidVoltageStickyFault(void* solenoid_port_pointer, int32_t *status);
@@ -16,6 +16,14 @@ public:
      */
     CTR_Code 	SetSolenoid(unsigned char idx, bool en);
 
+    /* Set the state of several PCM solenoids in one control frame
+     *
+     * @Return	-	CTR_Code	-	Error code (if any) for setting solenoids
+     * @Param 	-	value		- 	bitfield of solenoid states
+     * @Param 	-	mask		- 	bitfield of the solenoids to set
+     */
+    CTR_Code 	SetSolenoids(UINT8 value, UINT8 mask);
+
     /* Enables PCM Closed Loop Control of Compressor via pressure switch
      * @Return	-	CTR_Code	-	Error code (if any) for setting solenoid
      * @Param 	-	en		- 	Enable / Disable Closed Loop Control
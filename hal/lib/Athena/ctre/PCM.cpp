@@ -141,6 +141,22 @@ CTR_Code PCM::SetSolenoid(unsigned char idx, bool en)
 	return CTR_OKAY;
 }
 
+/* Set the state of several PCM solenoids in one control frame
+ *
+ * @Return	-	CTR_Code	-	Error code (if any) for setting solenoids
+ *
+ * @Param 	-	value		- 	bitfield of solenoid states
+ * @Param 	-	mask		- 	bitfield of the solenoids to set
+ */
+CTR_Code PCM::SetSolenoids(UINT8 value, UINT8 mask)
+{
+	CtreCanNode::txTask<PcmControl_t> toFill = GetTx<PcmControl_t>(CONTROL_1 | GetDeviceNumber());
+	if(toFill.IsEmpty())return CTR_UnexpectedArbId;
+	toFill->solenoidBits = (toFill->solenoidBits & ~mask) | (value & mask);
+	FlushTx(toFill);
+	return CTR_OKAY;
+}
+
 /* Clears PCM sticky faults (indicators of past faults
  *
  * @Return	-	CTR_Code	-	Error code (if any) for setting solenoid
@@ -7,6 +7,7 @@
 
 #include <jni.h>
 #include <assert.h>
+#include <cstring>
 #include "Log.hpp"
 
 #include "edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary.h"
@@ -167,6 +168,42 @@ JNIEXPORT jshortArray JNICALL Java_edu_wpi_first_wpilibj_communication_FRCNetwor
     return povsArray;
 }
 
+/*
+ * Class:     edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary
+ * Method:    HALGetJoystickAxesBuffer
+ * Signature: (BLjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary_HALGetJoystickAxesBuffer
+  (JNIEnv * env, jclass, jbyte joystickNum, jobject axesBuffer)
+{
+	NETCOMM_LOG(logDEBUG) << "Calling HALJoystickAxesBuffer";
+    HALJoystickAxes axes;
+    HALGetJoystickAxes(joystickNum, &axes);
+
+    int16_t *axesPtr = (int16_t*)env->GetDirectBufferAddress(axesBuffer);
+    std::memcpy(axesPtr, axes.axes, axes.count * sizeof(int16_t));
+
+    return axes.count;
+}
+
+/*
+ * Class:     edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary
+ * Method:    HALGetJoystickPOVsBuffer
+ * Signature: (BLjava/nio/ByteBuffer;)I
+ */
+JNIEXPORT jint JNICALL Java_edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary_HALGetJoystickPOVsBuffer
+  (JNIEnv * env, jclass, jbyte joystickNum, jobject povsBuffer)
+{
+	NETCOMM_LOG(logDEBUG) << "Calling HALJoystickPOVsBuffer";
+    HALJoystickPOVs povs;
+    HALGetJoystickPOVs(joystickNum, &povs);
+
+    int16_t *povsPtr = (int16_t*)env->GetDirectBufferAddress(povsBuffer);
+    std::memcpy(povsPtr, povs.povs, povs.count * sizeof(int16_t));
+
+    return povs.count;
+}
+
 /*
  * Class:     edu_wpi_first_wpilibj_communication_FRCNetworkCommunicationsLibrary
  * Method:    HALGetJoystickButtons
@@ -107,6 +107,40 @@ JNIEXPORT jint JNICALL Java_edu_wpi_first_wpilibj_hal_I2CJNI_i2CRead
 	return returnValue;
 }
 
+/*
+ * Class:     edu_wpi_first_wpilibj_hal_I2CJNI
+ * Method:    i2CTransactionBatch
+ * Signature: (BLjava/nio/ByteBuffer;ILjava/nio/ByteBuffer;Ljava/nio/IntBuffer;)V
+ */
+JNIEXPORT void JNICALL Java_edu_wpi_first_wpilibj_hal_I2CJNI_i2CTransactionBatch
+  (JNIEnv * env, jclass, jbyte port, jobject operations, jint count, jobject data, jobject results)
+{
+	I2CJNI_LOG(logDEBUG) << "Calling I2CJNI i2CTransactionBatch";
+	I2CJNI_LOG(logDEBUG) << "Port = " << (jint)port;
+	I2CJNI_LOG(logDEBUG) << "Count = " << count;
+	// Each operation is 8 bytes in native byte order: device address, send
+	// size, receive size, padding, then the offsets of the data to send and
+	// of the space to receive into within the data buffer.
+	uint8_t* operationsPtr = (uint8_t*)env->GetDirectBufferAddress(operations);
+	uint8_t* dataPtr = (uint8_t*)env->GetDirectBufferAddress(data);
+	jint* resultsPtr = (jint*)env->GetDirectBufferAddress(results);
+	for (jint i = 0; i < count; i++) {
+		uint8_t* op = operationsPtr + i * 8;
+		uint8_t address = op[0];
+		uint8_t sendSize = op[1];
+		uint8_t receiveSize = op[2];
+		uint8_t* sendPtr = dataPtr + *(uint16_t*)(op + 4);
+		uint8_t* receivePtr = dataPtr + *(uint16_t*)(op + 6);
+		if (receiveSize == 0) {
+			resultsPtr[i] = i2CWrite(port, address, sendPtr, sendSize);
+		} else if (sendSize == 0) {
+			resultsPtr[i] = i2CRead(port, address, receivePtr, receiveSize);
+		} else {
+			resultsPtr[i] = i2CTransaction(port, address, sendPtr, sendSize, receivePtr, receiveSize);
+		}
+	}
+}
+
 /*
  * Class:     edu_wpi_first_wpilibj_hal_I2CJNI
  * Method:    i2CClose
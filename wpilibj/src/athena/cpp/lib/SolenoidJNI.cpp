@@ -92,6 +92,23 @@ JNIEXPORT void JNICALL Java_edu_wpi_first_wpilibj_hal_SolenoidJNI_setSolenoid
 	CheckStatus(env, status);
 }
 
+/*
+ * Class:     edu_wpi_first_wpilibj_hal_SolenoidJNI
+ * Method:    setSolenoids
+ * Signature: (JBB)V
+ */
+JNIEXPORT void JNICALL Java_edu_wpi_first_wpilibj_hal_SolenoidJNI_setSolenoids
+  (JNIEnv *env, jclass, jlong solenoid_port, jbyte value, jbyte mask)
+{
+	SOLENOIDJNI_LOG(logDEBUG) << "Calling SolenoidJNI SetSolenoids";
+
+	SOLENOIDJNI_LOG(logDEBUG) << "Solenoid Port Pointer = " << (void*)solenoid_port;
+
+	int32_t status = 0;
+	setSolenoids((void*)solenoid_port, value, mask, &status);
+	CheckStatus(env, status);
+}
+
 /*
  * Class:     edu_wpi_first_wpilibj_hal_SolenoidJNI
  * Method:    getSolenoid
@@ -15,6 +15,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.interfaces.Accelerometer;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -168,6 +169,7 @@ public class ADXL345_I2C extends SensorBase implements Accelerometer, LiveWindow
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /** {@inheritDoc} */
   public void initTable(ITable subtable) {
@@ -178,9 +180,9 @@ public class ADXL345_I2C extends SensorBase implements Accelerometer, LiveWindow
   /** {@inheritDoc} */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("X", getX());
-      m_table.putNumber("Y", getY());
-      m_table.putNumber("Z", getZ());
+      m_publisher.putNumber(m_table, "X", getX());
+      m_publisher.putNumber(m_table, "Y", getY());
+      m_publisher.putNumber(m_table, "Z", getZ());
     }
   }
 
@@ -45,6 +45,10 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
   private static final int kSNLowRegister = 0x10;
 
   private SPI m_spi;
+  private int m_center = 0;
+  // Accumulator output when the bias measurement started
+  private final AccumulatorResult m_measurementStart = new AccumulatorResult();
+  private final AccumulatorResult m_measurementEnd = new AccumulatorResult();
 
   /**
    * Constructor.  Uses the onboard CS0.
@@ -59,6 +63,17 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
    * @param port The SPI port that the gyro is connected to
    */
   public ADXRS450_Gyro(SPI.Port port) {
+    this(port, false);
+  }
+
+  /**
+   * Constructor, optionally calibrating in the background.
+   *
+   * @param port The SPI port that the gyro is connected to
+   * @param calibrateInBackground true to return immediately and calibrate on
+   *        a background thread, see {@link #calibrateInBackground()}
+   */
+  public ADXRS450_Gyro(SPI.Port port, boolean calibrateInBackground) {
     m_spi = new SPI(port);
     m_spi.setClockRate(3000000);
     m_spi.setMSBFirst();
@@ -77,7 +92,11 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
     m_spi.initAccumulator(kSamplePeriod, 0x20000000, 4, 0x0c00000e, 0x04000000,
         10, 16, true, true);
 
-    calibrate();
+    if (calibrateInBackground) {
+      startFirstCalibration();
+    } else {
+      calibrate();
+    }
 
     UsageReporting.report(tResourceType.kResourceType_ADXRS450, port.getValue());
     LiveWindow.addSensor("ADXRS450_Gyro", port.getValue(), this);
@@ -97,10 +116,46 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
 
     Timer.delay(kCalibrationSampleTime);
 
-    m_spi.setAccumulatorCenter((int)m_spi.getAccumulatorAverage());
+    m_center = (int) m_spi.getAccumulatorAverage();
+    m_spi.setAccumulatorCenter(m_center);
     m_spi.resetAccumulator();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean startBiasMeasurement() {
+    SPI spi = m_spi;
+    if (spi == null) {
+      return false;
+    }
+    spi.getAccumulatorOutput(m_measurementStart);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean applyBiasMeasurement() {
+    if (m_spi == null) {
+      return false;
+    }
+    m_spi.getAccumulatorOutput(m_measurementEnd);
+    long count = m_measurementEnd.count - m_measurementStart.count;
+    if (count <= 0) {
+      // The accumulator was reset during the measurement
+      return false;
+    }
+    // The accumulator adds up the difference from the old center
+    long value = m_measurementEnd.value - m_measurementStart.value;
+    m_center += (int) Math.round((double) value / count);
+    m_spi.setAccumulatorCenter(m_center);
+    m_spi.resetAccumulator();
+    return true;
+  }
+
   private boolean calcParity(int v) {
     boolean parity = false;
     while (v != 0) {
@@ -134,7 +189,11 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
    * {@inheritDoc}
    */
   public void reset() {
-    m_spi.resetAccumulator();
+    // The accumulator is reset when a calibration finishes
+    if (m_spi != null && isCalibrated()) {
+      m_spi.resetAccumulator();
+    }
+    clearAngleOffset();
   }
 
   /**
@@ -151,9 +210,11 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
   /**
    * {@inheritDoc}
    */
-  public double getAngle() {
+  public synchronized double getAngle() {
     if (m_spi == null) return 0.0;
-    return m_spi.getAccumulatorValue() * kDegreePerSecondPerLSB * kSamplePeriod;
+    if (!isCalibrated()) return getUncalibratedAngle();
+    return m_spi.getAccumulatorValue() * kDegreePerSecondPerLSB * kSamplePeriod
+        + getAngleOffset();
   }
 
   /**
@@ -161,6 +222,7 @@ public class ADXRS450_Gyro extends GyroBase implements Gyro, PIDSource, LiveWind
    */
   public double getRate() {
     if (m_spi == null) return 0.0;
+    if (!hasCalibration()) return Double.NaN;
     return m_spi.getAccumulatorLastValue() * kDegreePerSecondPerLSB;
   }
 }
@@ -10,6 +10,7 @@ package edu.wpi.first.wpilibj;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -144,6 +145,7 @@ public class AnalogAccelerometer extends SensorBase implements PIDSource, LiveWi
    * Live Window code, only does anything if live window is activated.
    */
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -165,7 +167,7 @@ public class AnalogAccelerometer extends SensorBase implements PIDSource, LiveWi
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getAcceleration());
+      m_publisher.putNumber(m_table, "Value", getAcceleration());
     }
   }
 
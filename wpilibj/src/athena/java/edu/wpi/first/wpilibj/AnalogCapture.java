@@ -0,0 +1,375 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.Arrays;
+
+/**
+ * Samples a set of analog channels from a background thread at a fixed rate
+ * and keeps every sample, tagged with the FPGA time it was read at, so the
+ * robot loop can look at the signal between loops rather than just its latest
+ * value. This is meant for things like spotting current spikes or following a
+ * pressure transducer.
+ *
+ * All channels are read in one pass each period and share a ring of
+ * timestamps; each channel keeps its raw values in its own int ring. The
+ * robot loop can ask for the average, minimum or maximum voltage over the
+ * last samples, or read the raw samples recorded since it last read.
+ *
+ * A channel can be captured either straight from the converter or from the
+ * output of its oversample and average engine, in which case its
+ * {@link AnalogInput#setAverageBits(int)} and
+ * {@link AnalogInput#setOversampleBits(int)} settings apply. The capture only
+ * reads values, so it does not disturb the accumulator or any of the
+ * channel's settings.
+ *
+ * The capture thread is the only writer and publishes each pass through a
+ * volatile count, so readers never lock. A reader that is lapped by the writer
+ * discards the samples that were overwritten.
+ */
+public class AnalogCapture {
+  /**
+   * Reads the raw value of a channel. {@link AnalogInput} is used on the
+   * robot; tests can supply their own.
+   */
+  public interface Source {
+    /**
+     * @return The raw value
+     */
+    int getValue();
+  }
+
+  /**
+   * Default number of samples kept per channel
+   */
+  public static final int kDefaultSize = 1024;
+
+  private final int m_size;
+  private final double[] m_timestamps;
+  private int m_channelCount = 0;
+  private Source[] m_sources = new Source[0];
+  private double[] m_voltsPerCount = new double[0];
+  private double[] m_offsets = new double[0];
+  private int[][] m_values = new int[0][];
+  private long[] m_firstSamples = new long[0];
+  private long[] m_readCursors = new long[0];
+
+  // Total number of passes recorded. Pass n is stored in slot n % m_size.
+  private volatile long m_recorded = 0;
+  private volatile long m_overruns = 0;
+
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("AnalogCapture", Thread.MAX_PRIORITY, new PeriodicSampler.Task() {
+        @Override
+        public void run(double timestamp) {
+          poll(timestamp);
+        }
+      });
+
+  /**
+   * Create a capture keeping the default number of samples.
+   */
+  public AnalogCapture() {
+    this(kDefaultSize);
+  }
+
+  /**
+   * Create a capture.
+   *
+   * @param size The number of samples to keep per channel. One slot is
+   *        reserved for the writer, so size - 1 samples are visible to
+   *        readers.
+   */
+  public AnalogCapture(int size) {
+    if (size < 2) {
+      throw new IllegalArgumentException("Analog capture must hold at least 2 samples");
+    }
+    m_size = size;
+    m_timestamps = new double[size];
+  }
+
+  /**
+   * Add a channel to capture. Channels can only be added while the capture
+   * is stopped. Configure the channel's oversample bits first, as they are
+   * used to convert the values to volts.
+   *
+   * @param input The channel
+   * @param averaged true to capture the output of the oversample and average
+   *        engine, false to capture the converter directly
+   * @return The index used to read the channel's samples
+   */
+  public int addChannel(final AnalogInput input, boolean averaged) {
+    double voltsPerCount = input.getLSBWeight() * 1e-9;
+    Source source;
+    if (averaged) {
+      voltsPerCount /= 1 << input.getOversampleBits();
+      source = new Source() {
+        @Override
+        public int getValue() {
+          return input.getAverageValue();
+        }
+      };
+    } else {
+      source = new Source() {
+        @Override
+        public int getValue() {
+          return input.getValue();
+        }
+      };
+    }
+    return addChannel(source, voltsPerCount, input.getOffset() * 1e-9);
+  }
+
+  /**
+   * Add a channel to capture. Channels can only be added while the capture
+   * is stopped.
+   *
+   * @param source Reads the raw value of the channel
+   * @param voltsPerCount The scale from raw values to volts
+   * @param offset The offset subtracted from the scaled value, in volts
+   * @return The index used to read the channel's samples
+   */
+  public synchronized int addChannel(Source source, double voltsPerCount, double offset) {
+    if (m_sampler.isRunning()) {
+      throw new IllegalStateException("Analog capture channels can't be added while running");
+    }
+    int channel = m_channelCount;
+    m_sources = Arrays.copyOf(m_sources, channel + 1);
+    m_voltsPerCount = Arrays.copyOf(m_voltsPerCount, channel + 1);
+    m_offsets = Arrays.copyOf(m_offsets, channel + 1);
+    m_values = Arrays.copyOf(m_values, channel + 1);
+    m_firstSamples = Arrays.copyOf(m_firstSamples, channel + 1);
+    m_readCursors = Arrays.copyOf(m_readCursors, channel + 1);
+    m_sources[channel] = source;
+    m_voltsPerCount[channel] = voltsPerCount;
+    m_offsets[channel] = offset;
+    m_values[channel] = new int[m_size];
+    // Only samples recorded from now on belong to the new channel
+    m_firstSamples[channel] = m_recorded;
+    m_readCursors[channel] = m_recorded;
+    m_channelCount++;
+    return channel;
+  }
+
+  /**
+   * Start capturing.
+   *
+   * @param period The time between samples in seconds
+   */
+  public synchronized void start(double period) {
+    if (period <= 0.0) {
+      throw new IllegalArgumentException("Analog capture period must be positive");
+    }
+    m_sampler.start(period);
+  }
+
+  /**
+   * Stop capturing. The recorded samples are kept.
+   */
+  public synchronized void stop() {
+    m_sampler.stop();
+  }
+
+  /**
+   * @return The number of channels captured
+   */
+  public int getChannelCount() {
+    return m_channelCount;
+  }
+
+  /**
+   * @return The total number of samples recorded per channel
+   */
+  public long getSampleCount() {
+    return m_recorded;
+  }
+
+  /**
+   * @param channel The index of the channel
+   * @return The latest voltage of the channel, or 0 if there are no samples
+   */
+  public double getLatestVoltage(int channel) {
+    checkChannel(channel);
+    while (true) {
+      long recorded = m_recorded;
+      if (available(channel, recorded, 1) == 0) {
+        return 0.0;
+      }
+      int value = m_values[channel][(int) ((recorded - 1) % m_size)];
+      if (isIntact(recorded - 1)) {
+        return toVolts(channel, value);
+      }
+    }
+  }
+
+  /**
+   * @param channel The index of the channel
+   * @param count The number of latest samples to average
+   * @return The average voltage of the samples, or 0 if there are none
+   */
+  public double getAverageVoltage(int channel, int count) {
+    checkChannel(channel);
+    int[] values = m_values[channel];
+    while (true) {
+      long recorded = m_recorded;
+      int available = available(channel, recorded, count);
+      long sum = 0;
+      for (long index = recorded - available; index < recorded; index++) {
+        sum += values[(int) (index % m_size)];
+      }
+      if (available == 0) {
+        return 0.0;
+      }
+      if (isIntact(recorded - available)) {
+        return toVolts(channel, (double) sum / available);
+      }
+    }
+  }
+
+  /**
+   * @param channel The index of the channel
+   * @param count The number of latest samples to look at
+   * @return The lowest voltage of the samples, or 0 if there are none
+   */
+  public double getMinVoltage(int channel, int count) {
+    return getExtreme(channel, count, false);
+  }
+
+  /**
+   * @param channel The index of the channel
+   * @param count The number of latest samples to look at
+   * @return The highest voltage of the samples, or 0 if there are none
+   */
+  public double getMaxVoltage(int channel, int count) {
+    return getExtreme(channel, count, true);
+  }
+
+  /**
+   * Read the raw samples of a channel recorded since the last call for that
+   * channel, oldest first. Samples that were overwritten before they could be
+   * read are skipped and counted by {@link #getOverrunCount()}. Only one
+   * thread should call this for each channel.
+   *
+   * @param channel The index of the channel
+   * @param timestamps Array to store the times the samples were read at
+   * @param values Array to store the raw values in
+   * @return The number of samples read
+   */
+  public int readNew(int channel, double[] timestamps, int[] values) {
+    checkChannel(channel);
+    int[] channelValues = m_values[channel];
+    int max = Math.min(timestamps.length, values.length);
+    long cursor = m_readCursors[channel];
+    long recorded = m_recorded;
+    long oldest = Math.max(recorded - (m_size - 1), 0);
+    if (cursor < oldest) {
+      m_overruns += oldest - cursor;
+      cursor = oldest;
+    }
+    int count = (int) Math.min(recorded - cursor, max);
+    for (int i = 0; i < count; i++) {
+      int slot = (int) ((cursor + i) % m_size);
+      timestamps[i] = m_timestamps[slot];
+      values[i] = channelValues[slot];
+    }
+
+    // Drop any samples the writer overwrote while they were being copied
+    long lapped = m_recorded - (m_size - 1) - cursor;
+    int skip = (int) Math.max(0, Math.min(lapped, count));
+    if (skip > 0) {
+      m_overruns += skip;
+      System.arraycopy(timestamps, skip, timestamps, 0, count - skip);
+      System.arraycopy(values, skip, values, 0, count - skip);
+    }
+    m_readCursors[channel] = cursor + count;
+    return count - skip;
+  }
+
+  /**
+   * Convert a raw value of a channel to volts.
+   *
+   * @param channel The index of the channel
+   * @param value The raw value
+   * @return The voltage
+   */
+  public double toVolts(int channel, double value) {
+    return value * m_voltsPerCount[channel] - m_offsets[channel];
+  }
+
+  /**
+   * @return The number of periods skipped because a pass ran late
+   */
+  public long getMissedPeriodCount() {
+    return m_sampler.getMissedPeriodCount();
+  }
+
+  /**
+   * @return The number of samples overwritten before {@link #readNew} read
+   *         them
+   */
+  public long getOverrunCount() {
+    return m_overruns;
+  }
+
+  /**
+   * Read every channel once and record the values.
+   *
+   * @param timestamp The time the channels were read at
+   */
+  void poll(double timestamp) {
+    long recorded = m_recorded;
+    int slot = (int) (recorded % m_size);
+    m_timestamps[slot] = timestamp;
+    for (int i = 0; i < m_channelCount; i++) {
+      m_values[i][slot] = m_sources[i].getValue();
+    }
+    m_recorded = recorded + 1;
+  }
+
+  private double getExtreme(int channel, int count, boolean max) {
+    checkChannel(channel);
+    int[] values = m_values[channel];
+    while (true) {
+      long recorded = m_recorded;
+      int available = available(channel, recorded, count);
+      if (available == 0) {
+        return 0.0;
+      }
+      int extreme = max ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+      for (long index = recorded - available; index < recorded; index++) {
+        int value = values[(int) (index % m_size)];
+        extreme = max ? Math.max(extreme, value) : Math.min(extreme, value);
+      }
+      if (isIntact(recorded - available)) {
+        return toVolts(channel, extreme);
+      }
+    }
+  }
+
+  /**
+   * @return The number of the latest samples of the channel that can be read,
+   *         at most count
+   */
+  private int available(int channel, long recorded, int count) {
+    long channelRecorded = recorded - m_firstSamples[channel];
+    return (int) Math.max(0, Math.min(Math.min(channelRecorded, m_size - 1), count));
+  }
+
+  private void checkChannel(int channel) {
+    if (channel < 0 || channel >= m_channelCount) {
+      throw new IndexOutOfBoundsException("Invalid analog capture channel: " + channel);
+    }
+  }
+
+  /**
+   * @return true if the sample has not been overwritten by the writer
+   */
+  private boolean isIntact(long index) {
+    return m_recorded - index <= m_size - 1;
+  }
+}
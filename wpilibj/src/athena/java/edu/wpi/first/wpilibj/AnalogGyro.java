@@ -39,11 +39,25 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
   boolean m_channelAllocated = false;
   AccumulatorResult result;
   private PIDSourceType m_pidSource;
+  // Set when the settling delay was left for calibrate()
+  private boolean m_settle = false;
+  // Accumulator output when the bias measurement started
+  private final AccumulatorResult m_measurementStart = new AccumulatorResult();
 
   /**
    * Initialize the gyro. Calibration is handled by calibrate().
    */
   public void initGyro() {
+    initGyro(true);
+  }
+
+  /**
+   * Initialize the gyro.
+   *
+   * @param settle true to wait for the new sample rate to take effect here,
+   *        false to leave the wait to calibrate()
+   */
+  private void initGyro(boolean settle) {
     result = new AccumulatorResult();
 
     m_voltsPerDegreePerSecond = kDefaultVoltsPerDegreePerSecond;
@@ -51,7 +65,11 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
     m_analog.setOversampleBits(kOversampleBits);
     double sampleRate = kSamplesPerSecond * (1 << (kAverageBits + kOversampleBits));
     AnalogInput.setGlobalSampleRate(sampleRate);
-    Timer.delay(0.1);
+    if (settle) {
+      Timer.delay(0.1);
+    } else {
+      m_settle = true;
+    }
 
     setDeadband(0.0);
 
@@ -65,6 +83,10 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
    * {@inheritDoc}
    */
   public void calibrate() {
+    if (m_settle) {
+      Timer.delay(0.1);
+      m_settle = false;
+    }
     m_analog.initAccumulator();
     m_analog.resetAccumulator();
 
@@ -80,6 +102,45 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
     m_analog.resetAccumulator();
   }
 
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean startBiasMeasurement() {
+    AnalogInput analog = m_analog;
+    if (analog == null) {
+      return false;
+    }
+    analog.getAccumulatorOutput(m_measurementStart);
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  protected boolean applyBiasMeasurement() {
+    if (m_analog == null) {
+      return false;
+    }
+    m_analog.getAccumulatorOutput(result);
+    long count = result.count - m_measurementStart.count;
+    if (count <= 0) {
+      // The accumulator was reset during the measurement
+      return false;
+    }
+    // The accumulator adds up the difference from the old center
+    double average = m_center + (double) (result.value - m_measurementStart.value) / count;
+
+    m_center = (int) (average + .5);
+
+    m_offset = average - m_center;
+
+    m_analog.setAccumulatorCenter(m_center);
+    m_analog.resetAccumulator();
+    return true;
+  }
+
   /**
    * Gyro constructor using the channel number
    *
@@ -87,7 +148,20 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
    *        be used on on-board channels 0-1.
    */
   public AnalogGyro(int channel) {
-    this(new AnalogInput(channel));
+    this(channel, false);
+  }
+
+  /**
+   * Gyro constructor using the channel number, optionally calibrating in the
+   * background.
+   *
+   * @param channel The analog channel the gyro is connected to. Gyros can only
+   *        be used on on-board channels 0-1.
+   * @param calibrateInBackground true to return immediately and calibrate on
+   *        a background thread, see {@link #calibrateInBackground()}
+   */
+  public AnalogGyro(int channel, boolean calibrateInBackground) {
+    this(new AnalogInput(channel), calibrateInBackground);
     m_channelAllocated = true;
   }
 
@@ -99,12 +173,30 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
    *        can only be used on on-board channels 0-1.
    */
   public AnalogGyro(AnalogInput channel) {
+    this(channel, false);
+  }
+
+  /**
+   * Gyro constructor with a precreated analog channel object, optionally
+   * calibrating in the background.
+   *
+   * @param channel The AnalogInput object that the gyro is connected to. Gyros
+   *        can only be used on on-board channels 0-1.
+   * @param calibrateInBackground true to return immediately and calibrate on
+   *        a background thread, see {@link #calibrateInBackground()}
+   */
+  public AnalogGyro(AnalogInput channel, boolean calibrateInBackground) {
     m_analog = channel;
     if (m_analog == null) {
       throw new NullPointerException("AnalogInput supplied to Gyro constructor is null");
     }
-    initGyro();
-    calibrate();
+    if (calibrateInBackground) {
+      initGyro(false);
+      startFirstCalibration();
+    } else {
+      initGyro();
+      calibrate();
+    }
   }
 
   /**
@@ -146,9 +238,11 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
    * {@inheritDoc}
    */
   public void reset() {
-    if (m_analog != null) {
+    // The accumulator is reset when a calibration finishes
+    if (m_analog != null && isCalibrated()) {
       m_analog.resetAccumulator();
     }
+    clearAngleOffset();
   }
 
   /**
@@ -168,6 +262,8 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
   public synchronized double getAngle() {
     if (m_analog == null) {
       return 0.0;
+    } else if (!isCalibrated()) {
+      return getUncalibratedAngle();
     } else {
       m_analog.getAccumulatorOutput(result);
 
@@ -177,7 +273,7 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
           value * 1e-9 * m_analog.getLSBWeight() * (1 << m_analog.getAverageBits())
               / (AnalogInput.getGlobalSampleRate() * m_voltsPerDegreePerSecond);
 
-      return scaledValue;
+      return scaledValue + getAngleOffset();
     }
   }
 
@@ -187,6 +283,8 @@ public class AnalogGyro extends GyroBase implements Gyro, PIDSource, LiveWindowS
   public double getRate() {
     if (m_analog == null) {
       return 0.0;
+    } else if (!hasCalibration()) {
+      return Double.NaN;
     } else {
       return (m_analog.getAverageValue() - (m_center + m_offset)) * 1e-9 * m_analog.getLSBWeight()
           / ((1 << m_analog.getOversampleBits()) * m_voltsPerDegreePerSecond);
@@ -7,10 +7,8 @@
 
 package edu.wpi.first.wpilibj;
 
-import java.nio.ByteOrder;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
-import java.nio.ByteBuffer;
 
 // import com.sun.jna.Pointer;
 
@@ -18,6 +16,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.AnalogJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.util.AllocationException;
@@ -62,7 +61,7 @@ public class AnalogInput extends SensorBase implements PIDSource, LiveWindowSend
           + " cannot be allocated. Channel is not present.");
     }
     try {
-      channels.allocate(channel);
+      channels.allocate(channel, this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("Analog input channel " + m_channel + " is already allocated");
     }
@@ -318,15 +317,11 @@ public class AnalogInput extends SensorBase implements PIDSource, LiveWindowSend
     if (!isAccumulatorChannel()) {
       throw new IllegalArgumentException("Channel " + m_channel + " is not an accumulator channel.");
     }
-    ByteBuffer value = ByteBuffer.allocateDirect(8);
-    // set the byte order
-    value.order(ByteOrder.LITTLE_ENDIAN);
-    ByteBuffer count = ByteBuffer.allocateDirect(4);
-    // set the byte order
-    count.order(ByteOrder.LITTLE_ENDIAN);
-    AnalogJNI.getAccumulatorOutput(m_port, value.asLongBuffer(), count.asIntBuffer());
-    result.value = value.asLongBuffer().get(0) + m_accumulatorOffset;
-    result.count = count.asIntBuffer().get(0);
+    LongBuffer value = DirectBufferArena.getLongBuffer();
+    IntBuffer count = DirectBufferArena.getIntBuffer();
+    AnalogJNI.getAccumulatorOutput(m_port, value, count);
+    result.value = value.get(0) + m_accumulatorOffset;
+    result.count = count.get(0);
   }
 
   /**
@@ -399,6 +394,7 @@ public class AnalogInput extends SensorBase implements PIDSource, LiveWindowSend
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -413,7 +409,7 @@ public class AnalogInput extends SensorBase implements PIDSource, LiveWindowSend
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getAverageVoltage());
+      m_publisher.putNumber(m_table, "Value", getAverageVoltage());
     }
   }
 
@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.AnalogJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.util.AllocationException;
@@ -37,7 +38,7 @@ public class AnalogOutput extends SensorBase implements LiveWindowSendable {
           + " cannot be allocated. Channel is not present.");
     }
     try {
-      channels.allocate(channel);
+      channels.allocate(channel, this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("Analog output channel " + m_channel + " is already allocated");
     }
@@ -75,6 +76,7 @@ public class AnalogOutput extends SensorBase implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -89,7 +91,7 @@ public class AnalogOutput extends SensorBase implements LiveWindowSendable {
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getVoltage());
+      m_publisher.putNumber(m_table, "Value", getVoltage());
     }
   }
 
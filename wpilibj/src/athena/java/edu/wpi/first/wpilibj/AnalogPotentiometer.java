@@ -13,6 +13,7 @@ import java.nio.IntBuffer;
 import edu.wpi.first.wpilibj.hal.HALUtil;
 import edu.wpi.first.wpilibj.hal.PowerJNI;
 import edu.wpi.first.wpilibj.interfaces.Potentiometer;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -189,6 +190,7 @@ public class AnalogPotentiometer implements Potentiometer, LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -203,7 +205,7 @@ public class AnalogPotentiometer implements Potentiometer, LiveWindowSendable {
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", get());
+      m_publisher.putNumber(m_table, "Value", get());
     }
   }
 
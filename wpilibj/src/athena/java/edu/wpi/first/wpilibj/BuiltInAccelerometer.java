@@ -12,6 +12,7 @@ import edu.wpi.first.wpilibj.hal.AccelerometerJNI;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -91,6 +92,7 @@ public class BuiltInAccelerometer implements Accelerometer, LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /** {@inheritDoc} */
   public void initTable(ITable subtable) {
@@ -101,9 +103,9 @@ public class BuiltInAccelerometer implements Accelerometer, LiveWindowSendable {
   /** {@inheritDoc} */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("X", getX());
-      m_table.putNumber("Y", getY());
-      m_table.putNumber("Z", getZ());
+      m_publisher.putNumber(m_table, "X", getX());
+      m_publisher.putNumber(m_table, "Y", getY());
+      m_publisher.putNumber(m_table, "Z", getZ());
     }
   }
 
@@ -8,7 +8,7 @@
 package edu.wpi.first.wpilibj;
 
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 
 import edu.wpi.first.wpilibj.can.CANJNI;
 import edu.wpi.first.wpilibj.can.CANMessageNotFoundException;
@@ -192,7 +192,7 @@ public class CANJaguar implements MotorSafety, PIDOutput, CANSpeedController {
    */
   public CANJaguar(int deviceNumber) {
     try {
-      allocated.allocate(deviceNumber - 1);
+      allocated.allocate(deviceNumber - 1, this);
     } catch (CheckedAllocationException e1) {
       throw new AllocationException("CANJaguar device " + e1.getMessage()
           + "(increment index by one)");
@@ -1912,7 +1912,7 @@ public class CANJaguar implements MotorSafety, PIDOutput, CANSpeedController {
           throw new RuntimeException("CAN message has too much data.");
         }
 
-        ByteBuffer trustedBuffer = ByteBuffer.allocateDirect(dataSize + 2);
+        ByteBuffer trustedBuffer = DirectBufferArena.getExactBuffer(dataSize + 2);
         trustedBuffer.put(0, (byte) 0);
         trustedBuffer.put(1, (byte) 0);
 
@@ -1929,7 +1929,7 @@ public class CANJaguar implements MotorSafety, PIDOutput, CANSpeedController {
     // Use a null pointer for the data buffer if the given array is null
     ByteBuffer buffer;
     if (data != null) {
-      buffer = ByteBuffer.allocateDirect(dataSize);
+      buffer = DirectBufferArena.getExactBuffer(dataSize);
       for (byte i = 0; i < dataSize; i++) {
         buffer.put(i, data[i]);
       }
@@ -2002,15 +2002,14 @@ public class CANJaguar implements MotorSafety, PIDOutput, CANSpeedController {
     messageID |= m_deviceNumber;
     messageID &= CANJNI.CAN_MSGID_FULL_M;
 
-    ByteBuffer targetedMessageID = ByteBuffer.allocateDirect(4);
-    targetedMessageID.order(ByteOrder.LITTLE_ENDIAN);
-    targetedMessageID.asIntBuffer().put(0, messageID);
+    IntBuffer targetedMessageID = DirectBufferArena.getIntBuffer();
+    targetedMessageID.put(0, messageID);
 
-    ByteBuffer timeStamp = ByteBuffer.allocateDirect(4);
+    ByteBuffer timeStamp = DirectBufferArena.getExactBuffer(4);
 
     // Get the data.
     ByteBuffer dataBuffer =
-        CANJNI.FRCNetworkCommunicationCANSessionMuxReceiveMessage(targetedMessageID.asIntBuffer(),
+        CANJNI.FRCNetworkCommunicationCANSessionMuxReceiveMessage(targetedMessageID,
             messageMask, timeStamp);
 
     if (data != null) {
@@ -9,6 +9,7 @@ package edu.wpi.first.wpilibj;
 
 import edu.wpi.first.wpilibj.SensorBase;
 import edu.wpi.first.wpilibj.hal.CompressorJNI;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -195,6 +196,7 @@ public class Compressor extends SensorBase implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   @Override
   public void initTable(ITable subtable) {
@@ -210,8 +212,8 @@ public class Compressor extends SensorBase implements LiveWindowSendable {
   @Override
   public void updateTable() {
     if (m_table != null) {
-      m_table.putBoolean("Enabled", enabled());
-      m_table.putBoolean("Pressure Switch", getPressureSwitchValue());
+      m_publisher.putBoolean(m_table, "Enabled", enabled());
+      m_publisher.putBoolean(m_table, "Pressure Switch", getPressureSwitchValue());
     }
   }
 }
@@ -14,6 +14,7 @@ import edu.wpi.first.wpilibj.AnalogTriggerOutput.AnalogTriggerType;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.CounterJNI;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.util.BoundaryException;
@@ -205,6 +206,20 @@ public class Counter extends SensorBase implements CounterBase, LiveWindowSendab
     return m_index;
   }
 
+  /**
+   * @return the HAL counter object
+   */
+  long getCounterHandle() {
+    return m_counter;
+  }
+
+  /**
+   * @return the distance per pulse set by setDistancePerPulse()
+   */
+  double getDistancePerPulse() {
+    return m_distancePerPulse;
+  }
+
   /**
    * Set the upsource for the counter as a digital input channel.
    *
@@ -590,6 +605,7 @@ public class Counter extends SensorBase implements CounterBase, LiveWindowSendab
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -614,7 +630,7 @@ public class Counter extends SensorBase implements CounterBase, LiveWindowSendab
   @Override
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", get());
+      m_publisher.putNumber(m_table, "Value", get());
     }
   }
 
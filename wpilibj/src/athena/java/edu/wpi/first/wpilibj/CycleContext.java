@@ -0,0 +1,125 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
+import edu.wpi.first.wpilibj.communication.HALControlWord;
+
+/**
+ * Snapshot of the FPGA time and the Driver Station control word taken once per
+ * iteration of the robot main loop.
+ *
+ * While a cycle is active, {@link Timer#getFPGATimestamp()} and the mode
+ * queries on {@link DriverStation} (isEnabled(), isAutonomous(), isTest(),
+ * isFMSAttached(), isDSAttached()) return the values captured by
+ * {@link #beginCycle()} instead of making a call into the HAL each time. The
+ * snapshot is only served to the thread that began the cycle; other threads,
+ * such as the PIDController and DriverStation threads, always read fresh
+ * values. Code that needs the current time inside a cycle should call
+ * {@link Timer#getFreshFPGATimestamp()}.
+ *
+ * The cycle context is opt-in. {@link IterativeRobot} begins and ends a cycle
+ * around each loop iteration once {@link #setEnabled(boolean)} has been called
+ * with true.
+ */
+public class CycleContext {
+  private static volatile boolean m_enabled = false;
+
+  // Thread that began the current cycle, or null if no cycle is active.
+  private static volatile Thread m_cycleThread = null;
+  private static double m_timestamp;
+  private static HALControlWord m_controlWord;
+  private static long m_cycleCount = 0;
+
+  private CycleContext() {}
+
+  /**
+   * Enable or disable the cycle context. When disabled, {@link #beginCycle()}
+   * does nothing and all queries read directly from the hardware.
+   *
+   * @param enabled True to serve per-cycle snapshots
+   */
+  public static void setEnabled(boolean enabled) {
+    m_enabled = enabled;
+    if (!enabled) {
+      endCycle();
+    }
+  }
+
+  /**
+   * @return True if the cycle context has been enabled
+   */
+  public static boolean isEnabled() {
+    return m_enabled;
+  }
+
+  /**
+   * Capture the FPGA time and control word for a new cycle. Subsequent queries
+   * from the calling thread are served from this snapshot until
+   * {@link #endCycle()} or the next call to beginCycle().
+   */
+  public static void beginCycle() {
+    if (!m_enabled) {
+      return;
+    }
+    m_timestamp = Timer.getFreshFPGATimestamp();
+    m_controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    m_cycleCount++;
+    m_cycleThread = Thread.currentThread();
+    Timer.setCycleTimestamp(m_timestamp);
+  }
+
+  /**
+   * Stop serving the snapshot captured by {@link #beginCycle()}.
+   */
+  public static void endCycle() {
+    m_cycleThread = null;
+    Timer.clearCycleTimestamp();
+  }
+
+  /**
+   * @return True if a cycle is active on the calling thread
+   */
+  public static boolean isActive() {
+    return m_cycleThread == Thread.currentThread();
+  }
+
+  /**
+   * Get the FPGA time captured at the start of the current cycle. If no cycle
+   * is active on the calling thread the hardware clock is read instead.
+   *
+   * @return The cycle time in seconds
+   */
+  public static double getTimestamp() {
+    if (isActive()) {
+      return m_timestamp;
+    }
+    return Timer.getFreshFPGATimestamp();
+  }
+
+  /**
+   * Get the control word captured at the start of the current cycle. If no
+   * cycle is active on the calling thread the control word is read from the
+   * HAL instead.
+   *
+   * @return The Driver Station control word
+   */
+  public static HALControlWord getControlWord() {
+    if (isActive()) {
+      return m_controlWord;
+    }
+    return FRCNetworkCommunicationsLibrary.HALGetControlWord();
+  }
+
+  /**
+   * @return The number of cycles begun since the program started
+   */
+  public static long getCycleCount() {
+    return m_cycleCount;
+  }
+}
@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.DIOJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -70,6 +71,7 @@ public class DigitalInput extends DigitalSource implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -86,7 +88,7 @@ public class DigitalInput extends DigitalSource implements LiveWindowSendable {
   @Override
   public void updateTable() {
     if (m_table != null) {
-      m_table.putBoolean("Value", get());
+      m_publisher.putBoolean(m_table, "Value", get());
     }
   }
 
@@ -0,0 +1,217 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.hal.CounterJNI;
+import edu.wpi.first.wpilibj.hal.EncoderJNI;
+
+/**
+ * Reads the state of a set of counters and encoders all at once, so that the
+ * robot loop can use the values read at one point in time instead of reading
+ * each one from the FPGA whenever it is needed.
+ *
+ * Counters and encoders are registered once, and each call to
+ * {@link #capture()} then reads the count, period, direction and stopped state
+ * of all of them in one pass, stamped with a single FPGA time. The values are
+ * read straight from the HAL objects into preallocated arrays, one per kind of
+ * value, without going through the Counter and Encoder methods. The accessors
+ * take the index returned when the source was registered and only read the
+ * arrays.
+ *
+ * The arrays of HAL objects and values are laid out so that the pass in
+ * {@link #capture()} can be replaced by a single native call filling them,
+ * without changing the accessors.
+ *
+ * A snapshot is not thread safe; it should be captured and read from a single
+ * thread, normally at the start of each loop. A counter or encoder must not be
+ * freed while it is registered.
+ */
+public class DigitalSnapshot {
+  private int m_count = 0;
+
+  // HAL object of each source, and whether it is a 4x encoder (read through
+  // EncoderJNI) or a counter (read through CounterJNI)
+  private long[] m_handles = new long[4];
+  private boolean[] m_isEncoder = new boolean[4];
+  // Scale from the raw count to pulses, 1 for counters
+  private double[] m_scales = new double[4];
+  private Encoder[] m_encoders = new Encoder[4];
+  private Counter[] m_counters = new Counter[4];
+
+  private double m_timestamp = 0.0;
+  private int[] m_raw = new int[4];
+  private double[] m_periods = new double[4];
+  private boolean[] m_directions = new boolean[4];
+  private boolean[] m_stopped = new boolean[4];
+  private double[] m_distancePerPulse = new double[4];
+
+  /**
+   * Add an encoder to the snapshot.
+   *
+   * @param encoder The encoder
+   * @return The index used to read the encoder's values
+   */
+  public int add(Encoder encoder) {
+    Counter counter = encoder.getCounter();
+    int index = addSource();
+    if (counter != null) {
+      m_handles[index] = counter.getCounterHandle();
+      m_isEncoder[index] = false;
+    } else {
+      m_handles[index] = encoder.getEncoderHandle();
+      m_isEncoder[index] = true;
+    }
+    m_scales[index] = encoder.decodingScaleFactor();
+    m_encoders[index] = encoder;
+    return index;
+  }
+
+  /**
+   * Add a counter to the snapshot.
+   *
+   * @param counter The counter
+   * @return The index used to read the counter's values
+   */
+  public int add(Counter counter) {
+    int index = addSource();
+    m_handles[index] = counter.getCounterHandle();
+    m_isEncoder[index] = false;
+    m_scales[index] = 1.0;
+    m_counters[index] = counter;
+    return index;
+  }
+
+  /**
+   * @return The number of counters and encoders in the snapshot
+   */
+  public int getSourceCount() {
+    return m_count;
+  }
+
+  /**
+   * Read all counters and encoders.
+   */
+  public void capture() {
+    // Read the clock rather than take the cycle's start time, so the
+    // timestamp is when the counters were actually read
+    m_timestamp = Timer.getFreshFPGATimestamp();
+    for (int i = 0; i < m_count; i++) {
+      long handle = m_handles[i];
+      if (m_isEncoder[i]) {
+        m_raw[i] = EncoderJNI.getEncoder(handle);
+        m_periods[i] = EncoderJNI.getEncoderPeriod(handle);
+        m_directions[i] = EncoderJNI.getEncoderDirection(handle);
+        m_stopped[i] = EncoderJNI.getEncoderStopped(handle);
+      } else {
+        m_raw[i] = CounterJNI.getCounter(handle);
+        // Encoders using a counter count edges rather than pulses
+        m_periods[i] = CounterJNI.getCounterPeriod(handle) / m_scales[i];
+        m_directions[i] = CounterJNI.getCounterDirection(handle);
+        m_stopped[i] = CounterJNI.getCounterStopped(handle);
+      }
+      m_distancePerPulse[i] = m_encoders[i] != null ? m_encoders[i].getDistancePerPulse()
+          : m_counters[i].getDistancePerPulse();
+    }
+  }
+
+  /**
+   * @return The FPGA time in seconds of the last capture
+   */
+  public double getTimestamp() {
+    return m_timestamp;
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The raw count, as from {@link Encoder#getRaw()} or
+   *         {@link Counter#get()}
+   */
+  public int getRaw(int index) {
+    checkIndex(index);
+    return m_raw[index];
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The count, adjusted for the encoder's decoding type
+   */
+  public int get(int index) {
+    checkIndex(index);
+    return (int) (m_raw[index] * m_scales[index]);
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The distance, scaled by the distance per pulse
+   */
+  public double getDistance(int index) {
+    checkIndex(index);
+    return m_raw[index] * m_scales[index] * m_distancePerPulse[index];
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The period of the most recent pulse in seconds
+   */
+  public double getPeriod(int index) {
+    checkIndex(index);
+    return m_periods[index];
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The rate in distance per second, scaled by the distance per pulse
+   */
+  public double getRate(int index) {
+    checkIndex(index);
+    return m_distancePerPulse[index] / m_periods[index];
+  }
+
+  /**
+   * @param index The index of the source
+   * @return The last direction the count changed in
+   */
+  public boolean getDirection(int index) {
+    checkIndex(index);
+    return m_directions[index];
+  }
+
+  /**
+   * @param index The index of the source
+   * @return True if the source is considered stopped
+   */
+  public boolean getStopped(int index) {
+    checkIndex(index);
+    return m_stopped[index];
+  }
+
+  private int addSource() {
+    if (m_count == m_handles.length) {
+      int size = m_count * 2;
+      m_handles = Arrays.copyOf(m_handles, size);
+      m_isEncoder = Arrays.copyOf(m_isEncoder, size);
+      m_scales = Arrays.copyOf(m_scales, size);
+      m_encoders = Arrays.copyOf(m_encoders, size);
+      m_counters = Arrays.copyOf(m_counters, size);
+      m_raw = Arrays.copyOf(m_raw, size);
+      m_periods = Arrays.copyOf(m_periods, size);
+      m_directions = Arrays.copyOf(m_directions, size);
+      m_stopped = Arrays.copyOf(m_stopped, size);
+      m_distancePerPulse = Arrays.copyOf(m_distancePerPulse, size);
+    }
+    return m_count++;
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= m_count) {
+      throw new IndexOutOfBoundsException("Invalid snapshot index: " + index);
+    }
+  }
+}
@@ -31,7 +31,7 @@ public abstract class DigitalSource extends InterruptableSensorBase {
     checkDigitalChannel(m_channel);
 
     try {
-      channels.allocate(m_channel);
+      channels.allocate(m_channel, this);
     } catch (CheckedAllocationException ex) {
       throw new AllocationException("Digital input " + m_channel + " is already allocated");
     }
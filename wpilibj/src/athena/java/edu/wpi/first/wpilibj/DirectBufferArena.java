@@ -0,0 +1,155 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+
+/**
+ * Reusable direct buffers for passing data to the JNI bus functions, so that
+ * the SPI, I2C, serial port and CAN wrappers do not allocate a new direct
+ * buffer for every transfer.
+ *
+ * Each thread has its own arena, so no locking is needed. An arena holds two
+ * buffers of each power-of-two size up to {@link #kMaxPooledSize}, one for
+ * data sent and one for data received, so a transaction can use both at once.
+ * A buffer is only valid until the same thread asks for another buffer of the
+ * same kind, so it must not be kept or passed to code that may use the arena
+ * itself. Requests larger than the largest size are allocated normally.
+ */
+class DirectBufferArena {
+  /**
+   * Largest buffer kept in the arena
+   */
+  static final int kMaxPooledSize = 1 << 12;
+
+  /**
+   * Largest buffer available with an exact capacity, for JNI functions that
+   * take the data size from the buffer's capacity.
+   */
+  static final int kMaxExactSize = 16;
+
+  private static final int kMinClassShift = 4;
+  private static final int kClasses =
+      Integer.numberOfTrailingZeros(kMaxPooledSize) - kMinClassShift + 1;
+
+  private static final ThreadLocal<DirectBufferArena> m_arenas =
+      new ThreadLocal<DirectBufferArena>() {
+        @Override
+        protected DirectBufferArena initialValue() {
+          return new DirectBufferArena();
+        }
+      };
+
+  private final ByteBuffer[] m_send = new ByteBuffer[kClasses];
+  private final ByteBuffer[] m_receive = new ByteBuffer[kClasses];
+  private final ByteBuffer[] m_exact = new ByteBuffer[kMaxExactSize + 1];
+  private LongBuffer m_long;
+  private IntBuffer m_int;
+
+  private DirectBufferArena() {}
+
+  /**
+   * Get a buffer for data to send. The buffer's position is 0, its limit is
+   * the requested size, its byte order is big endian, and its contents are
+   * undefined.
+   *
+   * @param size The number of bytes needed
+   * @return The buffer
+   */
+  static ByteBuffer getSendBuffer(int size) {
+    DirectBufferArena arena = m_arenas.get();
+    return arena.get(arena.m_send, size);
+  }
+
+  /**
+   * Get a buffer for data to receive, which can be used at the same time as
+   * the send buffer.
+   *
+   * @param size The number of bytes needed
+   * @return The buffer
+   * @see #getSendBuffer(int)
+   */
+  static ByteBuffer getReceiveBuffer(int size) {
+    DirectBufferArena arena = m_arenas.get();
+    return arena.get(arena.m_receive, size);
+  }
+
+  /**
+   * Get a buffer whose capacity is exactly the requested size.
+   *
+   * @param size The number of bytes needed
+   * @return The buffer, with its position at 0 and big endian byte order
+   */
+  static ByteBuffer getExactBuffer(int size) {
+    if (size > kMaxExactSize) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    DirectBufferArena arena = m_arenas.get();
+    ByteBuffer buffer = arena.m_exact[size];
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(size);
+      arena.m_exact[size] = buffer;
+    }
+    buffer.clear();
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    return buffer;
+  }
+
+  /**
+   * @return A little endian buffer holding one long, for reading 64-bit
+   *         accumulator values
+   */
+  static LongBuffer getLongBuffer() {
+    DirectBufferArena arena = m_arenas.get();
+    if (arena.m_long == null) {
+      arena.m_long = ByteBuffer.allocateDirect(8).order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+    }
+    return arena.m_long;
+  }
+
+  /**
+   * @return A little endian buffer holding one int
+   */
+  static IntBuffer getIntBuffer() {
+    DirectBufferArena arena = m_arenas.get();
+    if (arena.m_int == null) {
+      arena.m_int = ByteBuffer.allocateDirect(4).order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+    }
+    return arena.m_int;
+  }
+
+  private ByteBuffer get(ByteBuffer[] buffers, int size) {
+    if (size > kMaxPooledSize) {
+      return ByteBuffer.allocateDirect(size);
+    }
+    int sizeClass = sizeClass(size);
+    ByteBuffer buffer = buffers[sizeClass];
+    if (buffer == null) {
+      buffer = ByteBuffer.allocateDirect(1 << (sizeClass + kMinClassShift));
+      buffers[sizeClass] = buffer;
+    }
+    buffer.clear();
+    buffer.limit(size);
+    buffer.order(ByteOrder.BIG_ENDIAN);
+    return buffer;
+  }
+
+  /**
+   * @return The index of the smallest power-of-two size class holding size
+   *         bytes
+   */
+  private static int sizeClass(int size) {
+    if (size <= 1 << kMinClassShift) {
+      return 0;
+    }
+    return 32 - Integer.numberOfLeadingZeros(size - 1) - kMinClassShift;
+  }
+}
@@ -10,6 +10,7 @@ package edu.wpi.first.wpilibj;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.tables.ITableListener;
@@ -49,13 +50,13 @@ public class DoubleSolenoid extends SolenoidBase implements LiveWindowSendable {
     checkSolenoidChannel(m_reverseChannel);
 
     try {
-      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_forwardChannel);
+      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_forwardChannel, this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("Solenoid channel " + m_forwardChannel + " on module "
           + m_moduleNumber + " is already allocated");
     }
     try {
-      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_reverseChannel);
+      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_reverseChannel, this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("Solenoid channel " + m_reverseChannel + " on module "
           + m_moduleNumber + " is already allocated");
@@ -101,6 +102,7 @@ public class DoubleSolenoid extends SolenoidBase implements LiveWindowSendable {
   public synchronized void free() {
     m_allocated.free(m_moduleNumber * kSolenoidChannels + m_forwardChannel);
     m_allocated.free(m_moduleNumber * kSolenoidChannels + m_reverseChannel);
+    OutputStage.resetSolenoids(m_moduleNumber, m_forwardMask | m_reverseMask);
     super.free();
   }
 
@@ -178,6 +180,7 @@ public class DoubleSolenoid extends SolenoidBase implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
   private ITableListener m_table_listener;
 
   /**
@@ -201,7 +204,7 @@ public class DoubleSolenoid extends SolenoidBase implements LiveWindowSendable {
   public void updateTable() {
     if (m_table != null) {
       // TODO: this is bad
-      m_table.putString("Value", (get() == Value.kForward ? "Forward"
+      m_publisher.putString(m_table, "Value", (get() == Value.kForward ? "Forward"
           : (get() == Value.kReverse ? "Reverse" : "Off")));
     }
   }
@@ -8,6 +8,7 @@
 package edu.wpi.first.wpilibj;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
 import edu.wpi.first.wpilibj.communication.HALControlWord;
@@ -26,11 +27,6 @@ public class DriverStation implements RobotState.Interface {
    */
   public static final int kJoystickPorts = 6;
 
-  private class HALJoystickButtons {
-    public int buttons;
-    public byte count;
-  }
-
   /**
    * The robot alliance that the robot is a part of
    */
@@ -56,11 +52,40 @@ public class DriverStation implements RobotState.Interface {
 
   private static DriverStation instance = new DriverStation();
 
-  private short[][] m_joystickAxes =
-      new short[kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickAxes];
-  private short[][] m_joystickPOVs =
-      new short[kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickPOVs];
-  private HALJoystickButtons[] m_joystickButtons = new HALJoystickButtons[kJoystickPorts];
+  /**
+   * The state of all joysticks as of one DS packet. Two of these are
+   * preallocated; the DS thread fills the one that is not published and then
+   * swaps the published reference, so readers never take a lock and always
+   * see the axes, POVs and buttons of a single packet. A snapshot is not
+   * overwritten until the packet after the one that replaced it arrives.
+   */
+  private static class JoystickSnapshot {
+    final short[][] axes =
+        new short[kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickAxes];
+    final int[] axisCount = new int[kJoystickPorts];
+    final short[][] povs =
+        new short[kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickPOVs];
+    final int[] povCount = new int[kJoystickPorts];
+    final int[] buttons = new int[kJoystickPorts];
+    final int[] buttonCount = new int[kJoystickPorts];
+  }
+
+  private final JoystickSnapshot[] m_joystickSnapshots =
+      {new JoystickSnapshot(), new JoystickSnapshot()};
+  private volatile JoystickSnapshot m_joystickData = m_joystickSnapshots[0];
+  private int m_nextSnapshot = 1;
+
+  // Reusable direct buffers handed to the HAL by getData()
+  private final ByteBuffer m_axesBuffer =
+      ByteBuffer.allocateDirect(FRCNetworkCommunicationsLibrary.kMaxJoystickAxes * 2).order(
+          ByteOrder.nativeOrder());
+  private final ByteBuffer m_povsBuffer =
+      ByteBuffer.allocateDirect(FRCNetworkCommunicationsLibrary.kMaxJoystickPOVs * 2).order(
+          ByteOrder.nativeOrder());
+  private final ByteBuffer m_buttonCountBuffer = ByteBuffer.allocateDirect(1);
+
+  private final JoystickHistory m_joystickHistory =
+      new JoystickHistory(JoystickHistory.kDefaultSize);
   private int[] m_joystickIsXbox = new int[kJoystickPorts];
   private int[] m_joystickType = new int[kJoystickPorts];
   private String[] m_joystickName = new String[kJoystickPorts];
@@ -95,9 +120,6 @@ public class DriverStation implements RobotState.Interface {
    */
   protected DriverStation() {
     m_dataSem = new Object();
-    for (int i = 0; i < kJoystickPorts; i++) {
-      m_joystickButtons[i] = new HALJoystickButtons();
-    }
 
     m_packetDataAvailableMutex = HALUtil.initializeMutexNormal();
     m_packetDataAvailableSem = HALUtil.initializeMultiWait();
@@ -176,20 +198,47 @@ public class DriverStation implements RobotState.Interface {
    * loop.
    */
   protected synchronized void getData() {
+    JoystickSnapshot data = m_joystickSnapshots[m_nextSnapshot];
 
     // Get the status of all of the joysticks
     for (byte stick = 0; stick < kJoystickPorts; stick++) {
-      m_joystickAxes[stick] = FRCNetworkCommunicationsLibrary.HALGetJoystickAxes(stick);
-      m_joystickPOVs[stick] = FRCNetworkCommunicationsLibrary.HALGetJoystickPOVs(stick);
-      ByteBuffer countBuffer = ByteBuffer.allocateDirect(1);
-      m_joystickButtons[stick].buttons =
-          FRCNetworkCommunicationsLibrary.HALGetJoystickButtons((byte) stick, countBuffer);
-      m_joystickButtons[stick].count = countBuffer.get();
+      int axisCount = FRCNetworkCommunicationsLibrary.HALGetJoystickAxesBuffer(stick, m_axesBuffer);
+      for (int i = 0; i < axisCount; i++) {
+        data.axes[stick][i] = m_axesBuffer.getShort(i * 2);
+      }
+      data.axisCount[stick] = axisCount;
+
+      int povCount = FRCNetworkCommunicationsLibrary.HALGetJoystickPOVsBuffer(stick, m_povsBuffer);
+      for (int i = 0; i < povCount; i++) {
+        data.povs[stick][i] = m_povsBuffer.getShort(i * 2);
+      }
+      data.povCount[stick] = povCount;
+
+      data.buttons[stick] =
+          FRCNetworkCommunicationsLibrary.HALGetJoystickButtons(stick, m_buttonCountBuffer);
+      data.buttonCount[stick] = m_buttonCountBuffer.get(0);
     }
 
+    m_joystickHistory.record(Utility.getFPGATime() / 1000000.0, data.axes, data.axisCount,
+        data.povs, data.povCount, data.buttons, data.buttonCount);
+
+    // Publish the new snapshot; the old one is refilled on the next packet
+    m_joystickData = data;
+    m_nextSnapshot = 1 - m_nextSnapshot;
+
     m_newControlData = true;
   }
 
+  /**
+   * Get the history of joystick packets received from the Driver Station. Each
+   * entry is tagged with the FPGA time at which the packet arrived.
+   *
+   * @return The joystick history.
+   */
+  public JoystickHistory getJoystickHistory() {
+    return m_joystickHistory;
+  }
+
   /**
    * Read the battery voltage.
    *
@@ -231,7 +280,7 @@ public class DriverStation implements RobotState.Interface {
    * @param axis The analog axis value to read from the joystick.
    * @return The value of the axis on the joystick.
    */
-  public synchronized double getStickAxis(int stick, int axis) {
+  public double getStickAxis(int stick, int axis) {
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
@@ -240,13 +289,14 @@ public class DriverStation implements RobotState.Interface {
       throw new RuntimeException("Joystick axis is out of range");
     }
 
-    if (axis >= m_joystickAxes[stick].length) {
+    JoystickSnapshot data = m_joystickData;
+    if (axis >= data.axisCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick axis " + axis + " on port " + stick
           + " not available, check if controller is plugged in");
       return 0.0;
     }
 
-    byte value = (byte) m_joystickAxes[stick][axis];
+    byte value = (byte) data.axes[stick][axis];
 
     if (value < 0) {
       return value / 128.0;
@@ -261,13 +311,13 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return The number of axes on the indicated joystick
    */
-  public synchronized int getStickAxisCount(int stick) {
+  public int getStickAxisCount(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
 
-    return m_joystickAxes[stick].length;
+    return m_joystickData.axisCount[stick];
   }
 
   /**
@@ -275,7 +325,7 @@ public class DriverStation implements RobotState.Interface {
    *
    * @return the angle of the POV in degrees, or -1 if the POV is not pressed.
    */
-  public synchronized int getStickPOV(int stick, int pov) {
+  public int getStickPOV(int stick, int pov) {
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
@@ -284,13 +334,14 @@ public class DriverStation implements RobotState.Interface {
       throw new RuntimeException("Joystick POV is out of range");
     }
 
-    if (pov >= m_joystickPOVs[stick].length) {
+    JoystickSnapshot data = m_joystickData;
+    if (pov >= data.povCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick POV " + pov + " on port " + stick
           + " not available, check if controller is plugged in");
       return -1;
     }
 
-    return m_joystickPOVs[stick][pov];
+    return data.povs[stick][pov];
   }
 
   /**
@@ -299,13 +350,13 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return The number of POVs on the indicated joystick
    */
-  public synchronized int getStickPOVCount(int stick) {
+  public int getStickPOVCount(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
 
-    return m_joystickPOVs[stick].length;
+    return m_joystickData.povCount[stick];
   }
 
   /**
@@ -314,12 +365,12 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick to read.
    * @return The state of the buttons on the joystick.
    */
-  public synchronized int getStickButtons(final int stick) {
+  public int getStickButtons(final int stick) {
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-3");
     }
 
-    return m_joystickButtons[stick].buttons;
+    return m_joystickData.buttons[stick];
   }
 
   /**
@@ -329,13 +380,13 @@ public class DriverStation implements RobotState.Interface {
    * @param button The button index, beginning at 1.
    * @return The state of the joystick button.
    */
-  public synchronized boolean getStickButton(final int stick, byte button) {
+  public boolean getStickButton(final int stick, byte button) {
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-3");
     }
 
-
-    if (button > m_joystickButtons[stick].count) {
+    JoystickSnapshot data = m_joystickData;
+    if (button > data.buttonCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick Button " + button + " on port " + stick
           + " not available, check if controller is plugged in");
       return false;
@@ -344,7 +395,7 @@ public class DriverStation implements RobotState.Interface {
       reportJoystickUnpluggedError("Button indexes begin at 1 in WPILib for C++ and Java");
       return false;
     }
-    return ((0x1 << (button - 1)) & m_joystickButtons[stick].buttons) != 0;
+    return ((0x1 << (button - 1)) & data.buttons[stick]) != 0;
   }
 
   /**
@@ -353,14 +404,13 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return The number of buttons on the indicated joystick
    */
-  public synchronized int getStickButtonCount(int stick) {
+  public int getStickButtonCount(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
 
-
-    return m_joystickButtons[stick].count;
+    return m_joystickData.buttonCount[stick];
   }
 
   /**
@@ -369,14 +419,15 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return A boolean that returns the value of isXbox
    */
-  public synchronized boolean getJoystickIsXbox(int stick) {
+  public boolean getJoystickIsXbox(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
     // TODO: Remove this when calling for descriptor on empty stick no longer
     // crashes
-    if (1 > m_joystickButtons[stick].count && 1 > m_joystickAxes[stick].length) {
+    JoystickSnapshot data = m_joystickData;
+    if (1 > data.buttonCount[stick] && 1 > data.axisCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick on port " + stick
           + " not available, check if controller is plugged in");
       return false;
@@ -394,14 +445,15 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return The value of type
    */
-  public synchronized int getJoystickType(int stick) {
+  public int getJoystickType(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
     // TODO: Remove this when calling for descriptor on empty stick no longer
     // crashes
-    if (1 > m_joystickButtons[stick].count && 1 > m_joystickAxes[stick].length) {
+    JoystickSnapshot data = m_joystickData;
+    if (1 > data.buttonCount[stick] && 1 > data.axisCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick on port " + stick
           + " not available, check if controller is plugged in");
       return -1;
@@ -415,14 +467,15 @@ public class DriverStation implements RobotState.Interface {
    * @param stick The joystick port number
    * @return The value of name
    */
-  public synchronized String getJoystickName(int stick) {
+  public String getJoystickName(int stick) {
 
     if (stick < 0 || stick >= kJoystickPorts) {
       throw new RuntimeException("Joystick index is out of range, should be 0-5");
     }
     // TODO: Remove this when calling for descriptor on empty stick no longer
     // crashes
-    if (1 > m_joystickButtons[stick].count && 1 > m_joystickAxes[stick].length) {
+    JoystickSnapshot data = m_joystickData;
+    if (1 > data.buttonCount[stick] && 1 > data.axisCount[stick]) {
       reportJoystickUnpluggedWarning("Joystick on port " + stick
           + " not available, check if controller is plugged in");
       return "";
@@ -437,7 +490,7 @@ public class DriverStation implements RobotState.Interface {
    * @return True if the robot is enabled, false otherwise.
    */
   public boolean isEnabled() {
-    HALControlWord controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    HALControlWord controlWord = CycleContext.getControlWord();
     return controlWord.getEnabled() && controlWord.getDSAttached();
   }
 
@@ -458,7 +511,7 @@ public class DriverStation implements RobotState.Interface {
    * @return True if autonomous mode should be enabled, false otherwise.
    */
   public boolean isAutonomous() {
-    HALControlWord controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    HALControlWord controlWord = CycleContext.getControlWord();
     return controlWord.getAutonomous();
   }
 
@@ -469,7 +522,7 @@ public class DriverStation implements RobotState.Interface {
    * @return True if test mode should be enabled, false otherwise.
    */
   public boolean isTest() {
-    HALControlWord controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    HALControlWord controlWord = CycleContext.getControlWord();
     return controlWord.getTest();
   }
 
@@ -581,12 +634,12 @@ public class DriverStation implements RobotState.Interface {
    *         Field Management System
    */
   public boolean isFMSAttached() {
-    HALControlWord controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    HALControlWord controlWord = CycleContext.getControlWord();
     return controlWord.getFMSAttached();
   }
 
   public boolean isDSAttached() {
-    HALControlWord controlWord = FRCNetworkCommunicationsLibrary.HALGetControlWord();
+    HALControlWord controlWord = CycleContext.getControlWord();
     return controlWord.getDSAttached();
   }
 
@@ -607,7 +660,9 @@ public class DriverStation implements RobotState.Interface {
 
   /**
    * Report error to Driver Station. Also prints error to System.err Optionally
-   * appends Stack trace to error message
+   * appends Stack trace to error message. The error is sent by a background
+   * thread, and repeats of the same message are rate limited; see
+   * {@link ErrorReporter}.
    *$
    * @param printTrace If true, append stack trace to error string
    */
@@ -617,7 +672,9 @@ public class DriverStation implements RobotState.Interface {
 
   /**
    * Report warning to Driver Station. Also prints error to System.err Optionally
-   * appends Stack trace to warning message
+   * appends Stack trace to warning message. The warning is sent by a background
+   * thread, and repeats of the same message are rate limited; see
+   * {@link ErrorReporter}.
    *$
    * @param printTrace If true, append stack trace to warning string
    */
@@ -626,25 +683,11 @@ public class DriverStation implements RobotState.Interface {
   }
 
   private static void reportErrorImpl(boolean is_error, int code, String error, boolean printTrace) {
-    StackTraceElement[] traces = Thread.currentThread().getStackTrace();
-    String locString;
-    if (traces.length > 3)
-      locString = traces[3].toString();
-    else
-      locString = new String();
-    boolean haveLoc = false;
-    String traceString = new String();
-    traceString = " at ";
-    for (int i = 3; i < traces.length; i++) {
-      String loc = traces[i].toString();
-      traceString += loc + "\n";
-      // get first user function
-      if (!haveLoc && !loc.startsWith("edu.wpi.first.wpilibj")) {
-        locString = loc;
-        haveLoc = true;
-      }
+    if (is_error) {
+      ErrorReporter.reportError(code, error, printTrace);
+    } else {
+      ErrorReporter.reportWarning(code, error, printTrace);
     }
-    FRCNetworkCommunicationsLibrary.HALSendError(is_error, code, false, error, locString, printTrace ? traceString : "", true);
   }
 
   /**
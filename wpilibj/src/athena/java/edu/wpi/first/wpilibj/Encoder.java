@@ -15,6 +15,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.EncoderJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.util.BoundaryException;
@@ -345,6 +346,28 @@ public class Encoder extends SensorBase implements CounterBase, PIDSource, LiveW
     return m_index;
   }
 
+  /**
+   * @return the FPGA counter used for 1x and 2x decoding, or null for 4x
+   *         decoding
+   */
+  Counter getCounter() {
+    return m_counter;
+  }
+
+  /**
+   * @return the HAL encoder object, used for 4x decoding
+   */
+  long getEncoderHandle() {
+    return m_encoder;
+  }
+
+  /**
+   * @return the distance per pulse set by setDistancePerPulse()
+   */
+  double getDistancePerPulse() {
+    return m_distancePerPulse;
+  }
+
   /**
    * @return the encoding scale factor 1x, 2x, or 4x, per the requested
    *         encodingType. Used to divide raw edge counts down to spec'd counts.
@@ -491,7 +514,7 @@ public class Encoder extends SensorBase implements CounterBase, PIDSource, LiveW
    * The scale needed to convert a raw counter value into a number of encoder
    * pulses.
    */
-  private double decodingScaleFactor() {
+  double decodingScaleFactor() {
     switch (m_encodingType) {
       case k1X:
         return 1.0;
@@ -706,6 +729,7 @@ public class Encoder extends SensorBase implements CounterBase, PIDSource, LiveW
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -727,9 +751,9 @@ public class Encoder extends SensorBase implements CounterBase, PIDSource, LiveW
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Speed", getRate());
-      m_table.putNumber("Distance", getDistance());
-      m_table.putNumber("Distance per Tick", m_distancePerPulse);
+      m_publisher.putNumber(m_table, "Speed", getRate());
+      m_publisher.putNumber(m_table, "Distance", getDistance());
+      m_publisher.putNumber(m_table, "Distance per Tick", m_distancePerPulse);
     }
   }
 
@@ -0,0 +1,378 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+/**
+ * Samples an encoder from a background thread at a high fixed rate and
+ * estimates its velocity and acceleration by fitting a parabola through the
+ * latest samples by least squares.
+ *
+ * {@link Encoder#getRate()} is computed from the time between the last few
+ * pulses, which is noisy at low speed and lags behind at high speed. Fitting
+ * the distance over a window of samples instead uses every count in the
+ * window, and the fitted velocity is evaluated at the latest sample rather
+ * than the middle of the window, so a longer window lowers the noise without
+ * adding much lag. The window is set per sampler with
+ * {@link #setWindow(int)}.
+ *
+ * The samples are kept in a timestamped ring along with running sums of the
+ * terms of the fit, so each sample costs the same however long the window is.
+ * The sums are rebuilt from the ring once per window to stop rounding errors
+ * from building up.
+ *
+ * The sampler thread is the only writer, and publishes each estimate through
+ * a sequence count that readers check, so readers never lock.
+ */
+public class EncoderSampler implements PIDSource {
+  /**
+   * Reads the distance to sample. {@link Encoder#getDistance()} is used on
+   * the robot; tests can supply their own.
+   */
+  public interface Source {
+    /**
+     * @return The current distance
+     */
+    double get();
+  }
+
+  /**
+   * Default time between samples in seconds
+   */
+  public static final double kDefaultPeriod = 0.001;
+
+  /**
+   * Default number of samples fit
+   */
+  public static final int kDefaultWindow = 20;
+
+  /**
+   * Largest number of samples that can be fit
+   */
+  public static final int kMaxWindow = 1000;
+
+  // One slot more than the largest window, so the sample leaving the window
+  // is still there when the new one is added
+  private static final int kRingSize = kMaxWindow + 1;
+
+  private final Source m_source;
+  private final double[] m_timestamps = new double[kRingSize];
+  private final double[] m_distances = new double[kRingSize];
+  private long m_count = 0;
+
+  // Window requested by setWindow() and window the sums are for
+  private volatile int m_window;
+  private int m_activeWindow = 0;
+  private int m_sinceRebuild = 0;
+
+  // Sums over the window of powers of time and of distance times powers of
+  // time, relative to the oldest sample at the last rebuild
+  private double m_t0;
+  private double m_x0;
+  private double m_st;
+  private double m_st2;
+  private double m_st3;
+  private double m_st4;
+  private double m_sx;
+  private double m_stx;
+  private double m_st2x;
+
+  // Latest estimate, written between two increments of m_sequence
+  private volatile int m_sequence = 0;
+  private volatile double m_timestamp = 0.0;
+  private volatile double m_distance = 0.0;
+  private volatile double m_velocity = 0.0;
+  private volatile double m_acceleration = 0.0;
+
+  private PIDSourceType m_pidSource = PIDSourceType.kRate;
+
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("EncoderSampler", Thread.MAX_PRIORITY, new PeriodicSampler.Task() {
+        @Override
+        public void run(double timestamp) {
+          sample(timestamp);
+        }
+      });
+
+  /**
+   * Create a sampler for an encoder, fitting the default number of samples.
+   *
+   * @param encoder The encoder, with its distance per pulse set
+   */
+  public EncoderSampler(Encoder encoder) {
+    this(encoder, kDefaultWindow);
+  }
+
+  /**
+   * Create a sampler for an encoder.
+   *
+   * @param encoder The encoder, with its distance per pulse set
+   * @param window The number of samples to fit
+   */
+  public EncoderSampler(final Encoder encoder, int window) {
+    this(new Source() {
+      @Override
+      public double get() {
+        return encoder.getDistance();
+      }
+    }, window);
+  }
+
+  /**
+   * Create a sampler.
+   *
+   * @param source Reads the distance to sample
+   * @param window The number of samples to fit
+   */
+  public EncoderSampler(Source source, int window) {
+    m_source = source;
+    setWindow(window);
+  }
+
+  /**
+   * Set the number of samples to fit. A longer window gives a smoother
+   * estimate that is slower to follow changes in acceleration.
+   *
+   * @param window The number of samples, from 3 to {@link #kMaxWindow}
+   */
+  public void setWindow(int window) {
+    if (window < 3 || window > kMaxWindow) {
+      throw new IllegalArgumentException("Encoder sampler window must be from 3 to " + kMaxWindow
+          + " samples");
+    }
+    m_window = window;
+  }
+
+  /**
+   * @return The number of samples fit
+   */
+  public int getWindow() {
+    return m_window;
+  }
+
+  /**
+   * Start sampling at the default rate.
+   */
+  public void start() {
+    start(kDefaultPeriod);
+  }
+
+  /**
+   * Start sampling.
+   *
+   * @param period The time between samples in seconds
+   */
+  public synchronized void start(double period) {
+    if (period <= 0.0) {
+      throw new IllegalArgumentException("Encoder sampler period must be positive");
+    }
+    m_sampler.start(period);
+  }
+
+  /**
+   * Stop sampling. The latest estimate is kept.
+   */
+  public synchronized void stop() {
+    m_sampler.stop();
+  }
+
+  /**
+   * @return The latest distance sampled
+   */
+  public double getDistance() {
+    while (true) {
+      int sequence = m_sequence;
+      double distance = m_distance;
+      if (isConsistent(sequence)) {
+        return distance;
+      }
+    }
+  }
+
+  /**
+   * @return The velocity at the latest sample, in distance per second
+   */
+  public double getVelocity() {
+    while (true) {
+      int sequence = m_sequence;
+      double velocity = m_velocity;
+      if (isConsistent(sequence)) {
+        return velocity;
+      }
+    }
+  }
+
+  /**
+   * @return The acceleration over the window, in distance per second squared
+   */
+  public double getAcceleration() {
+    while (true) {
+      int sequence = m_sequence;
+      double acceleration = m_acceleration;
+      if (isConsistent(sequence)) {
+        return acceleration;
+      }
+    }
+  }
+
+  /**
+   * Get the latest estimate, with all values from the same sample.
+   *
+   * @param estimate Array to store the distance, velocity and acceleration in
+   * @return The time in seconds of the sample
+   */
+  public double getEstimate(double[] estimate) {
+    while (true) {
+      int sequence = m_sequence;
+      double timestamp = m_timestamp;
+      estimate[0] = m_distance;
+      estimate[1] = m_velocity;
+      estimate[2] = m_acceleration;
+      if (isConsistent(sequence)) {
+        return timestamp;
+      }
+    }
+  }
+
+  /**
+   * Set which parameter is used as the process control variable: the
+   * distance, or the velocity.
+   *
+   * @param pidSource An enum to select the parameter.
+   */
+  public void setPIDSourceType(PIDSourceType pidSource) {
+    m_pidSource = pidSource;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  public PIDSourceType getPIDSourceType() {
+    return m_pidSource;
+  }
+
+  /**
+   * Implement the PIDSource interface.
+   *
+   * @return The current value of the selected source parameter.
+   */
+  public double pidGet() {
+    switch (m_pidSource) {
+      case kDisplacement:
+        return getDistance();
+      case kRate:
+        return getVelocity();
+      default:
+        return 0.0;
+    }
+  }
+
+  /**
+   * Take one sample and update the estimate.
+   *
+   * @param timestamp The time the sample was taken at
+   */
+  void sample(double timestamp) {
+    double distance = m_source.get();
+    int slot = (int) (m_count % kRingSize);
+    m_timestamps[slot] = timestamp;
+    m_distances[slot] = distance;
+    m_count++;
+
+    int window = m_window;
+    if (window != m_activeWindow || m_sinceRebuild >= window) {
+      m_activeWindow = window;
+      rebuild();
+    } else {
+      add(timestamp, distance, 1.0);
+      if (m_count > window) {
+        int oldest = (int) ((m_count - 1 - window) % kRingSize);
+        add(m_timestamps[oldest], m_distances[oldest], -1.0);
+      }
+      m_sinceRebuild++;
+    }
+    fit(timestamp, distance);
+  }
+
+  /**
+   * Recompute the sums over the window, relative to its oldest sample.
+   */
+  private void rebuild() {
+    int n = (int) Math.min(m_count, m_activeWindow);
+    int first = (int) ((m_count - n) % kRingSize);
+    m_t0 = m_timestamps[first];
+    m_x0 = m_distances[first];
+    m_st = m_st2 = m_st3 = m_st4 = 0.0;
+    m_sx = m_stx = m_st2x = 0.0;
+    for (long i = m_count - n; i < m_count; i++) {
+      int slot = (int) (i % kRingSize);
+      add(m_timestamps[slot], m_distances[slot], 1.0);
+    }
+    m_sinceRebuild = 0;
+  }
+
+  /**
+   * Add a sample to the sums, or remove it when sign is -1.
+   */
+  private void add(double timestamp, double distance, double sign) {
+    double t = timestamp - m_t0;
+    double x = (distance - m_x0) * sign;
+    double t2 = t * t;
+    m_st += sign * t;
+    m_st2 += sign * t2;
+    m_st3 += sign * t2 * t;
+    m_st4 += sign * t2 * t2;
+    m_sx += x;
+    m_stx += x * t;
+    m_st2x += x * t2;
+  }
+
+  /**
+   * Solve for the parabola x = a + b t + c t^2 through the window and publish
+   * its slope and curvature at the latest sample. Falls back to a straight
+   * line until there are enough distinct samples.
+   */
+  private void fit(double timestamp, double distance) {
+    double n = Math.min(m_count, m_activeWindow);
+    double velocity = 0.0;
+    double acceleration = 0.0;
+
+    // Determinant of the normal equations and of the same with the b and c
+    // columns replaced by the right hand side (Cramer's rule)
+    double det = n * (m_st2 * m_st4 - m_st3 * m_st3) - m_st * (m_st * m_st4 - m_st3 * m_st2)
+        + m_st2 * (m_st * m_st3 - m_st2 * m_st2);
+    if (n >= 3 && det > 1e-9 * n * m_st2 * m_st4) {
+      double detB = n * (m_stx * m_st4 - m_st3 * m_st2x) - m_sx * (m_st * m_st4 - m_st3 * m_st2)
+          + m_st2 * (m_st * m_st2x - m_stx * m_st2);
+      double detC = n * (m_st2 * m_st2x - m_stx * m_st3) - m_st * (m_st * m_st2x - m_stx * m_st2)
+          + m_sx * (m_st * m_st3 - m_st2 * m_st2);
+      double b = detB / det;
+      double c = detC / det;
+      velocity = b + 2.0 * c * (timestamp - m_t0);
+      acceleration = 2.0 * c;
+    } else {
+      double denominator = n * m_st2 - m_st * m_st;
+      if (n >= 2 && denominator > 0.0) {
+        velocity = (n * m_stx - m_st * m_sx) / denominator;
+      }
+    }
+
+    m_sequence++;
+    m_timestamp = timestamp;
+    m_distance = distance;
+    m_velocity = velocity;
+    m_acceleration = acceleration;
+    m_sequence++;
+  }
+
+  /**
+   * @return true if no estimate was published since the sequence was read
+   */
+  private boolean isConsistent(int sequence) {
+    return (sequence & 1) == 0 && sequence == m_sequence;
+  }
+}
@@ -0,0 +1,387 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
+
+/**
+ * Sends errors, warnings and console messages to the Driver Station from a
+ * background thread so that the thread reporting them is not stalled.
+ *
+ * Reporting a message captures the calling thread's stack and claims a
+ * preallocated event in a bounded lock-free queue which is drained by a low
+ * priority thread. Formatting the stack trace, sending the message to the
+ * Driver Station and printing it all happen on that thread. If the queue is
+ * full the message is dropped and counted.
+ *
+ * Errors and warnings are rate limited per type, code and message: a message
+ * reported again within {@link #kRepeatInterval} seconds of the last time it
+ * was sent is only counted, and the count is sent with the next copy of the
+ * message as "(repeated N times)". The messages being tracked are kept in a
+ * preallocated fixed-size table, and a message replaces any other message that
+ * hashes to the same slot, so tracking never runs out of room. The count of a
+ * replaced message is queued to be sent before it is forgotten.
+ */
+public class ErrorReporter {
+  /**
+   * Minimum time in seconds between two copies of the same message
+   */
+  public static final double kRepeatInterval = 1.0;
+
+  private static final int kQueueSize = 256;
+  // Must be a power of two
+  private static final int kRepeatTableSize = 512;
+  private static final long kDrainPeriodMs = 20;
+
+  static final int kTypeError = 0;
+  static final int kTypeWarning = 1;
+  private static final int kTypePrint = 2;
+
+  /**
+   * Where errors and warnings are sent. The Driver Station is used on the
+   * robot; tests can supply their own.
+   */
+  interface Sink {
+    void send(boolean isError, int code, String details, String location, String callStack);
+  }
+
+  private static class Event {
+    // Sequence number used to hand the slot between producers and the
+    // consumer; see enqueue() and drain().
+    final AtomicLong sequence;
+    int type;
+    int code;
+    String message;
+    Throwable trace;
+    boolean printTrace;
+    int repeated;
+
+    Event(long sequence) {
+      this.sequence = new AtomicLong(sequence);
+    }
+  }
+
+  /**
+   * The message tracked in one slot of the repeat table, guarded by its own
+   * lock. An empty slot has no message.
+   */
+  private static class RepeatState {
+    int type;
+    int code;
+    String message;
+    long nextAllowed;
+    int suppressed;
+
+    boolean matches(int type, int code, String message) {
+      return this.type == type && this.code == code && message.equals(this.message);
+    }
+  }
+
+  private static final Event[] m_events = new Event[kQueueSize];
+  private static final AtomicLong m_enqueuePos = new AtomicLong();
+  private static long m_dequeuePos = 0;
+  private static final Object m_drainLock = new Object();
+
+  private static final RepeatState[] m_repeats = new RepeatState[kRepeatTableSize];
+
+  private static final AtomicLong m_dropped = new AtomicLong();
+  private static final AtomicLong m_suppressed = new AtomicLong();
+
+  private static volatile Thread m_thread = null;
+
+  private static final Sink m_halSink = new Sink() {
+    @Override
+    public void send(boolean isError, int code, String details, String location,
+        String callStack) {
+      FRCNetworkCommunicationsLibrary.HALSendError(isError, code, false, details, location,
+          callStack, true);
+    }
+  };
+  private static volatile Sink m_sink = m_halSink;
+
+  static {
+    for (int i = 0; i < kQueueSize; i++) {
+      m_events[i] = new Event(i);
+    }
+    for (int i = 0; i < kRepeatTableSize; i++) {
+      m_repeats[i] = new RepeatState();
+    }
+  }
+
+  private ErrorReporter() {}
+
+  /**
+   * Queue an error to be sent to the Driver Station.
+   *
+   * @param code The error code
+   * @param message The error message
+   * @param printTrace If true, append the stack trace of the calling thread.
+   *        The location of the caller is sent either way.
+   */
+  public static void reportError(int code, String message, boolean printTrace) {
+    report(kTypeError, code, message, printTrace);
+  }
+
+  /**
+   * Queue a warning to be sent to the Driver Station.
+   *
+   * @param code The warning code
+   * @param message The warning message
+   * @param printTrace If true, append the stack trace of the calling thread.
+   *        The location of the caller is sent either way.
+   */
+  public static void reportWarning(int code, String message, boolean printTrace) {
+    report(kTypeWarning, code, message, printTrace);
+  }
+
+  /**
+   * Queue a message to be printed to the console. Console messages are not
+   * rate limited.
+   *
+   * @param message The message to print
+   */
+  public static void print(String message) {
+    enqueue(kTypePrint, 0, message, null, false, 0);
+  }
+
+  /**
+   * Send all queued messages from the calling thread. Call this before the
+   * program exits so that the last messages are not lost.
+   */
+  public static void flush() {
+    drain();
+  }
+
+  /**
+   * @return The number of messages waiting to be sent
+   */
+  public static int getQueueDepth() {
+    synchronized (m_drainLock) {
+      return (int) (m_enqueuePos.get() - m_dequeuePos);
+    }
+  }
+
+  /**
+   * @return The number of messages dropped because the queue was full
+   */
+  public static long getDroppedCount() {
+    return m_dropped.get();
+  }
+
+  /**
+   * @return The number of repeated errors and warnings that were counted
+   *         instead of being sent
+   */
+  public static long getSuppressedCount() {
+    return m_suppressed.get();
+  }
+
+  /**
+   * Set where errors and warnings are sent.
+   *
+   * @param sink The sink, or null to send them to the Driver Station
+   */
+  static void setSink(Sink sink) {
+    m_sink = sink != null ? sink : m_halSink;
+  }
+
+  /**
+   * @return The slot of the repeat table that tracks the message
+   */
+  static int getRepeatSlot(int type, int code, String message) {
+    int hash = (type * 31 + code) * 31 + message.hashCode();
+    return (hash ^ (hash >>> 16)) & (kRepeatTableSize - 1);
+  }
+
+  private static void report(int type, int code, String message, boolean printTrace) {
+    int repeated = 0;
+    long now = System.nanoTime();
+    RepeatState state = m_repeats[getRepeatSlot(type, code, message)];
+    int replacedType = 0;
+    int replacedCode = 0;
+    String replacedMessage = null;
+    int replacedRepeated = 0;
+    synchronized (state) {
+      if (state.matches(type, code, message)) {
+        if (now - state.nextAllowed < 0) {
+          state.suppressed++;
+          m_suppressed.incrementAndGet();
+          return;
+        }
+        repeated = state.suppressed;
+      } else if (state.message != null && state.suppressed > 0) {
+        replacedType = state.type;
+        replacedCode = state.code;
+        replacedMessage = state.message;
+        replacedRepeated = state.suppressed;
+      }
+      state.type = type;
+      state.code = code;
+      state.message = message;
+      state.nextAllowed = now + (long) (kRepeatInterval * 1e9);
+      state.suppressed = 0;
+    }
+    if (replacedMessage != null) {
+      enqueue(replacedType, replacedCode, replacedMessage, null, false, replacedRepeated);
+    }
+
+    // Only this thread can capture its own stack, so that is done here; the
+    // frames are only turned into text on the background thread. The
+    // location of the caller is sent even without the full trace.
+    enqueue(type, code, message, new Throwable(), printTrace, repeated);
+  }
+
+  private static void enqueue(int type, int code, String message, Throwable trace,
+      boolean printTrace, int repeated) {
+    Event event;
+    long pos = m_enqueuePos.get();
+    while (true) {
+      event = m_events[(int) (pos % kQueueSize)];
+      long diff = event.sequence.get() - pos;
+      if (diff == 0) {
+        // The slot is free; try to claim it
+        if (m_enqueuePos.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = m_enqueuePos.get();
+      } else if (diff < 0) {
+        // The consumer has not freed this slot yet, so the queue is full
+        m_dropped.incrementAndGet();
+        return;
+      } else {
+        // Another producer claimed the slot first
+        pos = m_enqueuePos.get();
+      }
+    }
+
+    event.type = type;
+    event.code = code;
+    event.message = message;
+    event.trace = trace;
+    event.printTrace = printTrace;
+    event.repeated = repeated;
+    event.sequence.set(pos + 1);
+
+    if (m_thread == null) {
+      startThread();
+    }
+  }
+
+  private static synchronized void startThread() {
+    if (m_thread != null) {
+      return;
+    }
+    m_thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (true) {
+          drain();
+          try {
+            Thread.sleep(kDrainPeriodMs);
+          } catch (InterruptedException ex) {
+          }
+        }
+      }
+    }, "ErrorReporter");
+    m_thread.setDaemon(true);
+    m_thread.setPriority(Thread.MIN_PRIORITY);
+    m_thread.start();
+  }
+
+  private static void drain() {
+    synchronized (m_drainLock) {
+      while (true) {
+        Event event = m_events[(int) (m_dequeuePos % kQueueSize)];
+        if (event.sequence.get() != m_dequeuePos + 1) {
+          break;
+        }
+        send(event.type, event.code, event.message, event.trace, event.printTrace,
+            event.repeated);
+        event.message = null;
+        event.trace = null;
+        event.sequence.set(m_dequeuePos + kQueueSize);
+        m_dequeuePos++;
+      }
+      sendExpiredRepeats();
+    }
+  }
+
+  /**
+   * Send the repeat count of messages that stopped being reported while they
+   * were being suppressed.
+   */
+  private static void sendExpiredRepeats() {
+    long now = System.nanoTime();
+    for (RepeatState state : m_repeats) {
+      int type;
+      int code;
+      String message;
+      int repeated;
+      synchronized (state) {
+        if (state.suppressed == 0 || now - state.nextAllowed < 0) {
+          continue;
+        }
+        type = state.type;
+        code = state.code;
+        message = state.message;
+        repeated = state.suppressed;
+        state.nextAllowed = now + (long) (kRepeatInterval * 1e9);
+        state.suppressed = 0;
+      }
+      send(type, code, message, null, false, repeated);
+    }
+  }
+
+  private static void send(int type, int code, String message, Throwable throwable,
+      boolean printTrace, int repeated) {
+    if (type == kTypePrint) {
+      System.out.println(message);
+      return;
+    }
+
+    String locString = "";
+    String traceString = " at ";
+    if (throwable != null) {
+      StackTraceElement[] trace = throwable.getStackTrace();
+      // Skip the reporting methods themselves
+      int first = 0;
+      while (first < trace.length && isReportingFrame(trace[first])) {
+        first++;
+      }
+      if (trace.length > first) {
+        locString = trace[first].toString();
+      }
+      boolean haveLoc = false;
+      StringBuilder traceBuilder = new StringBuilder(" at ");
+      for (int i = first; i < trace.length; i++) {
+        String loc = trace[i].toString();
+        traceBuilder.append(loc).append('\n');
+        // get first user function
+        if (!haveLoc && !loc.startsWith("edu.wpi.first.wpilibj")) {
+          locString = loc;
+          haveLoc = true;
+        }
+      }
+      traceString = traceBuilder.toString();
+    }
+
+    if (repeated > 0) {
+      message = message + " (repeated " + repeated + " times)";
+    }
+    m_sink.send(type == kTypeError, code, message, locString, printTrace ? traceString : "");
+  }
+
+  private static boolean isReportingFrame(StackTraceElement element) {
+    String className = element.getClassName();
+    return className.equals(ErrorReporter.class.getName())
+        || (className.equals(DriverStation.class.getName())
+            && element.getMethodName().startsWith("report"));
+  }
+}
@@ -0,0 +1,205 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+
+/**
+ * Keeps a history of a gyro's angle and rate, sampled at a high rate, so the
+ * heading can be looked up at a time in the recent past.
+ *
+ * This is meant for latency compensation. A vision result describes where the
+ * target was when the camera frame was captured, which can be a tenth of a
+ * second before the result arrives. Looking up the heading at the capture time
+ * with {@link #getAngleAt(double)} gives the target's heading, which can then
+ * be compared to the current heading.
+ *
+ * The gyro is sampled by its own {@link Notifier} into rings of timestamps,
+ * angles and rates sized for the history duration. The sampler is the only
+ * writer and publishes each sample through a volatile count, so lookups never
+ * lock or allocate; a lookup that is lapped by the writer retries.
+ */
+public class GyroHistory {
+  /**
+   * Default time between samples in seconds
+   */
+  public static final double kDefaultPeriod = 0.005;
+
+  /**
+   * Default length of the history in seconds
+   */
+  public static final double kDefaultDuration = 1.0;
+
+  private final Gyro m_gyro;
+  private final double m_period;
+  private final int m_size;
+  private final double[] m_timestamps;
+  private final double[] m_angles;
+  private final double[] m_rates;
+  // Total number of samples recorded. Sample n is stored in slot n % m_size.
+  private volatile long m_recorded = 0;
+
+  private Notifier m_notifier = null;
+
+  /**
+   * Create a history of the default length and rate.
+   *
+   * @param gyro The gyro
+   */
+  public GyroHistory(Gyro gyro) {
+    this(gyro, kDefaultDuration, kDefaultPeriod);
+  }
+
+  /**
+   * Create a history.
+   *
+   * @param gyro The gyro
+   * @param duration How far back the history goes, in seconds
+   * @param period The time between samples in seconds
+   */
+  public GyroHistory(Gyro gyro, double duration, double period) {
+    if (period <= 0.0 || duration < period) {
+      throw new IllegalArgumentException("Gyro history must be at least one sample long");
+    }
+    m_gyro = gyro;
+    m_period = period;
+    // One slot is reserved for the writer
+    m_size = (int) Math.ceil(duration / period) + 2;
+    m_timestamps = new double[m_size];
+    m_angles = new double[m_size];
+    m_rates = new double[m_size];
+  }
+
+  /**
+   * Start sampling the gyro.
+   */
+  public synchronized void start() {
+    if (m_notifier == null) {
+      m_notifier = new Notifier(new Runnable() {
+        @Override
+        public void run() {
+          sample(Timer.getFPGATimestamp());
+        }
+      });
+    }
+    m_notifier.startPeriodic(m_period);
+  }
+
+  /**
+   * Stop sampling the gyro. The history is kept.
+   */
+  public synchronized void stop() {
+    if (m_notifier != null) {
+      m_notifier.stop();
+    }
+  }
+
+  /**
+   * @return The time in seconds of the oldest sample in the history, or NaN
+   *         if there are no samples
+   */
+  public double getOldestTimestamp() {
+    while (true) {
+      long recorded = m_recorded;
+      if (recorded == 0) {
+        return Double.NaN;
+      }
+      long oldest = Math.max(recorded - (m_size - 1), 0);
+      double timestamp = m_timestamps[(int) (oldest % m_size)];
+      if (isIntact(oldest)) {
+        return timestamp;
+      }
+    }
+  }
+
+  /**
+   * Get the angle at a time, interpolated between the samples on either side
+   * of it. A time after the latest sample is extrapolated from the latest
+   * rate.
+   *
+   * @param timestamp The FPGA time in seconds
+   * @return The angle in degrees, or NaN if the time is older than the history
+   */
+  public double getAngleAt(double timestamp) {
+    return lookup(timestamp, true);
+  }
+
+  /**
+   * Get the rate at a time, interpolated between the samples on either side of
+   * it. A time after the latest sample gives the latest rate.
+   *
+   * @param timestamp The FPGA time in seconds
+   * @return The rate in degrees per second, or NaN if the time is older than
+   *         the history
+   */
+  public double getRateAt(double timestamp) {
+    return lookup(timestamp, false);
+  }
+
+  /**
+   * Record one sample. Only called from the notifier, or directly by tests.
+   *
+   * @param timestamp The time the sample was taken at
+   */
+  void sample(double timestamp) {
+    long recorded = m_recorded;
+    int slot = (int) (recorded % m_size);
+    m_timestamps[slot] = timestamp;
+    m_angles[slot] = m_gyro.getAngle();
+    m_rates[slot] = m_gyro.getRate();
+    m_recorded = recorded + 1;
+  }
+
+  private double lookup(double timestamp, boolean angle) {
+    while (true) {
+      long recorded = m_recorded;
+      if (recorded == 0) {
+        return Double.NaN;
+      }
+      long low = Math.max(recorded - (m_size - 1), 0);
+      long high = recorded - 1;
+      double result;
+
+      int newest = (int) (high % m_size);
+      if (timestamp >= m_timestamps[newest]) {
+        result = m_rates[newest];
+        if (angle) {
+          result = m_angles[newest] + result * (timestamp - m_timestamps[newest]);
+        }
+      } else if (timestamp < m_timestamps[(int) (low % m_size)]) {
+        result = Double.NaN;
+      } else {
+        // Find the last sample at or before the time
+        while (low < high - 1) {
+          long mid = (low + high) >>> 1;
+          if (m_timestamps[(int) (mid % m_size)] <= timestamp) {
+            low = mid;
+          } else {
+            high = mid;
+          }
+        }
+        int before = (int) (low % m_size);
+        int after = (int) (high % m_size);
+        double[] values = angle ? m_angles : m_rates;
+        double span = m_timestamps[after] - m_timestamps[before];
+        double fraction = span > 0.0 ? (timestamp - m_timestamps[before]) / span : 0.0;
+        result = values[before] + (values[after] - values[before]) * fraction;
+      }
+      if (isIntact(Math.max(recorded - (m_size - 1), 0))) {
+        return result;
+      }
+    }
+  }
+
+  /**
+   * @return true if the sample has not been overwritten by the writer
+   */
+  private boolean isIntact(long index) {
+    return m_recorded - index <= m_size - 1;
+  }
+}
@@ -75,11 +75,11 @@ public class I2C extends SensorBase {
       int receiveSize) {
     int status = -1;
 
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(sendSize);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(sendSize);
     if (sendSize > 0 && dataToSend != null) {
       dataToSendBuffer.put(dataToSend);
     }
-    ByteBuffer dataReceivedBuffer = ByteBuffer.allocateDirect(receiveSize);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(receiveSize);
 
     status =
         I2CJNI.i2CTransaction((byte) m_port.getValue(), (byte) m_deviceAddress, dataToSendBuffer,
@@ -143,15 +143,12 @@ public class I2C extends SensorBase {
    * @param data The byte to write to the register on the device.
    */
   public synchronized boolean write(int registerAddress, int data) {
-    byte[] buffer = new byte[2];
-    buffer[0] = (byte) registerAddress;
-    buffer[1] = (byte) data;
-
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(2);
-    dataToSendBuffer.put(buffer);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(2);
+    dataToSendBuffer.put(0, (byte) registerAddress);
+    dataToSendBuffer.put(1, (byte) data);
 
     return I2CJNI.i2CWrite((byte) m_port.getValue(), (byte) m_deviceAddress, dataToSendBuffer,
-        (byte) buffer.length) < buffer.length;
+        (byte) 2) < 2;
   }
 
   /**
@@ -163,7 +160,7 @@ public class I2C extends SensorBase {
    * @param data The data to write to the device.
    */
   public synchronized boolean writeBulk(byte[] data) {
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(data.length);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(data.length);
     dataToSendBuffer.put(data);
 
     return I2CJNI.i2CWrite((byte) m_port.getValue(), (byte) m_deviceAddress, dataToSendBuffer,
@@ -211,10 +208,13 @@ public class I2C extends SensorBase {
     if (buffer == null) {
       throw new NullPointerException("Null return buffer was given");
     }
-    byte[] registerAddressArray = new byte[1];
-    registerAddressArray[0] = (byte) registerAddress;
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(1);
+    dataToSendBuffer.put(0, (byte) registerAddress);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(count);
 
-    return transaction(registerAddressArray, registerAddressArray.length, buffer, count);
+    boolean aborted = transaction(dataToSendBuffer, 1, dataReceivedBuffer, count);
+    dataReceivedBuffer.get(buffer);
+    return aborted;
   }
 
   /**
@@ -241,7 +241,7 @@ public class I2C extends SensorBase {
     if (buffer.capacity() < count)
       throw new IllegalArgumentException("buffer is too small, must be at least " + count);
 
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(1);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(1);
     dataToSendBuffer.put(0, (byte) registerAddress);
 
     return transaction(dataToSendBuffer, 1, buffer, count);
@@ -268,7 +268,7 @@ public class I2C extends SensorBase {
       throw new NullPointerException("Null return buffer was given");
     }
 
-    ByteBuffer dataReceivedBuffer = ByteBuffer.allocateDirect(count);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(count);
 
     int retVal =
         I2CJNI.i2CRead((byte) m_port.getValue(), (byte) m_deviceAddress, dataReceivedBuffer,
@@ -330,9 +330,9 @@ public class I2C extends SensorBase {
    */
   public boolean verifySensor(int registerAddress, int count, byte[] expected) {
     // TODO: Make use of all 7 read bytes
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(1);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(1);
 
-    ByteBuffer deviceData = ByteBuffer.allocateDirect(4);
+    ByteBuffer deviceData = DirectBufferArena.getReceiveBuffer(4);
     for (int i = 0, curRegisterAddress = registerAddress; i < count; i += 4, curRegisterAddress +=
         4) {
       int toRead = count - i < 4 ? count - i : 4;
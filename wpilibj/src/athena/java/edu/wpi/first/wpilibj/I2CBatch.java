@@ -0,0 +1,291 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.wpi.first.wpilibj.hal.I2CJNI;
+import edu.wpi.first.wpilibj.util.BoundaryException;
+
+/**
+ * A list of I2C reads and writes that are run back to back with a single call
+ * into the HAL.
+ *
+ * Reading a sensor often takes several register reads. Queuing them in a
+ * batch, possibly for several devices on the same port, and running the batch
+ * with {@link #execute()} replaces the separate transactions with one JNI call
+ * into preallocated buffers. The status of each operation is kept instead of
+ * throwing, and the data read is available until the batch is run again.
+ *
+ * A batch is usually built once and run every loop. {@link #executeAsync()}
+ * runs it on a thread that owns the port instead, so the caller does not wait
+ * for the bus; the batch must not be changed or read until the returned future
+ * is done.
+ */
+public class I2CBatch {
+  private static final int kOperationSize = 8;
+  private static final int kMaxTransferSize = 255;
+
+  private static final ExecutorService[] m_busThreads =
+      new ExecutorService[I2C.Port.values().length];
+
+  private final I2C.Port m_port;
+  private final int m_maxOperations;
+  private final ByteBuffer m_operations;
+  private final ByteBuffer m_data;
+  private final IntBuffer m_results;
+  private final int[] m_expected;
+  private int m_count = 0;
+  private int m_dataSize = 0;
+
+  private final Callable<I2CBatch> m_task = new Callable<I2CBatch>() {
+    @Override
+    public I2CBatch call() {
+      execute();
+      return I2CBatch.this;
+    }
+  };
+
+  /**
+   * Create an empty batch.
+   *
+   * @param port The I2C port the devices are connected to
+   * @param maxOperations The maximum number of operations in the batch
+   * @param maxDataSize The maximum total number of bytes sent and received by
+   *        the operations
+   */
+  public I2CBatch(I2C.Port port, int maxOperations, int maxDataSize) {
+    if (maxOperations < 1 || maxDataSize < 1 || maxDataSize > 0xffff) {
+      throw new IllegalArgumentException("Invalid I2C batch size");
+    }
+    m_port = port;
+    m_maxOperations = maxOperations;
+    m_operations =
+        ByteBuffer.allocateDirect(maxOperations * kOperationSize).order(ByteOrder.nativeOrder());
+    m_data = ByteBuffer.allocateDirect(maxDataSize);
+    m_results =
+        ByteBuffer.allocateDirect(maxOperations * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+    m_expected = new int[maxOperations];
+
+    I2CJNI.i2CInitialize((byte) m_port.getValue());
+  }
+
+  /**
+   * Queue a read of consecutive registers.
+   *
+   * @param deviceAddress The address of the device on the I2C bus
+   * @param registerAddress The register to read first
+   * @param count The number of bytes to read
+   * @return The index of the operation, used to get its status and data
+   */
+  public int addRead(int deviceAddress, int registerAddress, int count) {
+    checkSize(count);
+    int op = add(deviceAddress, 1, count);
+    m_data.put(sendOffset(op), (byte) registerAddress);
+    return op;
+  }
+
+  /**
+   * Queue a read that does not write a register address first.
+   *
+   * @param deviceAddress The address of the device on the I2C bus
+   * @param count The number of bytes to read
+   * @return The index of the operation
+   */
+  public int addReadOnly(int deviceAddress, int count) {
+    checkSize(count);
+    return add(deviceAddress, 0, count);
+  }
+
+  /**
+   * Queue a write of one register.
+   *
+   * @param deviceAddress The address of the device on the I2C bus
+   * @param registerAddress The register to write
+   * @param data The byte to write
+   * @return The index of the operation
+   */
+  public int addWrite(int deviceAddress, int registerAddress, int data) {
+    int op = add(deviceAddress, 2, 0);
+    m_data.put(sendOffset(op), (byte) registerAddress);
+    m_data.put(sendOffset(op) + 1, (byte) data);
+    return op;
+  }
+
+  /**
+   * Queue a write of several bytes.
+   *
+   * @param deviceAddress The address of the device on the I2C bus
+   * @param data The bytes to write
+   * @return The index of the operation
+   */
+  public int addWriteBulk(int deviceAddress, byte[] data) {
+    checkSize(data.length);
+    int op = add(deviceAddress, data.length, 0);
+    int offset = sendOffset(op);
+    for (int i = 0; i < data.length; i++) {
+      m_data.put(offset + i, data[i]);
+    }
+    return op;
+  }
+
+  /**
+   * Remove all operations.
+   */
+  public void clear() {
+    m_count = 0;
+    m_dataSize = 0;
+  }
+
+  /**
+   * @return The number of operations in the batch
+   */
+  public int getOperationCount() {
+    return m_count;
+  }
+
+  /**
+   * Run all operations, waiting until they are done.
+   */
+  public synchronized void execute() {
+    I2CJNI.i2CTransactionBatch((byte) m_port.getValue(), m_operations, m_count, m_data,
+        m_results);
+  }
+
+  /**
+   * Run all operations on the thread that owns the port, without waiting.
+   *
+   * @return A future that is done when the operations have run
+   */
+  public Future<I2CBatch> executeAsync() {
+    return getBusThread(m_port).submit(m_task);
+  }
+
+  /**
+   * @param op The index of the operation
+   * @return true if the operation did not transfer all of its bytes
+   */
+  public boolean isAborted(int op) {
+    checkOperation(op);
+    return m_results.get(op) < m_expected[op];
+  }
+
+  /**
+   * @return true if any operation did not transfer all of its bytes
+   */
+  public boolean isAnyAborted() {
+    for (int op = 0; op < m_count; op++) {
+      if (m_results.get(op) < m_expected[op]) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Get a byte read by an operation.
+   *
+   * @param op The index of the operation
+   * @param index The index of the byte within the data read
+   * @return The byte
+   */
+  public byte getByte(int op, int index) {
+    checkOperation(op);
+    if (index < 0 || index >= receiveSize(op)) {
+      throw new BoundaryException("Byte " + index + " was not read by operation " + op);
+    }
+    return m_data.get(receiveOffset(op) + index);
+  }
+
+  /**
+   * Copy the bytes read by an operation.
+   *
+   * @param op The index of the operation
+   * @param buffer Array to copy the bytes into; it must be at least as long
+   *        as the read
+   */
+  public void getData(int op, byte[] buffer) {
+    checkOperation(op);
+    int offset = receiveOffset(op);
+    int count = receiveSize(op);
+    for (int i = 0; i < count; i++) {
+      buffer[i] = m_data.get(offset + i);
+    }
+  }
+
+  private int add(int deviceAddress, int sendSize, int receiveSize) {
+    if (m_count == m_maxOperations) {
+      throw new IllegalStateException("I2C batch already has " + m_count + " operations");
+    }
+    if (m_dataSize + sendSize + receiveSize > m_data.capacity()) {
+      throw new IllegalStateException("I2C batch data does not fit in " + m_data.capacity()
+          + " bytes");
+    }
+    int op = m_count;
+    int base = op * kOperationSize;
+    m_operations.put(base, (byte) deviceAddress);
+    m_operations.put(base + 1, (byte) sendSize);
+    m_operations.put(base + 2, (byte) receiveSize);
+    m_operations.put(base + 3, (byte) 0);
+    m_operations.putShort(base + 4, (short) m_dataSize);
+    m_operations.putShort(base + 6, (short) (m_dataSize + sendSize));
+    m_dataSize += sendSize + receiveSize;
+    m_expected[op] = receiveSize > 0 ? receiveSize : sendSize;
+    m_results.put(op, 0);
+    m_count++;
+    return op;
+  }
+
+  private int sendOffset(int op) {
+    return m_operations.getShort(op * kOperationSize + 4) & 0xffff;
+  }
+
+  private int receiveSize(int op) {
+    return m_operations.get(op * kOperationSize + 2) & 0xff;
+  }
+
+  private int receiveOffset(int op) {
+    return m_operations.getShort(op * kOperationSize + 6) & 0xffff;
+  }
+
+  private void checkOperation(int op) {
+    if (op < 0 || op >= m_count) {
+      throw new BoundaryException("Invalid I2C batch operation " + op);
+    }
+  }
+
+  private static void checkSize(int count) {
+    if (count < 1 || count > kMaxTransferSize) {
+      throw new BoundaryException("Value must be between 1 and " + kMaxTransferSize + ", "
+          + count + " given");
+    }
+  }
+
+  private static synchronized ExecutorService getBusThread(final I2C.Port port) {
+    ExecutorService executor = m_busThreads[port.ordinal()];
+    if (executor == null) {
+      executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+          Thread thread = new Thread(runnable, "I2C " + port.name());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      m_busThreads[port.ordinal()] = executor;
+    }
+    return executor;
+  }
+}
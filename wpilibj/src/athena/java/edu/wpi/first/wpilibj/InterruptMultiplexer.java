@@ -0,0 +1,461 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.wpilibj.hal.InterruptJNI;
+import edu.wpi.first.wpilibj.hal.InterruptJNI.InterruptJNIHandlerFunction;
+import edu.wpi.first.wpilibj.util.CheckedAllocationException;
+
+/**
+ * Watches many digital inputs for edges and queues each edge, tagged with the
+ * time it happened, to be handled by the robot loop.
+ *
+ * The FPGA only has 8 interrupts, and each {@link InterruptableSensorBase}
+ * that requests interrupts uses one of them for itself. A multiplexer instead
+ * uses a single interrupt per input no matter how many subscriptions are
+ * made to it, with one handler passing each edge on to every subscription
+ * that wants it. Once the interrupts run out, further inputs are polled from
+ * a background thread instead, so any number of inputs can be watched; the
+ * edges of a polled input are timestamped to within the poll period rather
+ * than to the microsecond.
+ *
+ * Edges are put into a bounded lock-free queue that the interrupt handlers
+ * and the polling thread share, which is emptied by calling
+ * {@link #drain(EdgeHandler)}, normally once per loop. If the queue is full
+ * new edges are dropped and counted.
+ */
+public class InterruptMultiplexer {
+  /**
+   * Handles the edges taken from the queue.
+   */
+  public interface EdgeHandler {
+    /**
+     * Called for each edge, in the order they were queued.
+     *
+     * @param subscription The subscription the edge was seen by
+     * @param rising true for a rising edge, false for a falling edge
+     * @param timestamp The FPGA time in seconds the edge happened at
+     */
+    void edge(int subscription, boolean rising, double timestamp);
+  }
+
+  /**
+   * An input that is polled for edges.
+   */
+  public interface Input {
+    /**
+     * @return The current state of the input
+     */
+    boolean get();
+  }
+
+  /**
+   * Default number of edges that can be queued
+   */
+  public static final int kDefaultQueueSize = 1024;
+
+  /**
+   * Default time between polls of the inputs that do not have an interrupt,
+   * in seconds
+   */
+  public static final double kDefaultPollPeriod = 0.001;
+
+  private static class Event {
+    // Sequence number used to hand the slot between producers and the
+    // consumer, as in ErrorReporter
+    final AtomicLong sequence;
+    int subscription;
+    boolean rising;
+    double timestamp;
+
+    Event(long sequence) {
+      this.sequence = new AtomicLong(sequence);
+    }
+  }
+
+  /**
+   * A subscription to the edges of an input.
+   */
+  private static class Subscription {
+    final int id;
+    final Channel channel;
+    final boolean rising;
+    final boolean falling;
+    volatile boolean active = true;
+
+    Subscription(int id, Channel channel, boolean rising, boolean falling) {
+      this.id = id;
+      this.channel = channel;
+      this.rising = rising;
+      this.falling = falling;
+    }
+  }
+
+  /**
+   * An input being watched, shared by all subscriptions to it.
+   */
+  private class Channel implements InterruptJNIHandlerFunction {
+    final Object source;
+    final Input input;
+    long interrupt = 0;
+    int interruptIndex = -1;
+    boolean lastState;
+    // Subscriptions to the input, replaced as a whole when one is added, so
+    // the producers only ever see complete subscriptions
+    volatile Subscription[] subscriptions = new Subscription[0];
+
+    Channel(Object source, Input input) {
+      this.source = source;
+      this.input = input;
+    }
+
+    @Override
+    public void apply(int interruptAssertedMask, Object param) {
+      // The HAL asserts bit n for a rising edge of interrupt n, and bit n + 8
+      // for a falling edge
+      if ((interruptAssertedMask & (1 << interruptIndex)) != 0) {
+        edge(this, true, InterruptJNI.readRisingTimestamp(interrupt));
+      }
+      if ((interruptAssertedMask & (1 << (interruptIndex + 8))) != 0) {
+        edge(this, false, InterruptJNI.readFallingTimestamp(interrupt));
+      }
+    }
+  }
+
+  private final int m_queueSize;
+  private final Event[] m_events;
+  private final AtomicLong m_enqueuePos = new AtomicLong();
+  private long m_dequeuePos = 0;
+  private final Object m_drainLock = new Object();
+  private final AtomicLong m_dropped = new AtomicLong();
+
+  private final List<Channel> m_channels = new ArrayList<Channel>();
+  private volatile Channel[] m_polledChannels = new Channel[0];
+  // All subscriptions, by id
+  private final List<Subscription> m_subscriptions = new ArrayList<Subscription>();
+
+  private final double m_pollPeriod;
+  private final boolean m_startPolling;
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("InterruptMultiplexer", Thread.MAX_PRIORITY,
+          new PeriodicSampler.Task() {
+            @Override
+            public void run(double timestamp) {
+              poll(timestamp);
+            }
+          });
+
+  /**
+   * Create a multiplexer with the default queue size and poll period.
+   */
+  public InterruptMultiplexer() {
+    this(kDefaultQueueSize, kDefaultPollPeriod);
+  }
+
+  /**
+   * Create a multiplexer.
+   *
+   * @param queueSize The number of edges that can be queued
+   * @param pollPeriod The time between polls of the inputs that do not have
+   *        an interrupt, in seconds
+   */
+  public InterruptMultiplexer(int queueSize, double pollPeriod) {
+    this(queueSize, pollPeriod, true);
+  }
+
+  /**
+   * @param startPolling false to leave polling to the caller through
+   *        {@link #poll(double)}, for tests
+   */
+  InterruptMultiplexer(int queueSize, double pollPeriod, boolean startPolling) {
+    if (queueSize < 1) {
+      throw new IllegalArgumentException("Interrupt multiplexer must queue at least 1 edge");
+    }
+    if (pollPeriod <= 0.0) {
+      throw new IllegalArgumentException("Interrupt multiplexer poll period must be positive");
+    }
+    m_queueSize = queueSize;
+    m_events = new Event[queueSize];
+    for (int i = 0; i < queueSize; i++) {
+      m_events[i] = new Event(i);
+    }
+    m_pollPeriod = pollPeriod;
+    m_startPolling = startPolling;
+  }
+
+  /**
+   * Subscribe to the edges of a digital input. The input is watched with an
+   * FPGA interrupt if it already has one from this multiplexer or one is
+   * free, and polled otherwise.
+   *
+   * @param input The input
+   * @param rising true to queue rising edges
+   * @param falling true to queue falling edges
+   * @return The subscription id passed to the {@link EdgeHandler}
+   */
+  public int subscribe(final DigitalInput input, boolean rising, boolean falling) {
+    synchronized (m_channels) {
+      Channel channel = findChannel(input);
+      if (channel == null) {
+        channel = new Channel(input, new Input() {
+          @Override
+          public boolean get() {
+            return input.get();
+          }
+        });
+        if (!allocateInterrupt(channel, input)) {
+          addPolledChannel(channel);
+        }
+        m_channels.add(channel);
+      }
+      int subscription = addSubscription(channel, rising, falling);
+      if (channel.interrupt != 0) {
+        updateEdges(channel);
+      }
+      return subscription;
+    }
+  }
+
+  /**
+   * Subscribe to the edges of an input that is always polled.
+   *
+   * @param input The input
+   * @param rising true to queue rising edges
+   * @param falling true to queue falling edges
+   * @return The subscription id passed to the {@link EdgeHandler}
+   */
+  public int subscribe(Input input, boolean rising, boolean falling) {
+    synchronized (m_channels) {
+      Channel channel = findChannel(input);
+      if (channel == null) {
+        channel = new Channel(input, input);
+        addPolledChannel(channel);
+        m_channels.add(channel);
+      }
+      return addSubscription(channel, rising, falling);
+    }
+  }
+
+  /**
+   * Stop queueing edges for a subscription. Edges already queued are still
+   * handled by the next {@link #drain(EdgeHandler)}.
+   *
+   * @param subscription The subscription id
+   */
+  public void unsubscribe(int subscription) {
+    synchronized (m_channels) {
+      checkSubscription(subscription);
+      m_subscriptions.get(subscription).active = false;
+    }
+  }
+
+  /**
+   * @param subscription The subscription id
+   * @return true if the subscription's input is watched with an interrupt,
+   *         false if it is polled
+   */
+  public boolean hasInterrupt(int subscription) {
+    synchronized (m_channels) {
+      checkSubscription(subscription);
+      return m_subscriptions.get(subscription).channel.interrupt != 0;
+    }
+  }
+
+  /**
+   * Take all queued edges, oldest first. Only edges queued before the call
+   * started are handled, so a handler that is slower than the edges arrive
+   * cannot keep it from returning.
+   *
+   * @param handler The handler called for each edge
+   * @return The number of edges handled
+   */
+  public int drain(EdgeHandler handler) {
+    synchronized (m_drainLock) {
+      long end = m_enqueuePos.get();
+      int count = 0;
+      while (m_dequeuePos < end) {
+        Event event = m_events[(int) (m_dequeuePos % m_queueSize)];
+        if (event.sequence.get() != m_dequeuePos + 1) {
+          // Claimed but not yet filled in by its producer
+          break;
+        }
+        int subscription = event.subscription;
+        boolean rising = event.rising;
+        double timestamp = event.timestamp;
+        event.sequence.set(m_dequeuePos + m_queueSize);
+        m_dequeuePos++;
+        handler.edge(subscription, rising, timestamp);
+        count++;
+      }
+      return count;
+    }
+  }
+
+  /**
+   * @return The number of edges waiting to be handled
+   */
+  public int getQueueDepth() {
+    synchronized (m_drainLock) {
+      return (int) (m_enqueuePos.get() - m_dequeuePos);
+    }
+  }
+
+  /**
+   * @return The number of edges dropped because the queue was full
+   */
+  public long getDroppedCount() {
+    return m_dropped.get();
+  }
+
+  /**
+   * Stop watching all inputs and release their interrupts. Queued edges are
+   * kept.
+   */
+  public void free() {
+    m_sampler.stop();
+    synchronized (m_channels) {
+      for (Channel channel : m_channels) {
+        if (channel.interrupt != 0) {
+          InterruptJNI.cleanInterrupts(channel.interrupt);
+          InterruptableSensorBase.interrupts.free(channel.interruptIndex);
+          channel.interrupt = 0;
+        }
+      }
+      m_channels.clear();
+      m_polledChannels = new Channel[0];
+      for (Subscription subscription : m_subscriptions) {
+        subscription.active = false;
+      }
+    }
+  }
+
+  /**
+   * Poll the inputs that do not have an interrupt once.
+   *
+   * @param timestamp The time to tag the edges seen with
+   */
+  void poll(double timestamp) {
+    for (Channel channel : m_polledChannels) {
+      boolean state = channel.input.get();
+      if (state != channel.lastState) {
+        channel.lastState = state;
+        edge(channel, state, timestamp);
+      }
+    }
+  }
+
+  private void edge(Channel channel, boolean rising, double timestamp) {
+    for (Subscription subscription : channel.subscriptions) {
+      if (subscription.active && (rising ? subscription.rising : subscription.falling)) {
+        enqueue(subscription.id, rising, timestamp);
+      }
+    }
+  }
+
+  private void enqueue(int subscription, boolean rising, double timestamp) {
+    Event event;
+    long pos = m_enqueuePos.get();
+    while (true) {
+      event = m_events[(int) (pos % m_queueSize)];
+      long diff = event.sequence.get() - pos;
+      if (diff == 0) {
+        if (m_enqueuePos.compareAndSet(pos, pos + 1)) {
+          break;
+        }
+        pos = m_enqueuePos.get();
+      } else if (diff < 0) {
+        m_dropped.incrementAndGet();
+        return;
+      } else {
+        pos = m_enqueuePos.get();
+      }
+    }
+    event.subscription = subscription;
+    event.rising = rising;
+    event.timestamp = timestamp;
+    event.sequence.set(pos + 1);
+  }
+
+  private Channel findChannel(Object source) {
+    for (Channel channel : m_channels) {
+      if (channel.source == source) {
+        return channel;
+      }
+    }
+    return null;
+  }
+
+  private int addSubscription(Channel channel, boolean rising, boolean falling) {
+    Subscription subscription =
+        new Subscription(m_subscriptions.size(), channel, rising, falling);
+    m_subscriptions.add(subscription);
+    Subscription[] subscriptions =
+        Arrays.copyOf(channel.subscriptions, channel.subscriptions.length + 1);
+    subscriptions[subscriptions.length - 1] = subscription;
+    channel.subscriptions = subscriptions;
+    return subscription.id;
+  }
+
+  private void checkSubscription(int subscription) {
+    if (subscription < 0 || subscription >= m_subscriptions.size()) {
+      throw new IndexOutOfBoundsException("Invalid subscription id: " + subscription);
+    }
+  }
+
+  /**
+   * Set up an interrupt for the input.
+   *
+   * @return false if there are no interrupts left
+   */
+  private boolean allocateInterrupt(Channel channel, DigitalSource source) {
+    try {
+      channel.interruptIndex = InterruptableSensorBase.interrupts.allocate(this);
+    } catch (CheckedAllocationException ex) {
+      return false;
+    }
+    channel.interrupt = InterruptJNI.initializeInterrupts(channel.interruptIndex, false);
+    InterruptJNI.requestInterrupts(channel.interrupt, source.getModuleForRouting(),
+        source.getChannelForRouting(), source.getAnalogTriggerForRouting());
+    InterruptJNI.attachInterruptHandler(channel.interrupt, channel, null);
+    return true;
+  }
+
+  /**
+   * Enable the edges wanted by any subscription to an input with an
+   * interrupt.
+   */
+  private void updateEdges(Channel channel) {
+    boolean rising = false;
+    boolean falling = false;
+    for (Subscription subscription : channel.subscriptions) {
+      rising |= subscription.rising;
+      falling |= subscription.falling;
+    }
+    InterruptJNI.setInterruptUpSourceEdge(channel.interrupt, rising, falling);
+    InterruptJNI.enableInterrupts(channel.interrupt);
+  }
+
+  private void addPolledChannel(Channel channel) {
+    channel.lastState = channel.input.get();
+    Channel[] polled = Arrays.copyOf(m_polledChannels, m_polledChannels.length + 1);
+    polled[polled.length - 1] = channel;
+    m_polledChannels = polled;
+    if (m_startPolling) {
+      startPolling();
+    }
+  }
+
+  private void startPolling() {
+    m_sampler.start(m_pollPeriod);
+  }
+}
@@ -133,7 +133,7 @@ public abstract class InterruptableSensorBase extends SensorBase {
    */
   protected void allocateInterrupts(boolean watcher) {
     try {
-      m_interruptIndex = interrupts.allocate();
+      m_interruptIndex = interrupts.allocate(this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("No interrupts are left to be allocated");
     }
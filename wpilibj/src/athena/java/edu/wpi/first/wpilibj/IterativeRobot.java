@@ -40,6 +40,10 @@ import edu.wpi.first.wpilibj.livewindow.LiveWindow;
  * frequency of about 50Hz (50 times per second). - disabledPeriodic() -
  * autonomousPeriodic() - teleopPeriodic() - testPeriodoc()
  *
+ * If {@link CycleContext} is enabled, the FPGA time and Driver Station control
+ * word are captured once at the start of each loop iteration and reused by the
+ * mode queries and timers called from that iteration.
+ *
  */
 public class IterativeRobot extends RobotBase {
   private boolean m_disabledInitialized;
@@ -77,6 +81,20 @@ public class IterativeRobot extends RobotBase {
     // loop forever, calling the appropriate mode-dependent function
     LiveWindow.setEnabled(false);
     while (true) {
+      loopFunc();
+      m_ds.waitForData();
+    }
+  }
+
+  /**
+   * Run one iteration of the main loop: call the init() function if the robot
+   * has just changed mode, and the periodic() function for the current mode if
+   * {@link #nextPeriodReady()} says it is time to do so.
+   */
+  void loopFunc() {
+    CycleContext.beginCycle();
+    OutputStage.beginCycle();
+    try {
       // Call the appropriate function depending upon the current robot mode
       if (isDisabled()) {
         // call DisabledInit() if we are now just entering disabled mode from
@@ -143,7 +161,14 @@ public class IterativeRobot extends RobotBase {
           teleopPeriodic();
         }
       }
-      m_ds.waitForData();
+    } finally {
+      // Write what was staged and release the cycle even if user code threw,
+      // so the outputs and clock don't stay captured by a failed iteration
+      try {
+        OutputStage.flush();
+      } finally {
+        CycleContext.endCycle();
+      }
     }
   }
 
@@ -152,7 +177,7 @@ public class IterativeRobot extends RobotBase {
    * the periodic functions whenever a packet is received from the Driver
    * Station, or about every 20ms.
    */
-  private boolean nextPeriodReady() {
+  boolean nextPeriodReady() {
     return m_ds.isNewControlData();
   }
 
@@ -171,7 +196,7 @@ public class IterativeRobot extends RobotBase {
    * ready, causing the robot to be bypassed in a match.
    */
   public void robotInit() {
-    System.out.println("Default IterativeRobot.robotInit() method... Overload me!");
+    ConsoleReporting.println("Default IterativeRobot.robotInit() method... Overload me!");
   }
 
   /**
@@ -181,7 +206,7 @@ public class IterativeRobot extends RobotBase {
    * called each time the robot enters disabled mode.
    */
   public void disabledInit() {
-    System.out.println("Default IterativeRobot.disabledInit() method... Overload me!");
+    ConsoleReporting.println("Default IterativeRobot.disabledInit() method... Overload me!");
   }
 
   /**
@@ -191,7 +216,7 @@ public class IterativeRobot extends RobotBase {
    * called each time the robot enters autonomous mode.
    */
   public void autonomousInit() {
-    System.out.println("Default IterativeRobot.autonomousInit() method... Overload me!");
+    ConsoleReporting.println("Default IterativeRobot.autonomousInit() method... Overload me!");
   }
 
   /**
@@ -201,7 +226,7 @@ public class IterativeRobot extends RobotBase {
    * called each time the robot enters teleop mode.
    */
   public void teleopInit() {
-    System.out.println("Default IterativeRobot.teleopInit() method... Overload me!");
+    ConsoleReporting.println("Default IterativeRobot.teleopInit() method... Overload me!");
   }
 
   /**
@@ -211,7 +236,7 @@ public class IterativeRobot extends RobotBase {
    * called each time the robot enters test mode.
    */
   public void testInit() {
-    System.out.println("Default IterativeRobot.testInit() method... Overload me!");
+    ConsoleReporting.println("Default IterativeRobot.testInit() method... Overload me!");
   }
 
   /* ----------- Overridable periodic code ----------------- */
@@ -226,7 +251,7 @@ public class IterativeRobot extends RobotBase {
    */
   public void disabledPeriodic() {
     if (dpFirstRun) {
-      System.out.println("Default IterativeRobot.disabledPeriodic() method... Overload me!");
+      ConsoleReporting.println("Default IterativeRobot.disabledPeriodic() method... Overload me!");
       dpFirstRun = false;
     }
     Timer.delay(0.001);
@@ -242,7 +267,7 @@ public class IterativeRobot extends RobotBase {
    */
   public void autonomousPeriodic() {
     if (apFirstRun) {
-      System.out.println("Default IterativeRobot.autonomousPeriodic() method... Overload me!");
+      ConsoleReporting.println("Default IterativeRobot.autonomousPeriodic() method... Overload me!");
       apFirstRun = false;
     }
     Timer.delay(0.001);
@@ -258,7 +283,7 @@ public class IterativeRobot extends RobotBase {
    */
   public void teleopPeriodic() {
     if (tpFirstRun) {
-      System.out.println("Default IterativeRobot.teleopPeriodic() method... Overload me!");
+      ConsoleReporting.println("Default IterativeRobot.teleopPeriodic() method... Overload me!");
       tpFirstRun = false;
     }
     Timer.delay(0.001);
@@ -274,7 +299,7 @@ public class IterativeRobot extends RobotBase {
    */
   public void testPeriodic() {
     if (tmpFirstRun) {
-      System.out.println("Default IterativeRobot.testPeriodic() method... Overload me!");
+      ConsoleReporting.println("Default IterativeRobot.testPeriodic() method... Overload me!");
       tmpFirstRun = false;
     }
   }
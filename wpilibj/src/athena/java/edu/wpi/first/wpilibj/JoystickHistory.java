@@ -0,0 +1,334 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
+
+/**
+ * A fixed-size history of the joystick packets received from the Driver
+ * Station, each tagged with the FPGA time at which it arrived.
+ *
+ * The history lets code look at input that arrived between iterations of the
+ * robot loop: the value of an axis or button at a given time, button presses
+ * and releases since a given time, and statistics on the time between packets.
+ *
+ * All storage is allocated up front. The Driver Station thread records into
+ * the ring and publishes the new entry count through a volatile field, so
+ * readers never lock. The slot being written is never read; a reader only sees
+ * a torn entry if the writer laps the whole ring while the reader is still
+ * scanning, which at the normal packet rate takes several seconds.
+ */
+public class JoystickHistory {
+  /**
+   * Default number of packets kept, a little over 2.5 seconds at 50Hz
+   */
+  public static final int kDefaultSize = 128;
+
+  private final int m_size;
+  private final double[] m_timestamps;
+  private final short[][][] m_axes;
+  private final int[][] m_axisCounts;
+  private final short[][][] m_povs;
+  private final int[][] m_povCounts;
+  private final int[][] m_buttons;
+  private final int[][] m_buttonCounts;
+
+  // Total number of packets recorded. Entry n is stored in slot n % m_size.
+  private volatile long m_recorded = 0;
+
+  /**
+   * Create a history holding the given number of packets.
+   *
+   * @param size The number of packets to keep. One slot is reserved for the
+   *        writer, so size - 1 packets are visible to readers.
+   */
+  public JoystickHistory(int size) {
+    if (size < 2) {
+      throw new IllegalArgumentException("Joystick history must hold at least 2 packets");
+    }
+    m_size = size;
+    int ports = DriverStation.kJoystickPorts;
+    m_timestamps = new double[size];
+    m_axes = new short[size][ports][FRCNetworkCommunicationsLibrary.kMaxJoystickAxes];
+    m_axisCounts = new int[size][ports];
+    m_povs = new short[size][ports][FRCNetworkCommunicationsLibrary.kMaxJoystickPOVs];
+    m_povCounts = new int[size][ports];
+    m_buttons = new int[size][ports];
+    m_buttonCounts = new int[size][ports];
+  }
+
+  /**
+   * Record a packet. Only called from the Driver Station thread.
+   */
+  void record(double timestamp, short[][] axes, int[] axisCounts, short[][] povs,
+      int[] povCounts, int[] buttons, int[] buttonCounts) {
+    long recorded = m_recorded;
+    int slot = (int) (recorded % m_size);
+    m_timestamps[slot] = timestamp;
+    for (int stick = 0; stick < DriverStation.kJoystickPorts; stick++) {
+      System.arraycopy(axes[stick], 0, m_axes[slot][stick], 0, axisCounts[stick]);
+      m_axisCounts[slot][stick] = axisCounts[stick];
+      System.arraycopy(povs[stick], 0, m_povs[slot][stick], 0, povCounts[stick]);
+      m_povCounts[slot][stick] = povCounts[stick];
+      m_buttons[slot][stick] = buttons[stick];
+      m_buttonCounts[slot][stick] = buttonCounts[stick];
+    }
+    m_recorded = recorded + 1;
+  }
+
+  /**
+   * @return The number of packets currently available in the history
+   */
+  public int getCount() {
+    return (int) Math.min(m_recorded, m_size - 1);
+  }
+
+  /**
+   * @return The arrival time of the latest packet in seconds, or 0 if none
+   *         have been received
+   */
+  public double getLatestTimestamp() {
+    long recorded = m_recorded;
+    if (recorded == 0) {
+      return 0.0;
+    }
+    return m_timestamps[(int) ((recorded - 1) % m_size)];
+  }
+
+  /**
+   * Get the arrival time of the packet that was current at the given time.
+   * Comparing this with the time an output was applied gives the latency from
+   * the driver's input to the actuator.
+   *
+   * @param time The FPGA time in seconds
+   * @return The arrival time of the packet in seconds, or -1 if the history
+   *         does not reach back that far
+   */
+  public double getPacketTimestampAt(double time) {
+    int slot = findSlot(m_recorded, time);
+    return slot < 0 ? -1.0 : m_timestamps[slot];
+  }
+
+  /**
+   * Get the value of a joystick axis as it was at the given time.
+   *
+   * @param stick The joystick to read.
+   * @param axis The analog axis value to read from the joystick.
+   * @param time The FPGA time in seconds
+   * @return The value of the axis, or 0 if the axis was not available or the
+   *         history does not reach back that far
+   */
+  public double getStickAxisAt(int stick, int axis, double time) {
+    checkStick(stick);
+    int slot = findSlot(m_recorded, time);
+    if (slot < 0 || axis < 0 || axis >= m_axisCounts[slot][stick]) {
+      return 0.0;
+    }
+
+    byte value = (byte) m_axes[slot][stick][axis];
+
+    if (value < 0) {
+      return value / 128.0;
+    } else {
+      return value / 127.0;
+    }
+  }
+
+  /**
+   * Get the state of a POV on a joystick as it was at the given time.
+   *
+   * @param stick The joystick to read.
+   * @param pov The POV to read.
+   * @param time The FPGA time in seconds
+   * @return the angle of the POV in degrees, or -1 if the POV was not pressed
+   *         or the history does not reach back that far
+   */
+  public int getStickPOVAt(int stick, int pov, double time) {
+    checkStick(stick);
+    int slot = findSlot(m_recorded, time);
+    if (slot < 0 || pov < 0 || pov >= m_povCounts[slot][stick]) {
+      return -1;
+    }
+    return m_povs[slot][stick][pov];
+  }
+
+  /**
+   * Get the state of the buttons on a joystick as it was at the given time.
+   *
+   * @param stick The joystick to read.
+   * @param time The FPGA time in seconds
+   * @return The state of the buttons, or 0 if the history does not reach back
+   *         that far
+   */
+  public int getStickButtonsAt(int stick, double time) {
+    checkStick(stick);
+    int slot = findSlot(m_recorded, time);
+    return slot < 0 ? 0 : m_buttons[slot][stick];
+  }
+
+  /**
+   * Count the number of times a button was pressed in packets that arrived
+   * after the given time. A press shorter than one loop iteration is still
+   * counted as long as the Driver Station saw it.
+   *
+   * @param stick The joystick to read.
+   * @param button The button index, beginning at 1.
+   * @param time The FPGA time in seconds
+   * @return The number of presses
+   */
+  public int getButtonPressesSince(int stick, int button, double time) {
+    return countEdges(stick, button, time, true);
+  }
+
+  /**
+   * Count the number of times a button was released in packets that arrived
+   * after the given time.
+   *
+   * @param stick The joystick to read.
+   * @param button The button index, beginning at 1.
+   * @param time The FPGA time in seconds
+   * @return The number of releases
+   */
+  public int getButtonReleasesSince(int stick, int button, double time) {
+    return countEdges(stick, button, time, false);
+  }
+
+  /**
+   * @return The shortest time between two consecutive packets in the history,
+   *         in seconds, or 0 if fewer than two packets are available
+   */
+  public double getMinPacketInterval() {
+    long recorded = m_recorded;
+    int count = visibleCount(recorded);
+    double min = Double.POSITIVE_INFINITY;
+    for (int i = 1; i < count; i++) {
+      min = Math.min(min, interval(recorded, i));
+    }
+    return count < 2 ? 0.0 : min;
+  }
+
+  /**
+   * @return The longest time between two consecutive packets in the history,
+   *         in seconds, or 0 if fewer than two packets are available
+   */
+  public double getMaxPacketInterval() {
+    long recorded = m_recorded;
+    int count = visibleCount(recorded);
+    double max = 0.0;
+    for (int i = 1; i < count; i++) {
+      max = Math.max(max, interval(recorded, i));
+    }
+    return max;
+  }
+
+  /**
+   * @return The mean time between consecutive packets in the history, in
+   *         seconds, or 0 if fewer than two packets are available
+   */
+  public double getMeanPacketInterval() {
+    long recorded = m_recorded;
+    int count = visibleCount(recorded);
+    if (count < 2) {
+      return 0.0;
+    }
+    double sum = 0.0;
+    for (int i = 1; i < count; i++) {
+      sum += interval(recorded, i);
+    }
+    return sum / (count - 1);
+  }
+
+  /**
+   * Get the jitter in the packet arrival times, computed as the standard
+   * deviation of the time between consecutive packets.
+   *
+   * @return The jitter in seconds, or 0 if fewer than two packets are
+   *         available
+   */
+  public double getPacketIntervalJitter() {
+    long recorded = m_recorded;
+    int count = visibleCount(recorded);
+    if (count < 2) {
+      return 0.0;
+    }
+    double sum = 0.0;
+    double sumSquares = 0.0;
+    for (int i = 1; i < count; i++) {
+      double interval = interval(recorded, i);
+      sum += interval;
+      sumSquares += interval * interval;
+    }
+    double mean = sum / (count - 1);
+    return Math.sqrt(Math.max(0.0, sumSquares / (count - 1) - mean * mean));
+  }
+
+  private int countEdges(int stick, int button, double time, boolean rising) {
+    checkStick(stick);
+    if (button <= 0) {
+      return 0;
+    }
+    long recorded = m_recorded;
+    int count = visibleCount(recorded);
+    int mask = 0x1 << (button - 1);
+    int edges = 0;
+    // Walk from newest to oldest, comparing each packet with the one before it
+    for (int i = 0; i < count - 1; i++) {
+      int slot = slot(recorded, i);
+      if (m_timestamps[slot] <= time) {
+        break;
+      }
+      boolean now = (m_buttons[slot][stick] & mask) != 0;
+      boolean before = (m_buttons[slot(recorded, i + 1)][stick] & mask) != 0;
+      if (now != before && now == rising) {
+        edges++;
+      }
+    }
+    return edges;
+  }
+
+  /**
+   * Find the slot holding the newest packet that arrived at or before the
+   * given time.
+   *
+   * @return The slot, or -1 if there is no such packet in the history
+   */
+  private int findSlot(long recorded, double time) {
+    int count = visibleCount(recorded);
+    for (int i = 0; i < count; i++) {
+      int slot = slot(recorded, i);
+      if (m_timestamps[slot] <= time) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return The time between the packet age packets old and the one before it
+   */
+  private double interval(long recorded, int age) {
+    return m_timestamps[slot(recorded, age - 1)] - m_timestamps[slot(recorded, age)];
+  }
+
+  /**
+   * @return The slot holding the packet age packets older than the newest
+   */
+  private int slot(long recorded, int age) {
+    return (int) ((recorded - 1 - age) % m_size);
+  }
+
+  private int visibleCount(long recorded) {
+    return (int) Math.min(recorded, m_size - 1);
+  }
+
+  private static void checkStick(int stick) {
+    if (stick < 0 || stick >= DriverStation.kJoystickPorts) {
+      throw new RuntimeException("Joystick index is out of range, should be 0-5");
+    }
+  }
+}
@@ -0,0 +1,379 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.hal.PWMJNI;
+import edu.wpi.first.wpilibj.hal.RelayJNI;
+import edu.wpi.first.wpilibj.hal.SolenoidJNI;
+
+/**
+ * Collects the PWM, relay and solenoid writes made during one iteration of
+ * the robot main loop and writes them to the hardware in one pass at the end.
+ *
+ * Commands, default commands and safety code often set the same output
+ * several times per loop, and each set normally goes to the hardware
+ * immediately. While a cycle is active, the stage instead keeps the last
+ * value set for each channel in a preallocated shadow register.
+ * {@link #flush()} then writes each register that differs from what the
+ * hardware was last given, skipping the rest, and writes all the solenoids of
+ * a PCM with a single module write. Speed controllers still feed their
+ * MotorSafety timer on every set.
+ *
+ * Only writes from the thread that began the cycle are staged. Writes from
+ * other threads, such as PIDControllers and MotorSafety stopping a motor, go
+ * to the hardware immediately and replace anything staged for the same
+ * output, so the flush does not undo them. Reading an output back returns the
+ * staged value if there is one, and the hardware value otherwise.
+ *
+ * The stage is opt-in. {@link IterativeRobot} begins a cycle before each loop
+ * iteration and flushes it after, once {@link #setEnabled(boolean)} has been
+ * called with true.
+ */
+public class OutputStage {
+  // PCM CAN ids are 0-62
+  private static final int kPCMModules = 63;
+
+  private static final Object m_lock = new Object();
+  private static volatile boolean m_enabled = false;
+
+  // Thread that began the current cycle, or null if no cycle is active
+  private static Thread m_cycleThread = null;
+
+  // PWM registers by channel. m_pwmWritten is -1 when the hardware value is
+  // not known.
+  private static final long[] m_pwmPorts = new long[SensorBase.kPwmChannels];
+  private static final int[] m_pwmValues = new int[SensorBase.kPwmChannels];
+  private static final boolean[] m_pwmPending = new boolean[SensorBase.kPwmChannels];
+  private static final int[] m_pwmWritten = new int[SensorBase.kPwmChannels];
+
+  // Relay registers by channel, with the forward output in bit 0 and the
+  // reverse output in bit 1. Only the bits in the mask are pending, and only
+  // the bits in the known mask have been written.
+  private static final long[] m_relayPorts = new long[SensorBase.kRelayChannels];
+  private static final int[] m_relayValues = new int[SensorBase.kRelayChannels];
+  private static final int[] m_relayMasks = new int[SensorBase.kRelayChannels];
+  private static final int[] m_relayWritten = new int[SensorBase.kRelayChannels];
+  private static final int[] m_relayKnown = new int[SensorBase.kRelayChannels];
+
+  // Solenoid registers by PCM, one bit per channel
+  private static final long[] m_pcmPorts = new long[kPCMModules];
+  private static final int[] m_pcmValues = new int[kPCMModules];
+  private static final int[] m_pcmMasks = new int[kPCMModules];
+  private static final int[] m_pcmWritten = new int[kPCMModules];
+  private static final int[] m_pcmKnown = new int[kPCMModules];
+
+  private static long m_stagedCount = 0;
+  private static long m_suppressedCount = 0;
+  private static long m_writeCount = 0;
+
+  static {
+    Arrays.fill(m_pwmWritten, -1);
+  }
+
+  private OutputStage() {}
+
+  /**
+   * Enable or disable the output stage. Disabling it writes anything still
+   * staged, and afterwards all writes go to the hardware immediately.
+   *
+   * @param enabled True to stage writes
+   */
+  public static void setEnabled(boolean enabled) {
+    synchronized (m_lock) {
+      if (!enabled) {
+        writePending();
+        m_cycleThread = null;
+      } else if (!m_enabled) {
+        // Outputs may have been written directly while the stage was disabled
+        Arrays.fill(m_pwmWritten, -1);
+        Arrays.fill(m_relayKnown, 0);
+        Arrays.fill(m_pcmKnown, 0);
+      }
+      m_enabled = enabled;
+    }
+  }
+
+  /**
+   * @return True if the output stage has been enabled
+   */
+  public static boolean isEnabled() {
+    return m_enabled;
+  }
+
+  /**
+   * Start staging the writes made by the calling thread, until
+   * {@link #flush()}.
+   */
+  public static void beginCycle() {
+    if (!m_enabled) {
+      return;
+    }
+    synchronized (m_lock) {
+      m_cycleThread = Thread.currentThread();
+    }
+  }
+
+  /**
+   * Write the staged values that differ from the hardware and end the cycle.
+   */
+  public static void flush() {
+    if (!m_enabled) {
+      return;
+    }
+    synchronized (m_lock) {
+      writePending();
+      m_cycleThread = null;
+    }
+  }
+
+  /**
+   * @return The number of writes staged
+   */
+  public static long getStagedCount() {
+    synchronized (m_lock) {
+      return m_stagedCount;
+    }
+  }
+
+  /**
+   * @return The number of staged writes that did not reach the hardware,
+   *         because they were replaced later in the same cycle or did not
+   *         change the output
+   */
+  public static long getSuppressedCount() {
+    synchronized (m_lock) {
+      return m_suppressedCount;
+    }
+  }
+
+  /**
+   * @return The number of hardware writes made when flushing
+   */
+  public static long getWriteCount() {
+    synchronized (m_lock) {
+      return m_writeCount;
+    }
+  }
+
+  /**
+   * Set a PWM output.
+   *
+   * @param channel The PWM channel
+   * @param port The digital port of the channel
+   * @param value The raw PWM value
+   */
+  static void setPWM(int channel, long port, int value) {
+    synchronized (m_lock) {
+      if (m_cycleThread != Thread.currentThread()) {
+        PWMJNI.setPWM(port, (short) value);
+        m_pwmWritten[channel] = value;
+        m_pwmPending[channel] = false;
+        return;
+      }
+      m_stagedCount++;
+      if (m_pwmPending[channel]) {
+        m_suppressedCount++;
+      }
+      m_pwmPorts[channel] = port;
+      m_pwmValues[channel] = value;
+      m_pwmPending[channel] = true;
+    }
+  }
+
+  /**
+   * Get the value a PWM output will be set to.
+   *
+   * @param channel The PWM channel
+   * @return The staged raw value, or -1 if nothing is staged for the channel
+   */
+  static int getStagedPWM(int channel) {
+    synchronized (m_lock) {
+      return m_pwmPending[channel] ? m_pwmValues[channel] : -1;
+    }
+  }
+
+  /**
+   * Drop anything staged for a PWM output that is being freed.
+   *
+   * @param channel The PWM channel
+   */
+  static void resetPWM(int channel) {
+    synchronized (m_lock) {
+      m_pwmPending[channel] = false;
+      m_pwmWritten[channel] = -1;
+    }
+  }
+
+  /**
+   * Set the outputs of a relay.
+   *
+   * @param channel The relay channel
+   * @param port The digital port of the channel
+   * @param value The forward output in bit 0 and the reverse output in bit 1
+   * @param mask The outputs to set
+   */
+  static void setRelay(int channel, long port, int value, int mask) {
+    synchronized (m_lock) {
+      if (m_cycleThread != Thread.currentThread()) {
+        writeRelay(port, value, mask);
+        m_relayWritten[channel] = (m_relayWritten[channel] & ~mask) | (value & mask);
+        m_relayKnown[channel] |= mask;
+        m_relayMasks[channel] &= ~mask;
+        return;
+      }
+      m_stagedCount++;
+      if (m_relayMasks[channel] != 0) {
+        m_suppressedCount++;
+      }
+      m_relayPorts[channel] = port;
+      m_relayValues[channel] = (m_relayValues[channel] & ~mask) | (value & mask);
+      m_relayMasks[channel] |= mask;
+    }
+  }
+
+  /**
+   * Get the values the outputs of a relay will be set to.
+   *
+   * @param channel The relay channel
+   * @param value The outputs read from the hardware
+   * @return The outputs, with the staged ones in place of the hardware ones
+   */
+  static int getStagedRelay(int channel, int value) {
+    synchronized (m_lock) {
+      int mask = m_relayMasks[channel];
+      return (value & ~mask) | (m_relayValues[channel] & mask);
+    }
+  }
+
+  /**
+   * Drop anything staged for a relay that is being freed.
+   *
+   * @param channel The relay channel
+   */
+  static void resetRelay(int channel) {
+    synchronized (m_lock) {
+      m_relayMasks[channel] = 0;
+      m_relayKnown[channel] = 0;
+    }
+  }
+
+  /**
+   * Set solenoids on a PCM.
+   *
+   * @param module The PCM CAN id
+   * @param port A solenoid port on the PCM
+   * @param value The solenoid states, one bit per channel
+   * @param mask The channels to set
+   */
+  static void setSolenoids(int module, long port, int value, int mask) {
+    synchronized (m_lock) {
+      if (m_cycleThread != Thread.currentThread()) {
+        SolenoidJNI.setSolenoids(port, (byte) value, (byte) mask);
+        m_pcmWritten[module] = (m_pcmWritten[module] & ~mask) | (value & mask);
+        m_pcmKnown[module] |= mask;
+        m_pcmMasks[module] &= ~mask;
+        return;
+      }
+      m_stagedCount++;
+      if (m_pcmMasks[module] != 0) {
+        m_suppressedCount++;
+      }
+      m_pcmPorts[module] = port;
+      m_pcmValues[module] = (m_pcmValues[module] & ~mask) | (value & mask);
+      m_pcmMasks[module] |= mask;
+    }
+  }
+
+  /**
+   * Get the values the solenoids of a PCM will be set to.
+   *
+   * @param module The PCM CAN id
+   * @param value The solenoid states read from the hardware
+   * @return The states, with the staged ones in place of the hardware ones
+   */
+  static int getStagedSolenoids(int module, int value) {
+    synchronized (m_lock) {
+      int mask = m_pcmMasks[module];
+      return (value & ~mask) | (m_pcmValues[module] & mask);
+    }
+  }
+
+  /**
+   * Drop anything staged for solenoids that are being freed.
+   *
+   * @param module The PCM CAN id
+   * @param mask The channels being freed
+   */
+  static void resetSolenoids(int module, int mask) {
+    synchronized (m_lock) {
+      m_pcmMasks[module] &= ~mask;
+      m_pcmKnown[module] &= ~mask;
+    }
+  }
+
+  private static void writePending() {
+    for (int i = 0; i < m_pwmPending.length; i++) {
+      if (!m_pwmPending[i]) {
+        continue;
+      }
+      m_pwmPending[i] = false;
+      if (m_pwmValues[i] == m_pwmWritten[i]) {
+        m_suppressedCount++;
+        continue;
+      }
+      PWMJNI.setPWM(m_pwmPorts[i], (short) m_pwmValues[i]);
+      m_pwmWritten[i] = m_pwmValues[i];
+      m_writeCount++;
+    }
+
+    for (int i = 0; i < m_relayMasks.length; i++) {
+      int mask = m_relayMasks[i];
+      if (mask == 0) {
+        continue;
+      }
+      m_relayMasks[i] = 0;
+      int changed = mask & (~m_relayKnown[i] | (m_relayValues[i] ^ m_relayWritten[i]));
+      if (changed == 0) {
+        m_suppressedCount++;
+        continue;
+      }
+      writeRelay(m_relayPorts[i], m_relayValues[i], changed);
+      m_relayWritten[i] = (m_relayWritten[i] & ~changed) | (m_relayValues[i] & changed);
+      m_relayKnown[i] |= changed;
+      m_writeCount++;
+    }
+
+    for (int i = 0; i < m_pcmMasks.length; i++) {
+      int mask = m_pcmMasks[i];
+      if (mask == 0) {
+        continue;
+      }
+      m_pcmMasks[i] = 0;
+      int changed = mask & (~m_pcmKnown[i] | (m_pcmValues[i] ^ m_pcmWritten[i]));
+      if (changed == 0) {
+        m_suppressedCount++;
+        continue;
+      }
+      SolenoidJNI.setSolenoids(m_pcmPorts[i], (byte) m_pcmValues[i], (byte) changed);
+      m_pcmWritten[i] = (m_pcmWritten[i] & ~changed) | (m_pcmValues[i] & changed);
+      m_pcmKnown[i] |= changed;
+      m_writeCount++;
+    }
+  }
+
+  private static void writeRelay(long port, int value, int mask) {
+    if ((mask & 1) != 0) {
+      RelayJNI.setRelayForward(port, (value & 1) != 0);
+    }
+    if ((mask & 2) != 0) {
+      RelayJNI.setRelayReverse(port, (value & 2) != 0);
+    }
+  }
+}
@@ -0,0 +1,503 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.hal.PDPJNI;
+
+/**
+ * Reads the channel currents, voltage and temperature of a PDP on a thread of
+ * its own, so the robot loop does not wait on CAN reads.
+ *
+ * Reading all sixteen channels through {@link PowerDistributionPanel} takes
+ * several milliseconds of CAN traffic. The monitor reads them all each period
+ * into a snapshot stamped with the time it was read, along with statistics
+ * over the last few samples: the average and peak current of each channel and
+ * the minimum, average and trend of the voltage. Each read is published as a
+ * new immutable snapshot, so readers never lock, and
+ * {@link #getCurrents(double[])} returns a consistent set.
+ *
+ * An {@link OvercurrentListener} is told when the average current of a
+ * channel rises above its limit, and a {@link BrownoutListener} when the
+ * voltage, extrapolated from its trend over the window, is about to fall below
+ * the brownout voltage. Listeners are called on the monitor thread and should
+ * return quickly. An exception thrown by a listener is reported to the driver
+ * station and does not stop the monitor.
+ *
+ * Once started through {@link PowerDistributionPanel#startMonitoring()}, the
+ * panel's getters return the monitored values.
+ */
+public class PDPMonitor {
+  /**
+   * Default time between reads in seconds
+   */
+  public static final double kDefaultPeriod = 0.02;
+
+  /**
+   * Default number of samples the statistics cover
+   */
+  public static final int kDefaultWindow = 25;
+
+  /**
+   * Default voltage below which a brownout is predicted. The roboRIO starts
+   * disabling outputs at 6.8 volts.
+   */
+  public static final double kDefaultBrownoutVoltage = 7.0;
+
+  /**
+   * Default time in seconds the voltage trend is extrapolated over
+   */
+  public static final double kDefaultBrownoutLookahead = 0.1;
+
+  /**
+   * The values read from the PDP. The panel is used on the robot; tests can
+   * supply their own.
+   */
+  public interface Source {
+    /**
+     * @return The input voltage in volts
+     */
+    double getVoltage();
+
+    /**
+     * @return The temperature in degrees Celsius
+     */
+    double getTemperature();
+
+    /**
+     * @param channel The channel, 0-15
+     * @return The current of the channel in amperes
+     */
+    double getCurrent(int channel);
+
+    /**
+     * @return The total current of all channels in amperes
+     */
+    double getTotalCurrent();
+  }
+
+  /**
+   * Told when the average current of a channel rises above its limit.
+   */
+  public interface OvercurrentListener {
+    /**
+     * @param channel The channel
+     * @param current The average current over the window in amperes
+     * @param timestamp The time of the sample in seconds
+     */
+    void overcurrent(int channel, double current, double timestamp);
+  }
+
+  /**
+   * Told when the voltage is predicted to fall below the brownout voltage.
+   */
+  public interface BrownoutListener {
+    /**
+     * @param voltage The latest voltage
+     * @param predictedVoltage The voltage extrapolated from the trend
+     * @param timestamp The time of the sample in seconds
+     */
+    void brownoutPredicted(double voltage, double predictedVoltage, double timestamp);
+  }
+
+  private static final int kChannels = SensorBase.kPDPChannels;
+
+  /**
+   * The values from one read of the panel. Never changed once published.
+   */
+  private static class Snapshot {
+    final double[] currents = new double[kChannels];
+    final double[] averageCurrents = new double[kChannels];
+    final double[] peakCurrents = new double[kChannels];
+    double voltage;
+    double minVoltage;
+    double averageVoltage;
+    double predictedVoltage;
+    double temperature;
+    double totalCurrent;
+    double timestamp;
+  }
+
+  private final Source m_source;
+  private final int m_window;
+  private volatile double m_period = kDefaultPeriod;
+
+  // Samples in the window, written only by the monitor thread. Sample n is
+  // stored in slot n % m_window.
+  private final double[][] m_currentWindow;
+  private final double[] m_voltageWindow;
+  private final double[] m_timeWindow;
+  private long m_samples = 0;
+
+  // Latest snapshot and statistics
+  private volatile Snapshot m_snapshot = new Snapshot();
+  private volatile long m_sampleCount = 0;
+
+  private final double[] m_currentLimits = new double[kChannels];
+  private final boolean[] m_overcurrent = new boolean[kChannels];
+  private volatile double m_brownoutVoltage = kDefaultBrownoutVoltage;
+  private volatile double m_brownoutLookahead = kDefaultBrownoutLookahead;
+  private boolean m_brownout = false;
+  private volatile OvercurrentListener m_overcurrentListener = null;
+  private volatile BrownoutListener m_brownoutListener = null;
+
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("PDPMonitor", Thread.NORM_PRIORITY, new PeriodicSampler.Task() {
+        @Override
+        public void run(double timestamp) {
+          poll(timestamp);
+        }
+      });
+
+  /**
+   * Create a monitor for a panel with the default window.
+   *
+   * @param pdp The panel
+   */
+  public PDPMonitor(PowerDistributionPanel pdp) {
+    this(pdp, kDefaultWindow);
+  }
+
+  /**
+   * Create a monitor for a panel.
+   *
+   * @param pdp The panel
+   * @param window The number of samples the statistics cover
+   */
+  public PDPMonitor(PowerDistributionPanel pdp, int window) {
+    this(newSource(pdp.m_module), window);
+  }
+
+  /**
+   * Create a monitor.
+   *
+   * @param source The values to monitor
+   * @param window The number of samples the statistics cover
+   */
+  public PDPMonitor(Source source, int window) {
+    if (window < 2) {
+      throw new IllegalArgumentException("PDP monitor window must be at least 2 samples");
+    }
+    m_source = source;
+    m_window = window;
+    m_currentWindow = new double[kChannels][window];
+    m_voltageWindow = new double[window];
+    m_timeWindow = new double[window];
+    Arrays.fill(m_currentLimits, Double.NaN);
+  }
+
+  private static Source newSource(final int module) {
+    return new Source() {
+      @Override
+      public double getVoltage() {
+        return PDPJNI.getPDPVoltage(module);
+      }
+
+      @Override
+      public double getTemperature() {
+        return PDPJNI.getPDPTemperature(module);
+      }
+
+      @Override
+      public double getCurrent(int channel) {
+        return PDPJNI.getPDPChannelCurrent((byte) channel, module);
+      }
+
+      @Override
+      public double getTotalCurrent() {
+        return PDPJNI.getPDPTotalCurrent(module);
+      }
+    };
+  }
+
+  /**
+   * Start reading the panel every {@link #kDefaultPeriod} seconds.
+   */
+  public void start() {
+    start(kDefaultPeriod);
+  }
+
+  /**
+   * Start reading the panel.
+   *
+   * @param period The time between reads in seconds
+   */
+  public synchronized void start(double period) {
+    if (period <= 0.0) {
+      throw new IllegalArgumentException("PDP monitor period must be positive");
+    }
+    m_sampler.start(period);
+    m_period = period;
+  }
+
+  /**
+   * Stop reading the panel. The last snapshot is kept.
+   */
+  public synchronized void stop() {
+    m_sampler.stop();
+  }
+
+  /**
+   * @return true if the monitor is reading the panel
+   */
+  public boolean isRunning() {
+    return m_sampler.isRunning();
+  }
+
+  /**
+   * @return The time between reads in seconds
+   */
+  public double getPeriod() {
+    return m_period;
+  }
+
+  /**
+   * Set the current above which the overcurrent listener is told about a
+   * channel. The listener is told once each time the average current rises
+   * above the limit.
+   *
+   * @param channel The channel
+   * @param amps The limit in amperes, or NaN for no limit
+   */
+  public void setCurrentLimit(int channel, double amps) {
+    SensorBase.checkPDPChannel(channel);
+    synchronized (m_currentLimits) {
+      m_currentLimits[channel] = amps;
+    }
+  }
+
+  /**
+   * @param listener The listener told about channels over their limit, or
+   *        null for none
+   */
+  public void setOvercurrentListener(OvercurrentListener listener) {
+    m_overcurrentListener = listener;
+  }
+
+  /**
+   * Set when a brownout is predicted. The listener is told once each time the
+   * voltage extrapolated over the lookahead falls below the brownout voltage.
+   *
+   * @param voltage The brownout voltage
+   * @param lookahead The time in seconds to extrapolate the voltage over
+   */
+  public void setBrownoutPrediction(double voltage, double lookahead) {
+    m_brownoutVoltage = voltage;
+    m_brownoutLookahead = lookahead;
+  }
+
+  /**
+   * @param listener The listener told about predicted brownouts, or null for
+   *        none
+   */
+  public void setBrownoutListener(BrownoutListener listener) {
+    m_brownoutListener = listener;
+  }
+
+  /**
+   * @return true once the panel has been read at least once
+   */
+  public boolean hasSample() {
+    return m_sampleCount > 0;
+  }
+
+  /**
+   * @return The number of times the panel has been read
+   */
+  public long getSampleCount() {
+    return m_sampleCount;
+  }
+
+  /**
+   * @return The time in seconds the latest snapshot was read at
+   */
+  public double getTimestamp() {
+    return m_snapshot.timestamp;
+  }
+
+  /**
+   * @param channel The channel, 0-15
+   * @return The latest current of the channel in amperes
+   */
+  public double getCurrent(int channel) {
+    SensorBase.checkPDPChannel(channel);
+    return m_snapshot.currents[channel];
+  }
+
+  /**
+   * @param channel The channel, 0-15
+   * @return The average current of the channel over the window in amperes
+   */
+  public double getAverageCurrent(int channel) {
+    SensorBase.checkPDPChannel(channel);
+    return m_snapshot.averageCurrents[channel];
+  }
+
+  /**
+   * @param channel The channel, 0-15
+   * @return The highest current of the channel over the window in amperes
+   */
+  public double getPeakCurrent(int channel) {
+    SensorBase.checkPDPChannel(channel);
+    return m_snapshot.peakCurrents[channel];
+  }
+
+  /**
+   * Get the latest current of every channel, all from the same read.
+   *
+   * @param currents Array of at least 16 to store the currents in amperes in
+   * @return The time in seconds the currents were read at
+   */
+  public double getCurrents(double[] currents) {
+    Snapshot snapshot = m_snapshot;
+    System.arraycopy(snapshot.currents, 0, currents, 0, kChannels);
+    return snapshot.timestamp;
+  }
+
+  /**
+   * @return The latest input voltage in volts
+   */
+  public double getVoltage() {
+    return m_snapshot.voltage;
+  }
+
+  /**
+   * @return The lowest input voltage over the window in volts
+   */
+  public double getMinVoltage() {
+    return m_snapshot.minVoltage;
+  }
+
+  /**
+   * @return The average input voltage over the window in volts
+   */
+  public double getAverageVoltage() {
+    return m_snapshot.averageVoltage;
+  }
+
+  /**
+   * @return The input voltage extrapolated from its trend over the window by
+   *         the brownout lookahead, in volts
+   */
+  public double getPredictedVoltage() {
+    return m_snapshot.predictedVoltage;
+  }
+
+  /**
+   * @return The latest temperature in degrees Celsius
+   */
+  public double getTemperature() {
+    return m_snapshot.temperature;
+  }
+
+  /**
+   * @return The latest total current of all channels in amperes
+   */
+  public double getTotalCurrent() {
+    return m_snapshot.totalCurrent;
+  }
+
+  /**
+   * Read the panel once.
+   *
+   * @param timestamp The time the panel is read at
+   */
+  void poll(double timestamp) {
+    int slot = (int) (m_samples % m_window);
+    for (int i = 0; i < kChannels; i++) {
+      m_currentWindow[i][slot] = m_source.getCurrent(i);
+    }
+    double voltage = m_source.getVoltage();
+    double temperature = m_source.getTemperature();
+    double totalCurrent = m_source.getTotalCurrent();
+    m_voltageWindow[slot] = voltage;
+    m_timeWindow[slot] = timestamp;
+    m_samples++;
+    int count = (int) Math.min(m_samples, m_window);
+
+    Snapshot snapshot = new Snapshot();
+    for (int i = 0; i < kChannels; i++) {
+      double[] window = m_currentWindow[i];
+      double sum = 0.0;
+      double peak = window[0];
+      for (int j = 0; j < count; j++) {
+        sum += window[j];
+        peak = Math.max(peak, window[j]);
+      }
+      snapshot.currents[i] = window[slot];
+      snapshot.averageCurrents[i] = sum / count;
+      snapshot.peakCurrents[i] = peak;
+    }
+
+    // Least squares line through the voltages, relative to the latest sample
+    double sumT = 0.0;
+    double sumV = 0.0;
+    double sumTT = 0.0;
+    double sumTV = 0.0;
+    double minVoltage = voltage;
+    for (int j = 0; j < count; j++) {
+      double t = m_timeWindow[j] - timestamp;
+      double v = m_voltageWindow[j];
+      sumT += t;
+      sumV += v;
+      sumTT += t * t;
+      sumTV += t * v;
+      minVoltage = Math.min(minVoltage, v);
+    }
+    double denominator = count * sumTT - sumT * sumT;
+    double slope = denominator > 0.0 ? (count * sumTV - sumT * sumV) / denominator : 0.0;
+    double intercept = (sumV - slope * sumT) / count;
+
+    snapshot.voltage = voltage;
+    snapshot.minVoltage = minVoltage;
+    snapshot.averageVoltage = sumV / count;
+    snapshot.predictedVoltage = intercept + slope * m_brownoutLookahead;
+    snapshot.temperature = temperature;
+    snapshot.totalCurrent = totalCurrent;
+    snapshot.timestamp = timestamp;
+    m_snapshot = snapshot;
+    m_sampleCount++;
+
+    checkThresholds(snapshot);
+  }
+
+  private void checkThresholds(Snapshot snapshot) {
+    double timestamp = snapshot.timestamp;
+    OvercurrentListener overcurrentListener = m_overcurrentListener;
+    for (int i = 0; i < kChannels; i++) {
+      double limit;
+      synchronized (m_currentLimits) {
+        limit = m_currentLimits[i];
+      }
+      // A NaN limit compares false, which also rearms the channel
+      boolean over = snapshot.averageCurrents[i] > limit;
+      if (over && !m_overcurrent[i] && overcurrentListener != null) {
+        try {
+          overcurrentListener.overcurrent(i, snapshot.averageCurrents[i], timestamp);
+        } catch (RuntimeException ex) {
+          DriverStation.reportError("Unhandled exception in PDP overcurrent listener: " + ex,
+              false);
+        }
+      }
+      m_overcurrent[i] = over;
+    }
+
+    boolean brownout = snapshot.predictedVoltage < m_brownoutVoltage;
+    BrownoutListener brownoutListener = m_brownoutListener;
+    if (brownout && !m_brownout && brownoutListener != null) {
+      try {
+        brownoutListener.brownoutPredicted(snapshot.voltage, snapshot.predictedVoltage,
+            timestamp);
+      } catch (RuntimeException ex) {
+        DriverStation.reportError("Unhandled exception in PDP brownout listener: " + ex, false);
+      }
+    }
+    m_brownout = brownout;
+  }
+}
@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.PWMJNI;
 import edu.wpi.first.wpilibj.hal.DIOJNI;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.tables.ITableListener;
@@ -141,6 +142,7 @@ public class PWM extends SensorBase implements LiveWindowSendable {
    */
   public void free() {
     if (m_port == 0) return;
+    OutputStage.resetPWM(m_channel);
     PWMJNI.setPWM(m_port, (short) 0);
     PWMJNI.freePWMChannel(m_port);
     PWMJNI.freeDIO(m_port);
@@ -334,6 +336,10 @@ public class PWM extends SensorBase implements LiveWindowSendable {
    * @param value Raw PWM value. Range 0 - 255.
    */
   public void setRaw(int value) {
+    if (OutputStage.isEnabled()) {
+      OutputStage.setPWM(m_channel, m_port, value);
+      return;
+    }
     PWMJNI.setPWM(m_port, (short) value);
   }
 
@@ -345,6 +351,12 @@ public class PWM extends SensorBase implements LiveWindowSendable {
    * @return Raw PWM control value. Range: 0 - 255.
    */
   public int getRaw() {
+    if (OutputStage.isEnabled()) {
+      int value = OutputStage.getStagedPWM(m_channel);
+      if (value >= 0) {
+        return value;
+      }
+    }
     return PWMJNI.getPWM(m_port);
   }
 
@@ -416,6 +428,7 @@ public class PWM extends SensorBase implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
   private ITableListener m_table_listener;
 
   /**
@@ -431,7 +444,7 @@ public class PWM extends SensorBase implements LiveWindowSendable {
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getSpeed());
+      m_publisher.putNumber(m_table, "Value", getSpeed());
     }
   }
 
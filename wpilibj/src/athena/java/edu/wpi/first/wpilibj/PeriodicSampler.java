@@ -0,0 +1,136 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Runs a task on its own daemon thread at a fixed rate. The deadlines are
+ * kept on the period grid so the rate does not drift with the time the task
+ * takes; if the task falls more than a period behind, the missed periods are
+ * counted and skipped rather than run back to back. An exception thrown by
+ * the task is reported to the driver station and the thread carries on with
+ * the next period.
+ *
+ * <p>The samplers in this package own one of these, and call their task
+ * directly from tests instead of starting the thread.
+ */
+class PeriodicSampler {
+  /**
+   * The work done each period.
+   */
+  interface Task {
+    /**
+     * @param timestamp The FPGA time the period started at, in seconds
+     */
+    void run(double timestamp);
+  }
+
+  private final String m_name;
+  private final int m_priority;
+  private final Task m_task;
+
+  private volatile long m_periodNanos = 0;
+  private volatile long m_missedPeriods = 0;
+  private volatile Thread m_thread = null;
+  private volatile boolean m_running = false;
+
+  /**
+   * @param name The name of the thread
+   * @param priority The priority of the thread
+   * @param task The work done each period
+   */
+  PeriodicSampler(String name, int priority, Task task) {
+    m_name = name;
+    m_priority = priority;
+    m_task = task;
+  }
+
+  /**
+   * Start the thread, or change the period if it is already running.
+   *
+   * @param period The time between runs of the task in seconds, at least 1 ns
+   */
+  synchronized void start(double period) {
+    long periodNanos = (long) (period * 1e9);
+    if (periodNanos < 1) {
+      throw new IllegalArgumentException(m_name + " period must be at least 1 ns: " + period);
+    }
+    m_periodNanos = periodNanos;
+    if (isRunning()) {
+      return;
+    }
+    m_running = true;
+    m_thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        loop();
+      }
+    }, m_name);
+    m_thread.setDaemon(true);
+    m_thread.setPriority(m_priority);
+    m_thread.start();
+  }
+
+  /**
+   * Stop the thread and wait for the task in progress to finish.
+   */
+  synchronized void stop() {
+    Thread thread = m_thread;
+    if (thread == null) {
+      return;
+    }
+    m_running = false;
+    LockSupport.unpark(thread);
+    try {
+      thread.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    m_thread = null;
+  }
+
+  /**
+   * @return true if the thread is running
+   */
+  boolean isRunning() {
+    Thread thread = m_thread;
+    return thread != null && thread.isAlive();
+  }
+
+  /**
+   * @return The number of periods skipped because the task ran late
+   */
+  long getMissedPeriodCount() {
+    return m_missedPeriods;
+  }
+
+  private void loop() {
+    long deadline = System.nanoTime();
+    while (m_running) {
+      try {
+        m_task.run(Timer.getFreshFPGATimestamp());
+      } catch (RuntimeException ex) {
+        // Repeated reports of the same failure are coalesced by the driver
+        // station, so a task failing every period does not flood it
+        DriverStation.reportError("Unhandled exception in " + m_name + ": " + ex, false);
+      }
+
+      long period = m_periodNanos;
+      deadline += period;
+      long now = System.nanoTime();
+      if (now - deadline > period) {
+        m_missedPeriods += (now - deadline) / period;
+        deadline = now;
+      }
+      while (m_running && deadline - System.nanoTime() > 0) {
+        LockSupport.parkNanos(deadline - System.nanoTime());
+      }
+    }
+  }
+}
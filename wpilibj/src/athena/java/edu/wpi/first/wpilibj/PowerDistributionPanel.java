@@ -10,6 +10,7 @@ package edu.wpi.first.wpilibj;
 import edu.wpi.first.wpilibj.hal.PDPJNI;
 import edu.wpi.first.wpilibj.hal.HALUtil;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -20,8 +21,14 @@ import edu.wpi.first.wpilibj.tables.ITable;
  * @author Thomas Clark
  */
 public class PowerDistributionPanel extends SensorBase implements LiveWindowSendable {
+  /**
+   * Number of monitor periods after which the monitor's latest snapshot is too
+   * old to use, and the getters read the PDP themselves
+   */
+  public static final int kStaleMonitorPeriods = 5;
 
   int m_module;
+  private volatile PDPMonitor m_monitor = null;
 
   public PowerDistributionPanel(int module) {
     m_module = module;
@@ -34,12 +41,89 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
   }
 
 
+  /**
+   * Start reading the PDP on a background thread every
+   * {@link PDPMonitor#kDefaultPeriod} seconds. Until monitoring is stopped, the
+   * voltage, temperature and current getters return the latest values read
+   * by the monitor instead of reading the PDP themselves.
+   *
+   * @return The monitor
+   */
+  public PDPMonitor startMonitoring() {
+    return startMonitoring(PDPMonitor.kDefaultPeriod);
+  }
+
+  /**
+   * Start reading the PDP on a background thread. Until monitoring is stopped,
+   * the voltage, temperature and current getters return the latest values
+   * read by the monitor instead of reading the PDP themselves. If the monitor
+   * falls more than {@link #kStaleMonitorPeriods} periods behind, the getters
+   * read the PDP themselves until it catches up.
+   *
+   * @param period The time between reads in seconds
+   * @return The monitor
+   */
+  public synchronized PDPMonitor startMonitoring(double period) {
+    if (m_monitor == null) {
+      m_monitor = new PDPMonitor(this);
+    }
+    m_monitor.start(period);
+    return m_monitor;
+  }
+
+  /**
+   * Stop reading the PDP in the background. The getters read the PDP again.
+   */
+  public synchronized void stopMonitoring() {
+    if (m_monitor != null) {
+      m_monitor.stop();
+    }
+  }
+
+  /**
+   * @return The monitor, or null if monitoring has never been started
+   */
+  public PDPMonitor getMonitor() {
+    return m_monitor;
+  }
+
+  /**
+   * @return The monitor if it is running and has read the PDP within the last
+   *         {@link #kStaleMonitorPeriods} periods, otherwise null
+   */
+  private PDPMonitor getRunningMonitor() {
+    PDPMonitor monitor = m_monitor;
+    if (monitor == null || !monitor.isRunning() || !monitor.hasSample()) {
+      return null;
+    }
+    // A monitor that has stopped keeping up is no better than no monitor
+    double age = Timer.getFPGATimestamp() - monitor.getTimestamp();
+    if (age > kStaleMonitorPeriods * monitor.getPeriod()) {
+      return null;
+    }
+    return monitor;
+  }
+
   /**
    * Query the input voltage of the PDP
    *$
    * @return The voltage of the PDP in volts
    */
   public double getVoltage() {
+    return getVoltage(false);
+  }
+
+  /**
+   * Query the input voltage of the PDP
+   *$
+   * @param fresh true to read the PDP even if it is being monitored
+   * @return The voltage of the PDP in volts
+   */
+  public double getVoltage(boolean fresh) {
+    PDPMonitor monitor = fresh ? null : getRunningMonitor();
+    if (monitor != null) {
+      return monitor.getVoltage();
+    }
     return PDPJNI.getPDPVoltage(m_module);
   }
 
@@ -49,6 +133,20 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
    * @return The temperature of the PDP in degrees Celsius
    */
   public double getTemperature() {
+    return getTemperature(false);
+  }
+
+  /**
+   * Query the temperature of the PDP
+   *$
+   * @param fresh true to read the PDP even if it is being monitored
+   * @return The temperature of the PDP in degrees Celsius
+   */
+  public double getTemperature(boolean fresh) {
+    PDPMonitor monitor = fresh ? null : getRunningMonitor();
+    if (monitor != null) {
+      return monitor.getTemperature();
+    }
     return PDPJNI.getPDPTemperature(m_module);
   }
 
@@ -58,11 +156,23 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
    * @return The current of one of the PDP channels (channels 0-15) in Amperes
    */
   public double getCurrent(int channel) {
-    double current = PDPJNI.getPDPChannelCurrent((byte) channel, m_module);
+    return getCurrent(channel, false);
+  }
 
+  /**
+   * Query the current of a single channel of the PDP
+   *$
+   * @param fresh true to read the PDP even if it is being monitored
+   * @return The current of one of the PDP channels (channels 0-15) in Amperes
+   */
+  public double getCurrent(int channel, boolean fresh) {
     checkPDPChannel(channel);
 
-    return current;
+    PDPMonitor monitor = fresh ? null : getRunningMonitor();
+    if (monitor != null) {
+      return monitor.getCurrent(channel);
+    }
+    return PDPJNI.getPDPChannelCurrent((byte) channel, m_module);
   }
 
   /**
@@ -71,6 +181,20 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
    * @return The current of all the channels in Amperes
    */
   public double getTotalCurrent() {
+    return getTotalCurrent(false);
+  }
+
+  /**
+   * Query the current of all monitored PDP channels (0-15)
+   *$
+   * @param fresh true to read the PDP even if it is being monitored
+   * @return The current of all the channels in Amperes
+   */
+  public double getTotalCurrent(boolean fresh) {
+    PDPMonitor monitor = fresh ? null : getRunningMonitor();
+    if (monitor != null) {
+      return monitor.getTotalCurrent();
+    }
     return PDPJNI.getPDPTotalCurrent(m_module);
   }
 
@@ -114,6 +238,7 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
    * Live Window code, only does anything if live window is activated.
    */
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -135,24 +260,24 @@ public class PowerDistributionPanel extends SensorBase implements LiveWindowSend
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Chan0", getCurrent(0));
-      m_table.putNumber("Chan1", getCurrent(1));
-      m_table.putNumber("Chan2", getCurrent(2));
-      m_table.putNumber("Chan3", getCurrent(3));
-      m_table.putNumber("Chan4", getCurrent(4));
-      m_table.putNumber("Chan5", getCurrent(5));
-      m_table.putNumber("Chan6", getCurrent(6));
-      m_table.putNumber("Chan7", getCurrent(7));
-      m_table.putNumber("Chan8", getCurrent(8));
-      m_table.putNumber("Chan9", getCurrent(9));
-      m_table.putNumber("Chan10", getCurrent(10));
-      m_table.putNumber("Chan11", getCurrent(11));
-      m_table.putNumber("Chan12", getCurrent(12));
-      m_table.putNumber("Chan13", getCurrent(13));
-      m_table.putNumber("Chan14", getCurrent(14));
-      m_table.putNumber("Chan15", getCurrent(15));
-      m_table.putNumber("Voltage", getVoltage());
-      m_table.putNumber("TotalCurrent", getTotalCurrent());
+      m_publisher.putNumber(m_table, "Chan0", getCurrent(0));
+      m_publisher.putNumber(m_table, "Chan1", getCurrent(1));
+      m_publisher.putNumber(m_table, "Chan2", getCurrent(2));
+      m_publisher.putNumber(m_table, "Chan3", getCurrent(3));
+      m_publisher.putNumber(m_table, "Chan4", getCurrent(4));
+      m_publisher.putNumber(m_table, "Chan5", getCurrent(5));
+      m_publisher.putNumber(m_table, "Chan6", getCurrent(6));
+      m_publisher.putNumber(m_table, "Chan7", getCurrent(7));
+      m_publisher.putNumber(m_table, "Chan8", getCurrent(8));
+      m_publisher.putNumber(m_table, "Chan9", getCurrent(9));
+      m_publisher.putNumber(m_table, "Chan10", getCurrent(10));
+      m_publisher.putNumber(m_table, "Chan11", getCurrent(11));
+      m_publisher.putNumber(m_table, "Chan12", getCurrent(12));
+      m_publisher.putNumber(m_table, "Chan13", getCurrent(13));
+      m_publisher.putNumber(m_table, "Chan14", getCurrent(14));
+      m_publisher.putNumber(m_table, "Chan15", getCurrent(15));
+      m_publisher.putNumber(m_table, "Voltage", getVoltage());
+      m_publisher.putNumber(m_table, "TotalCurrent", getTotalCurrent());
     }
   }
 
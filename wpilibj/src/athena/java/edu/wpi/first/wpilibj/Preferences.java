@@ -7,14 +7,18 @@
 
 package edu.wpi.first.wpilibj;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.tables.ITableListener;
-import edu.wpi.first.wpilibj.tables.TableKeyNotDefinedException;
 
 /**
  * The preferences class provides a relatively simple way to save important
@@ -27,7 +31,10 @@ import edu.wpi.first.wpilibj.tables.TableKeyNotDefinedException;
  * </p>
  *
  * <p>
- * This class is thread safe.
+ * This class is thread safe. Values are kept in typed form once they have been
+ * read, so reading a value that has not changed does not go to the table and
+ * does not lock. A value is dropped from the cache when it changes in the
+ * table, whether it was changed by the robot or the dashboard.
  * </p>
  *
  * <p>
@@ -51,6 +58,52 @@ public class Preferences {
    * The network table
    */
   private NetworkTable table;
+  /**
+   * Keys this class has already marked persistent, so that repeated puts of
+   * the same key only cost a single table write.
+   */
+  private final ConcurrentHashMap<String, Boolean> persistentKeys =
+      new ConcurrentHashMap<String, Boolean>();
+  /**
+   * Marks a value that is not in the table in {@link #cache}
+   */
+  private static final Object MISSING = new Object();
+  /**
+   * Immutable snapshot of the values read from the table, replaced as a whole
+   * whenever it changes.
+   */
+  private volatile Map<String, Object> cache = Collections.emptyMap();
+  /**
+   * Incremented whenever a value is dropped from the cache, so that a value
+   * read from the table while it was changing is not cached.
+   */
+  private long cacheGeneration = 0;
+  private final Object cacheLock = new Object();
+  /**
+   * Listeners for all keys, and for single keys
+   */
+  private final CopyOnWriteArrayList<PreferencesListener> listeners =
+      new CopyOnWriteArrayList<PreferencesListener>();
+  private final ConcurrentHashMap<String, CopyOnWriteArrayList<PreferencesListener>> keyListeners =
+      new ConcurrentHashMap<String, CopyOnWriteArrayList<PreferencesListener>>();
+  /**
+   * Listener to drop changed values from the cache and notify the
+   * {@link PreferencesListener}s.
+   */
+  private final ITableListener cacheListener = new ITableListener() {
+    @Override
+    public void valueChanged(ITable table, String key, Object value, boolean isNew) {
+      valueChangedEx(table, key, value, 0);
+    }
+    @Override
+    public void valueChangedEx(ITable table, String key, Object value, int flags) {
+      if ((flags & ITable.NOTIFY_DELETE) != 0) {
+        persistentKeys.remove(key);
+      }
+      invalidate(key);
+      notifyListeners(key);
+    }
+  };
   /**
    * Listener to set all Preferences values to persistent (for backwards
    * compatibility with old dashboards).
@@ -84,6 +137,8 @@ public class Preferences {
   private Preferences() {
     table = NetworkTable.getTable(TABLE_NAME);
     table.addTableListenerEx(listener, ITable.NOTIFY_NEW | ITable.NOTIFY_IMMEDIATE);
+    table.addTableListenerEx(cacheListener, ITable.NOTIFY_NEW | ITable.NOTIFY_UPDATE
+        | ITable.NOTIFY_DELETE | ITable.NOTIFY_LOCAL);
     UsageReporting.report(tResourceType.kResourceType_Preferences, 0);
   }
 
@@ -110,7 +165,8 @@ public class Preferences {
       throw new NullPointerException();
     }
     table.putString(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -121,7 +177,8 @@ public class Preferences {
    */
   public void putInt(String key, int value) {
     table.putNumber(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -132,7 +189,8 @@ public class Preferences {
    */
   public void putDouble(String key, double value) {
     table.putNumber(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -143,7 +201,8 @@ public class Preferences {
    */
   public void putFloat(String key, float value) {
     table.putNumber(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -154,7 +213,8 @@ public class Preferences {
    */
   public void putBoolean(String key, boolean value) {
     table.putBoolean(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -165,7 +225,8 @@ public class Preferences {
    */
   public void putLong(String key, long value) {
     table.putNumber(key, value);
-    table.setPersistent(key);
+    makePersistent(key);
+    invalidate(key);
   }
 
   /**
@@ -185,6 +246,58 @@ public class Preferences {
    */
   public void remove(String key) {
     table.delete(key);
+    persistentKeys.remove(key);
+    invalidate(key);
+  }
+
+  /**
+   * Add a listener to be notified when any value changes.
+   *
+   * @param listener the listener
+   */
+  public void addListener(PreferencesListener listener) {
+    listeners.addIfAbsent(listener);
+  }
+
+  /**
+   * Add a listener to be notified when the value at the given key changes.
+   *
+   * @param key the key
+   * @param listener the listener
+   */
+  public void addListener(String key, PreferencesListener listener) {
+    CopyOnWriteArrayList<PreferencesListener> list = keyListeners.get(key);
+    if (list == null) {
+      list = new CopyOnWriteArrayList<PreferencesListener>();
+      CopyOnWriteArrayList<PreferencesListener> existing = keyListeners.putIfAbsent(key, list);
+      if (existing != null) {
+        list = existing;
+      }
+    }
+    list.addIfAbsent(listener);
+  }
+
+  /**
+   * Remove a listener, for all keys it was added for.
+   *
+   * @param listener the listener
+   */
+  public void removeListener(PreferencesListener listener) {
+    listeners.remove(listener);
+    for (CopyOnWriteArrayList<PreferencesListener> list : keyListeners.values()) {
+      list.remove(listener);
+    }
+  }
+
+  /**
+   * Mark a key persistent the first time it is put.
+   *
+   * @param key the key
+   */
+  private void makePersistent(String key) {
+    if (persistentKeys.putIfAbsent(key, Boolean.TRUE) == null) {
+      table.setPersistent(key);
+    }
   }
 
   /**
@@ -196,7 +309,8 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public String getString(String key, String backup) {
-    return table.getString(key, backup);
+    Object value = getCached(key);
+    return value instanceof String ? (String) value : backup;
   }
 
   /**
@@ -208,11 +322,8 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public int getInt(String key, int backup) {
-    try {
-      return (int)table.getNumber(key);
-    } catch (TableKeyNotDefinedException e) {
-      return backup;
-    }
+    Object value = getCached(key);
+    return value instanceof Double ? ((Double) value).intValue() : backup;
   }
 
   /**
@@ -224,7 +335,8 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public double getDouble(String key, double backup) {
-    return table.getDouble(key, backup);
+    Object value = getCached(key);
+    return value instanceof Double ? (Double) value : backup;
   }
 
   /**
@@ -236,7 +348,8 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public boolean getBoolean(String key, boolean backup) {
-    return table.getBoolean(key, backup);
+    Object value = getCached(key);
+    return value instanceof Boolean ? (Boolean) value : backup;
   }
 
   /**
@@ -248,11 +361,8 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public float getFloat(String key, float backup) {
-    try {
-      return (float)table.getNumber(key);
-    } catch (TableKeyNotDefinedException e) {
-      return backup;
-    }
+    Object value = getCached(key);
+    return value instanceof Double ? ((Double) value).floatValue() : backup;
   }
 
   /**
@@ -264,17 +374,76 @@ public class Preferences {
    * @return either the value in the table, or the backup
    */
   public long getLong(String key, long backup) {
-    try {
-      return (long)table.getNumber(key);
-    } catch (TableKeyNotDefinedException e) {
-      return backup;
+    Object value = getCached(key);
+    return value instanceof Double ? ((Double) value).longValue() : backup;
+  }
+
+  /**
+   * Get a value from the cache, reading it from the table if it is not cached.
+   *
+   * @param key the key
+   * @return the value, or {@link #MISSING} if the table has no value for the
+   *         key
+   */
+  private Object getCached(String key) {
+    Object value = cache.get(key);
+    if (value != null) {
+      return value;
+    }
+
+    long generation;
+    synchronized (cacheLock) {
+      generation = cacheGeneration;
+    }
+    value = table.getValue(key, null);
+    if (value == null) {
+      value = MISSING;
+    }
+    synchronized (cacheLock) {
+      // Only cache the value if it did not change while it was being read
+      if (generation == cacheGeneration) {
+        Map<String, Object> updated = new HashMap<String, Object>(cache);
+        updated.put(key, value);
+        cache = Collections.unmodifiableMap(updated);
+      }
+    }
+    return value;
+  }
+
+  /**
+   * Drop a value from the cache.
+   *
+   * @param key the key
+   */
+  private void invalidate(String key) {
+    synchronized (cacheLock) {
+      cacheGeneration++;
+      if (cache.containsKey(key)) {
+        Map<String, Object> updated = new HashMap<String, Object>(cache);
+        updated.remove(key);
+        cache = Collections.unmodifiableMap(updated);
+      }
+    }
+  }
+
+  private void notifyListeners(String key) {
+    for (PreferencesListener listener : listeners) {
+      listener.preferenceChanged(key);
+    }
+    CopyOnWriteArrayList<PreferencesListener> list = keyListeners.get(key);
+    if (list != null) {
+      for (PreferencesListener listener : list) {
+        listener.preferenceChanged(key);
+      }
     }
   }
 
   /**
    * This function is no longer required, as NetworkTables automatically
    * saves persistent values (which all Preferences values are) periodically
-   * when running as a server.
+   * when running as a server. The values are written by the NetworkTables
+   * server's own thread, so neither this function nor the put functions ever
+   * wait for the file to be written.
    * @deprecated backwards compatibility shim
    */
   public void save() {
@@ -0,0 +1,22 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+/**
+ * An object interested in changes to values in the {@link Preferences}.
+ */
+public interface PreferencesListener {
+  /**
+   * Called when a value is added, changed or removed. This is called from the
+   * NetworkTables thread, so it should only note the change or read the new
+   * value and not block.
+   *
+   * @param key the key of the value that changed
+   */
+  void preferenceChanged(String key);
+}
@@ -12,6 +12,7 @@ import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.DIOJNI;
 import edu.wpi.first.wpilibj.hal.RelayJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.tables.ITableListener;
@@ -122,11 +123,11 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
     SensorBase.checkRelayChannel(m_channel);
     try {
       if (m_direction == Direction.kBoth || m_direction == Direction.kForward) {
-        relayChannels.allocate(m_channel * 2);
+        relayChannels.allocate(m_channel * 2, this);
         UsageReporting.report(tResourceType.kResourceType_Relay, m_channel);
       }
       if (m_direction == Direction.kBoth || m_direction == Direction.kReverse) {
-        relayChannels.allocate(m_channel * 2 + 1);
+        relayChannels.allocate(m_channel * 2 + 1, this);
         UsageReporting.report(tResourceType.kResourceType_Relay, m_channel + 128);
       }
     } catch (CheckedAllocationException e) {
@@ -174,6 +175,7 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
       relayChannels.free(m_channel * 2 + 1);
     }
 
+    OutputStage.resetRelay(m_channel);
     RelayJNI.setRelayForward(m_port, false);
     RelayJNI.setRelayReverse(m_port, false);
 
@@ -200,46 +202,52 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
   public void set(Value value) {
     switch (value) {
       case kOff:
-        if (m_direction == Direction.kBoth || m_direction == Direction.kForward) {
-          RelayJNI.setRelayForward(m_port, false);
-        }
-        if (m_direction == Direction.kBoth || m_direction == Direction.kReverse) {
-          RelayJNI.setRelayReverse(m_port, false);
-        }
+        write(0);
         break;
       case kOn:
-        if (m_direction == Direction.kBoth || m_direction == Direction.kForward) {
-          RelayJNI.setRelayForward(m_port, true);
-        }
-        if (m_direction == Direction.kBoth || m_direction == Direction.kReverse) {
-          RelayJNI.setRelayReverse(m_port, true);
-        }
+        write(3);
         break;
       case kForward:
         if (m_direction == Direction.kReverse)
           throw new InvalidValueException("A relay configured for reverse cannot be set to forward");
-        if (m_direction == Direction.kBoth || m_direction == Direction.kForward) {
-          RelayJNI.setRelayForward(m_port, true);
-        }
-        if (m_direction == Direction.kBoth) {
-          RelayJNI.setRelayReverse(m_port, false);
-        }
+        write(1);
         break;
       case kReverse:
         if (m_direction == Direction.kForward)
           throw new InvalidValueException("A relay configured for forward cannot be set to reverse");
-        if (m_direction == Direction.kBoth) {
-          RelayJNI.setRelayForward(m_port, false);
-        }
-        if (m_direction == Direction.kBoth || m_direction == Direction.kReverse) {
-          RelayJNI.setRelayReverse(m_port, true);
-        }
+        write(2);
         break;
       default:
         // Cannot hit this, limited by Value enum
     }
   }
 
+  /**
+   * Set the outputs controlled by this relay.
+   *
+   * @param value The forward output in bit 0 and the reverse output in bit 1
+   */
+  private void write(int value) {
+    int mask = 0;
+    if (m_direction == Direction.kBoth || m_direction == Direction.kForward) {
+      mask |= 1;
+    }
+    if (m_direction == Direction.kBoth || m_direction == Direction.kReverse) {
+      mask |= 2;
+    }
+
+    if (OutputStage.isEnabled()) {
+      OutputStage.setRelay(m_channel, m_port, value, mask);
+      return;
+    }
+    if ((mask & 1) != 0) {
+      RelayJNI.setRelayForward(m_port, (value & 1) != 0);
+    }
+    if ((mask & 2) != 0) {
+      RelayJNI.setRelayReverse(m_port, (value & 2) != 0);
+    }
+  }
+
   /**
    * Get the Relay State
    *
@@ -251,8 +259,13 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
    * @return The current state of the relay as a Relay::Value
    */
   public Value get() {
-    if (RelayJNI.getRelayForward(m_port)) {
-      if (RelayJNI.getRelayReverse(m_port)) {
+    int value = (RelayJNI.getRelayForward(m_port) ? 1 : 0)
+        | (RelayJNI.getRelayReverse(m_port) ? 2 : 0);
+    if (OutputStage.isEnabled()) {
+      value = OutputStage.getStagedRelay(m_channel, value);
+    }
+    if ((value & 1) != 0) {
+      if ((value & 2) != 0) {
         return Value.kOn;
       } else {
         if (m_direction == Direction.kForward) {
@@ -262,7 +275,7 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
         }
       }
     } else {
-      if (RelayJNI.getRelayReverse(m_port)) {
+      if ((value & 2) != 0) {
         if (m_direction == Direction.kReverse) {
           return Value.kOn;
         } else {
@@ -351,6 +364,7 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
   private ITableListener m_table_listener;
 
   /**
@@ -377,13 +391,13 @@ public class Relay extends SensorBase implements MotorSafety, LiveWindowSendable
   public void updateTable() {
     if (m_table != null) {
       if (get() == Value.kOn) {
-        m_table.putString("Value", "On");
+        m_publisher.putString(m_table, "Value", "On");
       } else if (get() == Value.kForward) {
-        m_table.putString("Value", "Forward");
+        m_publisher.putString(m_table, "Value", "Forward");
       } else if (get() == Value.kReverse) {
-        m_table.putString("Value", "Reverse");
+        m_publisher.putString(m_table, "Value", "Reverse");
       } else {
-        m_table.putString("Value", "Off");
+        m_publisher.putString(m_table, "Value", "Off");
       }
     }
   }
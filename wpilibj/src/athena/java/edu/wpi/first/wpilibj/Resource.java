@@ -23,11 +23,57 @@ import edu.wpi.first.wpilibj.util.CheckedAllocationException;
  * list of all the "Resources" is created. Then when the program actually starts
  * - in the Robot constructor, all resources are initialized. This ensures that
  * the program is restartable in memory without having to unload/reload.
+ *
+ * The allocation state is kept one bit per index in an array of longs, so
+ * finding a free index checks 64 at a time. All methods are synchronized, so
+ * channels can be allocated from several threads at once. For diagnostics,
+ * each allocation records the object that owns it and the place in the
+ * program it was allocated from.
  */
 public class Resource {
 
+  /**
+   * A snapshot of one allocated index, returned by
+   * {@link Resource#getAllocations()}.
+   */
+  public static class Allocation {
+    /**
+     * The allocated index
+     */
+    public final int index;
+    /**
+     * The object that allocated the index, or null if none was given
+     */
+    public final Object owner;
+    /**
+     * The place in the program the index was allocated from
+     */
+    public final StackTraceElement site;
+
+    Allocation(int index, Object owner, StackTraceElement site) {
+      this.index = index;
+      this.owner = owner;
+      this.site = site;
+    }
+
+    @Override
+    public String toString() {
+      StringBuilder builder = new StringBuilder();
+      builder.append(index);
+      if (owner != null) {
+        builder.append(" by ").append(owner.getClass().getSimpleName());
+      }
+      if (site != null) {
+        builder.append(" at ").append(site);
+      }
+      return builder.toString();
+    }
+  }
+
   private static Resource m_resourceList = null;
-  private final boolean m_numAllocated[];
+  private final long m_allocated[];
+  private final Object m_owners[];
+  private final StackTraceElement m_sites[];
   private final int m_size;
   private final Resource m_nextResource;
 
@@ -35,28 +81,31 @@ public class Resource {
    * Clears all allocated resources
    */
   public static void restartProgram() {
-    for (Resource r = Resource.m_resourceList; r != null; r = r.m_nextResource) {
-      for (int i = 0; i < r.m_size; i++) {
-        r.m_numAllocated[i] = false;
-      }
+    Resource r;
+    synchronized (Resource.class) {
+      r = Resource.m_resourceList;
+    }
+    for (; r != null; r = r.m_nextResource) {
+      r.freeAll();
     }
   }
 
   /**
-   * Allocate storage for a new instance of Resource. Allocate a bool array of
-   * values that will get initialized to indicate that no resources have been
-   * allocated yet. The indicies of the resources are 0..size-1.
+   * Allocate storage for a new instance of Resource. Allocate a bit for each
+   * value, initialized to indicate that no resources have been allocated yet.
+   * The indicies of the resources are 0..size-1.
    *
    * @param size The number of blocks to allocate
    */
   public Resource(final int size) {
     m_size = size;
-    m_numAllocated = new boolean[m_size];
-    for (int i = 0; i < m_size; i++) {
-      m_numAllocated[i] = false;
+    m_allocated = new long[(size + 63) / 64];
+    m_owners = new Object[size];
+    m_sites = new StackTraceElement[size];
+    synchronized (Resource.class) {
+      m_nextResource = Resource.m_resourceList;
+      Resource.m_resourceList = this;
     }
-    m_nextResource = Resource.m_resourceList;
-    Resource.m_resourceList = this;
   }
 
   /**
@@ -69,10 +118,27 @@ public class Resource {
    *         be allocated.
    */
   public int allocate() throws CheckedAllocationException {
-    for (int i = 0; i < m_size; i++) {
-      if (m_numAllocated[i] == false) {
-        m_numAllocated[i] = true;
-        return i;
+    return allocate((Object) null);
+  }
+
+  /**
+   * Allocate a free resource on behalf of an owner.
+   *
+   * @param owner The object the resource is allocated for
+   * @return The index of the allocated block.
+   * @throws CheckedAllocationException If there are no resources available to
+   *         be allocated.
+   */
+  public synchronized int allocate(Object owner) throws CheckedAllocationException {
+    for (int word = 0; word < m_allocated.length; word++) {
+      long free = ~m_allocated[word];
+      if (free != 0) {
+        int index = word * 64 + Long.numberOfTrailingZeros(free);
+        if (index >= m_size) {
+          break;
+        }
+        mark(index, owner);
+        return index;
       }
     }
     throw new CheckedAllocationException("No available resources");
@@ -88,13 +154,28 @@ public class Resource {
    *         be allocated.
    */
   public int allocate(final int index) throws CheckedAllocationException {
+    return allocate(index, null);
+  }
+
+  /**
+   * Allocate a specific resource value on behalf of an owner.
+   *
+   * @param index The resource to allocate
+   * @param owner The object the resource is allocated for
+   * @return The index of the allocated block
+   * @throws CheckedAllocationException If the index is out of range or
+   *         already allocated.
+   */
+  public synchronized int allocate(final int index, Object owner)
+      throws CheckedAllocationException {
     if (index >= m_size || index < 0) {
       throw new CheckedAllocationException("Index " + index + " out of range");
     }
-    if (m_numAllocated[index] == true) {
-      throw new CheckedAllocationException("Resource at index " + index + " already allocated");
+    if (isSet(index)) {
+      throw new CheckedAllocationException("Resource at index "
+          + describe(index) + " already allocated");
     }
-    m_numAllocated[index] = true;
+    mark(index, owner);
     return index;
   }
 
@@ -106,10 +187,95 @@ public class Resource {
    *
    * @param index The index of the resource to free.
    */
-  public void free(final int index) {
-    if (m_numAllocated[index] == false)
+  public synchronized void free(final int index) {
+    if (index >= m_size || index < 0 || !isSet(index))
       throw new AllocationException("No resource available to be freed");
-    m_numAllocated[index] = false;
+    m_allocated[index >> 6] &= ~(1L << index);
+    m_owners[index] = null;
+    m_sites[index] = null;
+  }
+
+  /**
+   * @param index The index of the resource
+   * @return true if the resource is allocated
+   */
+  public synchronized boolean isAllocated(final int index) {
+    return index >= 0 && index < m_size && isSet(index);
+  }
+
+  /**
+   * @return The number of allocated resources
+   */
+  public synchronized int getAllocatedCount() {
+    int count = 0;
+    for (long word : m_allocated) {
+      count += Long.bitCount(word);
+    }
+    return count;
+  }
+
+  /**
+   * Get a snapshot of the allocated resources, in index order.
+   *
+   * @return The allocated resources
+   */
+  public synchronized Allocation[] getAllocations() {
+    Allocation[] allocations = new Allocation[getAllocatedCount()];
+    int i = 0;
+    for (int word = 0; word < m_allocated.length; word++) {
+      long bits = m_allocated[word];
+      while (bits != 0) {
+        int index = word * 64 + Long.numberOfTrailingZeros(bits);
+        allocations[i++] = new Allocation(index, m_owners[index], m_sites[index]);
+        bits &= bits - 1;
+      }
+    }
+    return allocations;
+  }
+
+  private synchronized void freeAll() {
+    for (int i = 0; i < m_allocated.length; i++) {
+      m_allocated[i] = 0;
+    }
+    for (int i = 0; i < m_size; i++) {
+      m_owners[i] = null;
+      m_sites[i] = null;
+    }
+  }
+
+  private boolean isSet(int index) {
+    return (m_allocated[index >> 6] & (1L << index)) != 0;
+  }
+
+  private void mark(int index, Object owner) {
+    m_allocated[index >> 6] |= 1L << index;
+    m_owners[index] = owner;
+    m_sites[index] = findCallSite();
+  }
+
+  private String describe(int index) {
+    return new Allocation(index, m_owners[index], m_sites[index]).toString();
   }
 
+  /**
+   * Find the first place on the stack outside the library, or the first place
+   * outside this class if the whole stack is in the library.
+   */
+  private static StackTraceElement findCallSite() {
+    StackTraceElement[] trace = new Throwable().getStackTrace();
+    StackTraceElement caller = null;
+    for (StackTraceElement element : trace) {
+      String className = element.getClassName();
+      if (className.equals(Resource.class.getName())) {
+        continue;
+      }
+      if (caller == null) {
+        caller = element;
+      }
+      if (!className.startsWith("edu.wpi.first.wpilibj")) {
+        return element;
+      }
+    }
+    return caller;
+  }
 }
@@ -21,6 +21,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tInstances;
 import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
 import edu.wpi.first.wpilibj.communication.UsageReporting;
+import edu.wpi.first.wpilibj.internal.HardwareConsoleReporting;
 import edu.wpi.first.wpilibj.internal.HardwareHLUsageReporting;
 import edu.wpi.first.wpilibj.internal.HardwareTimer;
 import edu.wpi.first.wpilibj.networktables.NetworkTable;
@@ -172,6 +173,7 @@ public abstract class RobotBase {
     // Set some implementations so that the static methods work properly
     Timer.SetImplementation(new HardwareTimer());
     HLUsageReporting.SetImplementation(new HardwareHLUsageReporting());
+    ConsoleReporting.SetImplementation(new HardwareConsoleReporting());
     RobotState.SetImplementation(DriverStation.getInstance());
   }
 
@@ -207,6 +209,7 @@ public abstract class RobotBase {
           + t.toString() + " at " + Arrays.toString(t.getStackTrace()), false);
       System.err.println("WARNING: Robots don't quit!");
       System.err.println("ERROR: Could not instantiate robot " + robotName + "!");
+      ErrorReporter.flush();
       System.exit(1);
       return;
     }
@@ -255,6 +258,7 @@ public abstract class RobotBase {
         System.err.println("---> Unexpected return from startCompetition() method.");
       }
     }
+    ErrorReporter.flush();
     System.exit(1);
   }
 }
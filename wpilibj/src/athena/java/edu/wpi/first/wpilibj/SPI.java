@@ -7,7 +7,6 @@
 
 package edu.wpi.first.wpilibj;
 
-import java.nio.ByteOrder;
 import java.nio.ByteBuffer;
 import java.nio.IntBuffer;
 import java.nio.LongBuffer;
@@ -152,7 +151,7 @@ public class SPI extends SensorBase {
    * MISO input during the transfer into the receive FIFO.
    */
   public int write(byte[] dataToSend, int size) {
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(size);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(size);
     dataToSendBuffer.put(dataToSend);
     return SPIJNI.spiWrite(m_port, dataToSendBuffer, (byte) size);
   }
@@ -189,10 +188,10 @@ public class SPI extends SensorBase {
    */
   public int read(boolean initiate, byte[] dataReceived, int size) {
     int retVal = 0;
-    ByteBuffer dataReceivedBuffer = ByteBuffer.allocateDirect(size);
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(size);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(size);
     if (initiate)
-      retVal = SPIJNI.spiTransaction(m_port, dataToSendBuffer, dataReceivedBuffer, (byte) size);
+      retVal = SPIJNI.spiTransaction(m_port, getZeroSendBuffer(size), dataReceivedBuffer,
+          (byte) size);
     else
       retVal = SPIJNI.spiRead(m_port, dataReceivedBuffer, (byte) size);
     dataReceivedBuffer.get(dataReceived);
@@ -222,8 +221,7 @@ public class SPI extends SensorBase {
     if (dataReceived.capacity() < size)
       throw new IllegalArgumentException("buffer is too small, must be at least " + size);
     if (initiate) {
-      ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(size);
-      return SPIJNI.spiTransaction(m_port, dataToSendBuffer, dataReceived, (byte) size);
+      return SPIJNI.spiTransaction(m_port, getZeroSendBuffer(size), dataReceived, (byte) size);
     }
     return SPIJNI.spiRead(m_port, dataReceived, (byte) size);
   }
@@ -236,9 +234,9 @@ public class SPI extends SensorBase {
    * @param size The length of the transaction, in bytes
    */
   public int transaction(byte[] dataToSend, byte[] dataReceived, int size) {
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(size);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(size);
     dataToSendBuffer.put(dataToSend);
-    ByteBuffer dataReceivedBuffer = ByteBuffer.allocateDirect(size);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(size);
     int retVal = SPIJNI.spiTransaction(m_port, dataToSendBuffer, dataReceivedBuffer, (byte) size);
     dataReceivedBuffer.get(dataReceived);
     return retVal;
@@ -369,14 +367,21 @@ public class SPI extends SensorBase {
     if (result == null) {
       throw new IllegalArgumentException("Null parameter `result'");
     }
-    ByteBuffer value = ByteBuffer.allocateDirect(8);
-    // set the byte order
-    value.order(ByteOrder.LITTLE_ENDIAN);
-    ByteBuffer count = ByteBuffer.allocateDirect(4);
-    // set the byte order
-    count.order(ByteOrder.LITTLE_ENDIAN);
-    SPIJNI.spiGetAccumulatorOutput(m_port, value.asLongBuffer(), count.asIntBuffer());
-    result.value = value.asLongBuffer().get(0);
-    result.count = count.asIntBuffer().get(0);
+    LongBuffer value = DirectBufferArena.getLongBuffer();
+    IntBuffer count = DirectBufferArena.getIntBuffer();
+    SPIJNI.spiGetAccumulatorOutput(m_port, value, count);
+    result.value = value.get(0);
+    result.count = count.get(0);
+  }
+
+  /**
+   * Get a send buffer filled with zeros, to clock data in from the device.
+   */
+  private static ByteBuffer getZeroSendBuffer(int size) {
+    ByteBuffer buffer = DirectBufferArena.getSendBuffer(size);
+    for (int i = 0; i < size; i++) {
+      buffer.put(i, (byte) 0);
+    }
+    return buffer;
   }
 }
@@ -0,0 +1,320 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+/**
+ * Reads an SPI device from a background thread at a fixed rate and keeps the
+ * decoded samples, each tagged with the FPGA time it was read at, in a ring
+ * buffer.
+ *
+ * This takes the SPI transfers off the robot loop and lets a sensor be sampled
+ * faster than the loop runs. Each period the reader thread sends a configured
+ * command and passes the bytes received to a {@link Decoder}, which turns them
+ * into one sample or, when reading a device FIFO in a burst, several samples.
+ * The robot loop can then read the latest sample, the average of the last
+ * samples, or every sample recorded since it last read.
+ *
+ * The reader thread is the only writer to the ring and publishes each sample
+ * through a volatile count, so readers never lock. A reader that is lapped by
+ * the writer discards the samples that were overwritten.
+ */
+public class SPIStream {
+  /**
+   * Performs the SPI transfer for the stream. {@link SPI} is used on the
+   * robot; tests can supply their own.
+   */
+  public interface Transport {
+    /**
+     * Perform a simultaneous read/write transaction with the device.
+     *
+     * @param dataToSend The data to be written out to the device
+     * @param dataReceived Buffer to receive data from the device
+     * @param size The length of the transaction, in bytes
+     * @return The number of bytes transferred, or a negative value on error
+     */
+    int transaction(byte[] dataToSend, byte[] dataReceived, int size);
+  }
+
+  /**
+   * Turns the bytes received from the device into samples.
+   */
+  public interface Decoder {
+    /**
+     * Decode the data received in one transaction.
+     *
+     * @param dataReceived The bytes received from the device
+     * @param samples Array to store the decoded samples in, one after the other,
+     *        each with the number of channels of the stream. It has room for
+     *        the maximum number of samples per transaction.
+     * @return The number of samples decoded
+     */
+    int decode(byte[] dataReceived, double[] samples);
+  }
+
+  /**
+   * Default number of samples kept
+   */
+  public static final int kDefaultSize = 1024;
+
+  private final Transport m_transport;
+  private final Decoder m_decoder;
+  private final byte[] m_command;
+  private final byte[] m_received;
+  private final int m_channels;
+  private final double[] m_decoded;
+
+  private final int m_size;
+  private final double[] m_timestamps;
+  private final double[] m_values;
+  // Total number of samples recorded. Sample n is stored in slot n % m_size.
+  private volatile long m_recorded = 0;
+  // Number of samples already returned by readNew()
+  private long m_readCursor = 0;
+
+  private volatile long m_errorCount = 0;
+  private volatile long m_overruns = 0;
+
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("SPIStream", Thread.MAX_PRIORITY, new PeriodicSampler.Task() {
+        @Override
+        public void run(double timestamp) {
+          poll(timestamp);
+        }
+      });
+
+  /**
+   * Create a stream reading from an SPI port.
+   *
+   * @param spi The SPI port, already configured for the device
+   * @param command The bytes to send each period; the transaction is the same
+   *        length
+   * @param channels The number of values in each sample
+   * @param samplesPerTransaction The maximum number of samples the decoder
+   *        returns for one transaction
+   * @param decoder Turns the received bytes into samples
+   */
+  public SPIStream(final SPI spi, byte[] command, int channels, int samplesPerTransaction,
+      Decoder decoder) {
+    this(new Transport() {
+      @Override
+      public int transaction(byte[] dataToSend, byte[] dataReceived, int size) {
+        return spi.transaction(dataToSend, dataReceived, size);
+      }
+    }, command, channels, samplesPerTransaction, decoder, kDefaultSize);
+  }
+
+  /**
+   * Create a stream.
+   *
+   * @param transport Performs the SPI transfers
+   * @param command The bytes to send each period; the transaction is the same
+   *        length
+   * @param channels The number of values in each sample
+   * @param samplesPerTransaction The maximum number of samples the decoder
+   *        returns for one transaction
+   * @param decoder Turns the received bytes into samples
+   * @param size The number of samples to keep. One slot is reserved for the
+   *        writer, so size - 1 samples are visible to readers.
+   */
+  public SPIStream(Transport transport, byte[] command, int channels,
+      int samplesPerTransaction, Decoder decoder, int size) {
+    if (channels < 1 || samplesPerTransaction < 1) {
+      throw new IllegalArgumentException("SPI stream needs at least one channel and sample");
+    }
+    if (size < 2) {
+      throw new IllegalArgumentException("SPI stream must hold at least 2 samples");
+    }
+    m_transport = transport;
+    m_decoder = decoder;
+    m_command = command.clone();
+    m_received = new byte[command.length];
+    m_channels = channels;
+    m_decoded = new double[channels * samplesPerTransaction];
+    m_size = size;
+    m_timestamps = new double[size];
+    m_values = new double[size * channels];
+  }
+
+  /**
+   * Start reading the device.
+   *
+   * @param period The time between transactions in seconds
+   */
+  public synchronized void start(double period) {
+    if (period <= 0.0) {
+      throw new IllegalArgumentException("SPI stream period must be positive");
+    }
+    m_sampler.start(period);
+  }
+
+  /**
+   * Stop reading the device. The recorded samples are kept.
+   */
+  public synchronized void stop() {
+    m_sampler.stop();
+  }
+
+  /**
+   * @return The number of values in each sample
+   */
+  public int getChannelCount() {
+    return m_channels;
+  }
+
+  /**
+   * @return The total number of samples recorded since the stream was created
+   */
+  public long getSampleCount() {
+    return m_recorded;
+  }
+
+  /**
+   * Get the latest sample.
+   *
+   * @param sample Array to store the values of the sample in
+   * @return The time in seconds the sample was read at, or -1 if there are no
+   *         samples
+   */
+  public double getLatest(double[] sample) {
+    while (true) {
+      long recorded = m_recorded;
+      if (recorded == 0) {
+        return -1.0;
+      }
+      long index = recorded - 1;
+      int slot = (int) (index % m_size);
+      double timestamp = m_timestamps[slot];
+      System.arraycopy(m_values, slot * m_channels, sample, 0, m_channels);
+      if (isIntact(index)) {
+        return timestamp;
+      }
+    }
+  }
+
+  /**
+   * Get the average of the latest samples.
+   *
+   * @param count The number of samples to average
+   * @param average Array to store the average of each channel in
+   * @return The number of samples averaged, which is less than count if fewer
+   *         samples are available
+   */
+  public int getAverage(int count, double[] average) {
+    while (true) {
+      long recorded = m_recorded;
+      int available = (int) Math.min(Math.min(recorded, m_size - 1), count);
+      for (int c = 0; c < m_channels; c++) {
+        average[c] = 0.0;
+      }
+      for (long index = recorded - available; index < recorded; index++) {
+        int offset = (int) (index % m_size) * m_channels;
+        for (int c = 0; c < m_channels; c++) {
+          average[c] += m_values[offset + c];
+        }
+      }
+      if (available > 0 && !isIntact(recorded - available)) {
+        continue;
+      }
+      for (int c = 0; c < m_channels; c++) {
+        average[c] = available > 0 ? average[c] / available : 0.0;
+      }
+      return available;
+    }
+  }
+
+  /**
+   * Read the samples recorded since the last call, oldest first. Samples that
+   * were overwritten before they could be read are skipped and counted by
+   * {@link #getOverrunCount()}. Only one thread should call this.
+   *
+   * @param timestamps Array to store the times the samples were read at
+   * @param values Array to store the values of the samples in, one sample
+   *        after the other
+   * @return The number of samples read, at most timestamps.length
+   */
+  public int readNew(double[] timestamps, double[] values) {
+    int max = Math.min(timestamps.length, values.length / m_channels);
+    long recorded = m_recorded;
+    long oldest = Math.max(recorded - (m_size - 1), 0);
+    if (m_readCursor < oldest) {
+      m_overruns += oldest - m_readCursor;
+      m_readCursor = oldest;
+    }
+    int count = (int) Math.min(recorded - m_readCursor, max);
+    int copied = 0;
+    for (int i = 0; i < count; i++) {
+      long index = m_readCursor + i;
+      int slot = (int) (index % m_size);
+      timestamps[copied] = m_timestamps[slot];
+      System.arraycopy(m_values, slot * m_channels, values, copied * m_channels, m_channels);
+      copied++;
+    }
+
+    // Drop any samples the writer overwrote while they were being copied
+    long lapped = m_recorded - (m_size - 1) - m_readCursor;
+    int skip = (int) Math.max(0, Math.min(lapped, copied));
+    if (skip > 0) {
+      m_overruns += skip;
+      System.arraycopy(timestamps, skip, timestamps, 0, copied - skip);
+      System.arraycopy(values, skip * m_channels, values, 0, (copied - skip) * m_channels);
+      copied -= skip;
+    }
+    m_readCursor += count;
+    return copied;
+  }
+
+  /**
+   * @return The number of transactions that failed
+   */
+  public long getErrorCount() {
+    return m_errorCount;
+  }
+
+  /**
+   * @return The number of periods skipped because a transaction ran late
+   */
+  public long getMissedPeriodCount() {
+    return m_sampler.getMissedPeriodCount();
+  }
+
+  /**
+   * @return The number of samples overwritten before {@link #readNew} read
+   *         them
+   */
+  public long getOverrunCount() {
+    return m_overruns;
+  }
+
+  /**
+   * Perform one transaction and record the decoded samples.
+   *
+   * @param timestamp The time the transaction was started at
+   */
+  void poll(double timestamp) {
+    if (m_transport.transaction(m_command, m_received, m_command.length) < 0) {
+      m_errorCount++;
+      return;
+    }
+    int samples = m_decoder.decode(m_received, m_decoded);
+    long recorded = m_recorded;
+    for (int i = 0; i < samples; i++) {
+      int slot = (int) (recorded % m_size);
+      m_timestamps[slot] = timestamp;
+      System.arraycopy(m_decoded, i * m_channels, m_values, slot * m_channels, m_channels);
+      recorded++;
+      m_recorded = recorded;
+    }
+  }
+
+  /**
+   * @return true if the sample has not been overwritten by the writer
+   */
+  private boolean isIntact(long index) {
+    return m_recorded - index <= m_size - 1;
+  }
+}
@@ -51,7 +51,7 @@ public class SampleRobot extends RobotBase {
    * ready, causing the robot to be bypassed in a match.
    */
   protected void robotInit() {
-    System.out.println("Default robotInit() method running, consider providing your own");
+    ConsoleReporting.println("Default robotInit() method running, consider providing your own");
   }
 
   /**
@@ -61,7 +61,7 @@ public class SampleRobot extends RobotBase {
    * Called once each time the robot enters the disabled state.
    */
   protected void disabled() {
-    System.out.println("Default disabled() method running, consider providing your own");
+    ConsoleReporting.println("Default disabled() method running, consider providing your own");
   }
 
   /**
@@ -71,7 +71,7 @@ public class SampleRobot extends RobotBase {
    * Called once each time the robot enters the autonomous state.
    */
   public void autonomous() {
-    System.out.println("Default autonomous() method running, consider providing your own");
+    ConsoleReporting.println("Default autonomous() method running, consider providing your own");
   }
 
   /**
@@ -82,7 +82,7 @@ public class SampleRobot extends RobotBase {
    * Called once each time the robot enters the operator-controlled state.
    */
   public void operatorControl() {
-    System.out.println("Default operatorControl() method running, consider providing your own");
+    ConsoleReporting.println("Default operatorControl() method running, consider providing your own");
   }
 
   /**
@@ -90,7 +90,7 @@ public class SampleRobot extends RobotBase {
    * should run while the robot is in test mode.
    */
   public void test() {
-    System.out.println("Default test() method running, consider providing your own");
+    ConsoleReporting.println("Default test() method running, consider providing your own");
   }
 
   /**
@@ -0,0 +1,203 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+/**
+ * Splits the bytes read from a serial port into frames. A parser is fed one
+ * byte at a time by a {@link SerialReader} and assembles each frame in an
+ * array it allocates once, so parsing never allocates.
+ *
+ * Parsers for the common framings are provided: {@link Delimited} for text
+ * lines and other frames ending in a delimiter byte, {@link LengthPrefixed}
+ * for frames starting with their length, and {@link FixedLength} for frames
+ * that are always the same size.
+ */
+public abstract class SerialFrameParser {
+  protected final byte[] m_frame;
+  protected int m_length = 0;
+  private volatile long m_errorCount = 0;
+
+  /**
+   * @param maxFrameSize The size of the largest frame
+   */
+  protected SerialFrameParser(int maxFrameSize) {
+    if (maxFrameSize < 1) {
+      throw new IllegalArgumentException("Serial frames must hold at least 1 byte");
+    }
+    m_frame = new byte[maxFrameSize];
+  }
+
+  /**
+   * Add the next byte read from the port.
+   *
+   * @param data The byte
+   * @return The length of the frame if the byte completed one, or -1. The frame
+   *         is in {@link #getFrame()} until the next byte is added.
+   */
+  public abstract int add(byte data);
+
+  /**
+   * @return The array the frame is assembled in
+   */
+  public byte[] getFrame() {
+    return m_frame;
+  }
+
+  /**
+   * @return The size of the largest frame
+   */
+  public int getMaxFrameSize() {
+    return m_frame.length;
+  }
+
+  /**
+   * Discard the partial frame, if any.
+   */
+  public void reset() {
+    m_length = 0;
+  }
+
+  /**
+   * @return The number of frames discarded for being malformed or too long
+   */
+  public long getErrorCount() {
+    return m_errorCount;
+  }
+
+  protected void error() {
+    m_errorCount++;
+  }
+
+  /**
+   * Frames that end in a delimiter byte, such as a newline. The delimiter is
+   * not part of the frame, and empty frames are skipped.
+   */
+  public static class Delimited extends SerialFrameParser {
+    private final byte m_delimiter;
+    private boolean m_discarding = false;
+
+    /**
+     * @param delimiter The byte ending each frame
+     * @param maxFrameSize The size of the largest frame, not counting the
+     *        delimiter. Longer frames are discarded.
+     */
+    public Delimited(byte delimiter, int maxFrameSize) {
+      super(maxFrameSize);
+      m_delimiter = delimiter;
+    }
+
+    @Override
+    public int add(byte data) {
+      if (data == m_delimiter) {
+        int length = m_length;
+        m_length = 0;
+        if (m_discarding) {
+          m_discarding = false;
+          return -1;
+        }
+        return length > 0 ? length : -1;
+      }
+      if (m_discarding) {
+        return -1;
+      }
+      if (m_length == m_frame.length) {
+        error();
+        m_discarding = true;
+        return -1;
+      }
+      m_frame[m_length++] = data;
+      return -1;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      m_discarding = false;
+    }
+  }
+
+  /**
+   * Frames that start with their length as an unsigned big-endian integer of
+   * one or two bytes. The length counts the bytes that follow it, and is not
+   * part of the frame. Empty frames are skipped.
+   */
+  public static class LengthPrefixed extends SerialFrameParser {
+    private final int m_prefixSize;
+    private int m_prefixRead = 0;
+    private int m_expected = 0;
+
+    /**
+     * @param prefixSize The size of the length, 1 or 2 bytes
+     * @param maxFrameSize The size of the largest frame. Frames with a larger
+     *        length are discarded.
+     */
+    public LengthPrefixed(int prefixSize, int maxFrameSize) {
+      super(maxFrameSize);
+      if (prefixSize != 1 && prefixSize != 2) {
+        throw new IllegalArgumentException("Serial frame length must be 1 or 2 bytes");
+      }
+      m_prefixSize = prefixSize;
+    }
+
+    @Override
+    public int add(byte data) {
+      if (m_prefixRead < m_prefixSize) {
+        m_expected = (m_expected << 8) | (data & 0xff);
+        m_prefixRead++;
+        if (m_prefixRead < m_prefixSize) {
+          return -1;
+        }
+        if (m_expected > m_frame.length) {
+          // Can't hold the frame, so the length is most likely garbage; take
+          // the next byte as the start of a new length
+          error();
+          reset();
+        } else if (m_expected == 0) {
+          reset();
+        }
+        return -1;
+      }
+      m_frame[m_length++] = data;
+      if (m_length < m_expected) {
+        return -1;
+      }
+      int length = m_length;
+      reset();
+      return length;
+    }
+
+    @Override
+    public void reset() {
+      super.reset();
+      m_prefixRead = 0;
+      m_expected = 0;
+    }
+  }
+
+  /**
+   * Frames that are always the same size.
+   */
+  public static class FixedLength extends SerialFrameParser {
+    /**
+     * @param frameSize The size of each frame
+     */
+    public FixedLength(int frameSize) {
+      super(frameSize);
+    }
+
+    @Override
+    public int add(byte data) {
+      m_frame[m_length++] = data;
+      if (m_length < m_frame.length) {
+        return -1;
+      }
+      m_length = 0;
+      return m_frame.length;
+    }
+  }
+}
@@ -336,13 +336,27 @@ public class SerialPort {
    * @return An array of the read bytes
    */
   public byte[] read(final int count) {
-    ByteBuffer dataReceivedBuffer = ByteBuffer.allocateDirect(count);
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(count);
     int gotten = SerialPortJNI.serialRead(m_port, dataReceivedBuffer, count);
     byte[] retVal = new byte[gotten];
     dataReceivedBuffer.get(retVal);
     return retVal;
   }
 
+  /**
+   * Read raw bytes out of the buffer into an existing array.
+   *
+   * @param buffer The array to store the bytes in
+   * @param count The maximum number of bytes to read.
+   * @return The number of bytes read
+   */
+  public int read(byte[] buffer, int count) {
+    ByteBuffer dataReceivedBuffer = DirectBufferArena.getReceiveBuffer(count);
+    int gotten = SerialPortJNI.serialRead(m_port, dataReceivedBuffer, count);
+    dataReceivedBuffer.get(buffer, 0, gotten);
+    return gotten;
+  }
+
   /**
    * Write raw bytes to the serial port.
    *
@@ -351,7 +365,7 @@ public class SerialPort {
    * @return The number of bytes actually written into the port.
    */
   public int write(byte[] buffer, int count) {
-    ByteBuffer dataToSendBuffer = ByteBuffer.allocateDirect(count);
+    ByteBuffer dataToSendBuffer = DirectBufferArena.getSendBuffer(count);
     dataToSendBuffer.put(buffer, 0, count);
     return SerialPortJNI.serialWrite(m_port, dataToSendBuffer, count);
   }
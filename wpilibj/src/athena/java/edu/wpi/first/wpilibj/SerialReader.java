@@ -0,0 +1,302 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Reads a serial port from a background thread and splits what it reads into
+ * frames with a {@link SerialFrameParser}.
+ *
+ * This keeps the reads, which block until data arrives, off the robot loop.
+ * The reader thread drains the port as bytes arrive and passes complete
+ * frames either to a {@link FrameListener}, called on the reader thread, or
+ * into a queue the robot loop takes them from with {@link #readFrame(byte[])}.
+ *
+ * The queue is a ring of frame slots allocated when the reader is created, so
+ * no frames are allocated while reading. The reader thread is the only writer
+ * and the robot loop the only reader, and each publishes its position through
+ * a volatile count, so neither ever locks. When the queue is full new frames
+ * are dropped and counted.
+ */
+public class SerialReader {
+  /**
+   * Reads bytes from the port. {@link SerialPort} is used on the robot; tests
+   * can supply their own.
+   */
+  public interface Source {
+    /**
+     * Read the bytes available, waiting for at least one if there are none.
+     *
+     * @param buffer The array to store the bytes in
+     * @param count The maximum number of bytes to read
+     * @return The number of bytes read, which is 0 if none arrived in time
+     */
+    int read(byte[] buffer, int count);
+  }
+
+  /**
+   * Receives frames on the reader thread.
+   */
+  public interface FrameListener {
+    /**
+     * Called for each frame received. The frame array is reused for the next
+     * frame, so it must be copied to be kept.
+     *
+     * @param frame The array holding the frame
+     * @param length The length of the frame
+     * @param timestamp The FPGA time in seconds the frame was read at
+     */
+    void frameReceived(byte[] frame, int length, double timestamp);
+  }
+
+  /**
+   * Default number of frames queued
+   */
+  public static final int kDefaultQueueSize = 64;
+
+  private static final int kReadSize = 256;
+
+  private final Source m_source;
+  private final SerialFrameParser m_parser;
+  private final byte[] m_readBuffer = new byte[kReadSize];
+
+  private final int m_queueSize;
+  private final byte[][] m_frames;
+  private final int[] m_lengths;
+  private final double[] m_timestamps;
+  // Number of frames queued by the reader thread and taken by readFrame(). Frame
+  // n is stored in slot n % m_queueSize.
+  private volatile long m_queued = 0;
+  private volatile long m_taken = 0;
+
+  private volatile FrameListener m_listener = null;
+  private volatile long m_byteCount = 0;
+  private volatile long m_frameCount = 0;
+  private volatile long m_droppedCount = 0;
+  private volatile long m_errorCount = 0;
+
+  private volatile Thread m_thread = null;
+  private volatile boolean m_running = false;
+
+  /**
+   * Create a reader for a serial port.
+   *
+   * @param port The serial port, already configured. Its timeout bounds how
+   *        long {@link #stop()} waits for the reader thread.
+   * @param parser Splits the bytes read into frames
+   */
+  public SerialReader(final SerialPort port, SerialFrameParser parser) {
+    this(new Source() {
+      @Override
+      public int read(byte[] buffer, int count) {
+        // Wait for a single byte when the buffer is empty, so that a frame is
+        // passed on as soon as its last byte arrives
+        int available = port.getBytesReceived();
+        return port.read(buffer, Math.max(1, Math.min(available, count)));
+      }
+    }, parser, kDefaultQueueSize);
+  }
+
+  /**
+   * Create a reader.
+   *
+   * @param source Reads the bytes from the port
+   * @param parser Splits the bytes read into frames
+   * @param queueSize The number of frames that can be queued
+   */
+  public SerialReader(Source source, SerialFrameParser parser, int queueSize) {
+    if (queueSize < 1) {
+      throw new IllegalArgumentException("Serial reader must queue at least 1 frame");
+    }
+    m_source = source;
+    m_parser = parser;
+    m_queueSize = queueSize;
+    m_frames = new byte[queueSize][parser.getMaxFrameSize()];
+    m_lengths = new int[queueSize];
+    m_timestamps = new double[queueSize];
+  }
+
+  /**
+   * Set the listener to pass frames to instead of queueing them. It is called
+   * on the reader thread, so it should return quickly.
+   *
+   * @param listener The listener, or null to queue frames
+   */
+  public void setListener(FrameListener listener) {
+    m_listener = listener;
+  }
+
+  /**
+   * Start reading the port.
+   */
+  public synchronized void start() {
+    if (m_thread != null) {
+      return;
+    }
+    m_running = true;
+    m_thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        readLoop();
+      }
+    }, "SerialReader");
+    m_thread.setDaemon(true);
+    m_thread.start();
+  }
+
+  /**
+   * Stop reading the port. Queued frames are kept. This waits for a read in
+   * progress to finish.
+   */
+  public synchronized void stop() {
+    Thread thread = m_thread;
+    if (thread == null) {
+      return;
+    }
+    m_running = false;
+    try {
+      thread.join();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+    }
+    m_thread = null;
+  }
+
+  /**
+   * Take the oldest queued frame. Only one thread should call this.
+   *
+   * @param buffer The array to store the frame in. Bytes that do not fit are
+   *        discarded.
+   * @return The length of the frame, or -1 if no frame is queued
+   */
+  public int readFrame(byte[] buffer) {
+    long taken = m_taken;
+    if (taken == m_queued) {
+      return -1;
+    }
+    int slot = (int) (taken % m_queueSize);
+    int length = m_lengths[slot];
+    System.arraycopy(m_frames[slot], 0, buffer, 0, Math.min(length, buffer.length));
+    m_taken = taken + 1;
+    return length;
+  }
+
+  /**
+   * Get the time the next frame {@link #readFrame(byte[])} returns was read
+   * at.
+   *
+   * @return The FPGA time in seconds, or -1 if no frame is queued
+   */
+  public double getFrameTimestamp() {
+    long taken = m_taken;
+    if (taken == m_queued) {
+      return -1.0;
+    }
+    return m_timestamps[(int) (taken % m_queueSize)];
+  }
+
+  /**
+   * @return The number of frames queued
+   */
+  public int getQueuedFrameCount() {
+    return (int) (m_queued - m_taken);
+  }
+
+  /**
+   * @return The number of bytes read from the port
+   */
+  public long getByteCount() {
+    return m_byteCount;
+  }
+
+  /**
+   * @return The number of frames received, including dropped frames
+   */
+  public long getFrameCount() {
+    return m_frameCount;
+  }
+
+  /**
+   * @return The number of frames dropped because the queue was full
+   */
+  public long getDroppedFrameCount() {
+    return m_droppedCount;
+  }
+
+  /**
+   * @return The number of frames the parser discarded as malformed
+   */
+  public long getParseErrorCount() {
+    return m_parser.getErrorCount();
+  }
+
+  /**
+   * @return The number of reads that failed
+   */
+  public long getErrorCount() {
+    return m_errorCount;
+  }
+
+  /**
+   * Read from the port once and handle the frames completed. Only called from
+   * the reader thread, or directly by tests.
+   *
+   * @param timestamp The time to tag the frames with, or NaN to use the time
+   *        the read finished
+   * @return The number of bytes read
+   */
+  int poll(double timestamp) {
+    int count = m_source.read(m_readBuffer, kReadSize);
+    if (count <= 0) {
+      return 0;
+    }
+    if (Double.isNaN(timestamp)) {
+      timestamp = Timer.getFPGATimestamp();
+    }
+    m_byteCount += count;
+    for (int i = 0; i < count; i++) {
+      int length = m_parser.add(m_readBuffer[i]);
+      if (length >= 0) {
+        handleFrame(m_parser.getFrame(), length, timestamp);
+      }
+    }
+    return count;
+  }
+
+  private void handleFrame(byte[] frame, int length, double timestamp) {
+    m_frameCount++;
+    FrameListener listener = m_listener;
+    if (listener != null) {
+      listener.frameReceived(frame, length, timestamp);
+      return;
+    }
+    long queued = m_queued;
+    if (queued - m_taken == m_queueSize) {
+      m_droppedCount++;
+      return;
+    }
+    int slot = (int) (queued % m_queueSize);
+    System.arraycopy(frame, 0, m_frames[slot], 0, length);
+    m_lengths[slot] = length;
+    m_timestamps[slot] = timestamp;
+    m_queued = queued + 1;
+  }
+
+  private void readLoop() {
+    while (m_running) {
+      try {
+        poll(Double.NaN);
+      } catch (RuntimeException ex) {
+        // The port reported an error; back off rather than spinning on it
+        m_errorCount++;
+        LockSupport.parkNanos(10000000L);
+      }
+    }
+  }
+}
@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.hal.SolenoidJNI;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 import edu.wpi.first.wpilibj.tables.ITableListener;
@@ -36,7 +37,7 @@ public class Solenoid extends SolenoidBase implements LiveWindowSendable {
     checkSolenoidChannel(m_channel);
 
     try {
-      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_channel);
+      m_allocated.allocate(m_moduleNumber * kSolenoidChannels + m_channel, this);
     } catch (CheckedAllocationException e) {
       throw new AllocationException("Solenoid channel " + m_channel + " on module "
         + m_moduleNumber + " is already allocated");
@@ -77,6 +78,7 @@ public class Solenoid extends SolenoidBase implements LiveWindowSendable {
    */
   public synchronized void free() {
     m_allocated.free(m_moduleNumber * kSolenoidChannels + m_channel);
+    OutputStage.resetSolenoids(m_moduleNumber, 1 << m_channel);
     SolenoidJNI.freeSolenoidPort(m_solenoid_port);
     m_solenoid_port = 0;
     super.free();
@@ -125,6 +127,7 @@ public class Solenoid extends SolenoidBase implements LiveWindowSendable {
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
   private ITableListener m_table_listener;
 
   /**
@@ -147,7 +150,7 @@ public class Solenoid extends SolenoidBase implements LiveWindowSendable {
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putBoolean("Value", get());
+      m_publisher.putBoolean(m_table, "Value", get());
     }
   }
 
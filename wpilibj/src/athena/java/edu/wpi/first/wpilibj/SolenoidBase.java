@@ -52,6 +52,10 @@ public abstract class SolenoidBase extends SensorBase {
    * @param mask The channels you want to be affected.
    */
   protected synchronized void set(int value, int mask) {
+    if (OutputStage.isEnabled()) {
+      OutputStage.setSolenoids(m_moduleNumber, m_ports[0], value, mask);
+      return;
+    }
     for (int i = 0; i < SensorBase.kSolenoidChannels; i++) {
       int local_mask = 1 << i;
       if ((mask & local_mask) != 0)
@@ -62,10 +66,15 @@ public abstract class SolenoidBase extends SensorBase {
   /**
    * Read all 8 solenoids from the module used by this solenoid as a single byte
    *
-   * @return The current value of all 8 solenoids on this module.
+   * @return The current value of all 8 solenoids on this module, including
+   *         values staged by the {@link OutputStage}.
    */
   public byte getAll() {
-    return SolenoidJNI.getAllSolenoids(m_ports[0]);
+    byte value = SolenoidJNI.getAllSolenoids(m_ports[0]);
+    if (OutputStage.isEnabled()) {
+      return (byte) OutputStage.getStagedSolenoids(m_moduleNumber, value & 0xff);
+    }
+    return value;
   }
 
   /**
@@ -0,0 +1,184 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tInstances;
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tResourceType;
+import edu.wpi.first.wpilibj.communication.UsageReporting;
+import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+
+/**
+ * TimedRobot implements the IterativeRobot robot program framework, but runs
+ * the periodic functions at a fixed period instead of whenever a packet
+ * arrives from the Driver Station.
+ *
+ * The TimedRobot class is intended to be subclassed by a user creating a robot
+ * program, exactly as with {@link IterativeRobot}: the same init() and
+ * periodic() functions are called when the robot changes mode and on each
+ * iteration. Changing a robot from IterativeRobot to TimedRobot only requires
+ * changing the class it extends.
+ *
+ * The loop is woken by a {@link Notifier}, which schedules each wakeup one
+ * period after the previous deadline so the loop does not drift. Mode changes
+ * are still read from the {@link DriverStation} at the start of each
+ * iteration, but the loop never waits for Driver Station packets, so it keeps
+ * running at its own rate if packets are delayed. If an iteration takes longer
+ * than the period, the missed wakeups are skipped rather than run back to
+ * back, and the overrun is counted and reported to the Driver Station.
+ */
+public class TimedRobot extends IterativeRobot {
+  /**
+   * Default loop period in seconds, the same rate as the Driver Station packets
+   */
+  public static final double kDefaultPeriod = 0.02;
+
+  private static final double LOOP_OVERRUN_MESSAGE_INTERVAL = 1.0;
+
+  private double m_period;
+  private final Notifier m_loop;
+  private final Object m_loopSem = new Object();
+  // Number of wakeups issued by the notifier, guarded by m_loopSem
+  private long m_wakeups = 0;
+  private long m_iterations = 0;
+  private volatile boolean m_running = false;
+
+  private volatile int m_overrunCount = 0;
+  private volatile double m_lastLoopTime = 0.0;
+  private double m_nextMessageTime = 0.0;
+
+  /**
+   * Constructor for TimedRobot using the default period.
+   */
+  public TimedRobot() {
+    this(kDefaultPeriod);
+  }
+
+  /**
+   * Constructor for TimedRobot.
+   *
+   * @param period Period in seconds at which the periodic functions are called
+   */
+  public TimedRobot(double period) {
+    setPeriod(period);
+    m_loop = new Notifier(new Runnable() {
+      @Override
+      public void run() {
+        synchronized (m_loopSem) {
+          m_wakeups++;
+          m_loopSem.notifyAll();
+        }
+      }
+    });
+  }
+
+  /**
+   * Provide an alternate "main loop" via startCompetition().
+   */
+  @Override
+  public void startCompetition() {
+    UsageReporting.report(tResourceType.kResourceType_Framework, tInstances.kFramework_Iterative);
+
+    robotInit();
+
+    // Tell the DS that the robot is ready to be enabled
+    FRCNetworkCommunicationsLibrary.FRCNetworkCommunicationObserveUserProgramStarting();
+
+    // loop forever, calling the appropriate mode-dependent function
+    LiveWindow.setEnabled(false);
+    m_running = true;
+    m_loop.startPeriodic(m_period);
+    while (true) {
+      waitForNextPeriod();
+
+      double start = Timer.getFreshFPGATimestamp();
+      loopFunc();
+      m_lastLoopTime = Timer.getFreshFPGATimestamp() - start;
+
+      if (m_lastLoopTime > m_period) {
+        m_overrunCount++;
+        reportOverrun();
+      }
+    }
+  }
+
+  /**
+   * Block until the notifier wakes the loop. Wakeups that were missed while
+   * the previous iteration was running are dropped.
+   */
+  private void waitForNextPeriod() {
+    synchronized (m_loopSem) {
+      while (m_wakeups == m_iterations) {
+        try {
+          m_loopSem.wait();
+        } catch (InterruptedException ex) {
+        }
+      }
+      m_iterations = m_wakeups;
+    }
+  }
+
+  /**
+   * The periodic functions are called on every iteration of the loop.
+   */
+  @Override
+  boolean nextPeriodReady() {
+    return true;
+  }
+
+  /**
+   * Set the period at which the periodic functions are called. If the loop is
+   * already running it is rescheduled with the new period.
+   *
+   * @param period Period in seconds
+   */
+  public void setPeriod(double period) {
+    if (period <= 0.0) {
+      throw new IllegalArgumentException("Loop period must be positive");
+    }
+    m_period = period;
+    if (m_running) {
+      m_loop.startPeriodic(period);
+    }
+  }
+
+  /**
+   * @return The period in seconds at which the periodic functions are called
+   */
+  public double getPeriod() {
+    return m_period;
+  }
+
+  /**
+   * @return The number of iterations of the loop that ran longer than the
+   *         period
+   */
+  public int getLoopOverrunCount() {
+    return m_overrunCount;
+  }
+
+  /**
+   * @return The time in seconds taken by the last iteration of the loop
+   */
+  public double getLastLoopTime() {
+    return m_lastLoopTime;
+  }
+
+  /**
+   * Report an overrun to the Driver Station, throttled so that a loop that
+   * overruns every iteration does not flood it.
+   */
+  private void reportOverrun() {
+    double currentTime = Timer.getFreshFPGATimestamp();
+    if (currentTime > m_nextMessageTime) {
+      DriverStation.reportWarning("Loop time of " + m_period + "s overrun, took "
+          + m_lastLoopTime + "s", false);
+      m_nextMessageTime = currentTime + LOOP_OVERRUN_MESSAGE_INTERVAL;
+    }
+  }
+}
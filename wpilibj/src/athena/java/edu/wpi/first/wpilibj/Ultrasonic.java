@@ -11,6 +11,7 @@ import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary.tReso
 import edu.wpi.first.wpilibj.communication.UsageReporting;
 import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
@@ -46,7 +47,7 @@ public class Ultrasonic extends SensorBase implements PIDSource, LiveWindowSenda
   // round robin task runs.
   private static final double kMaxUltrasonicTime = 0.1; // /< Max time (ms)
   // between readings.
-  private static final double kSpeedOfSoundInchesPerSec = 1130.0 * 12.0;
+  static final double kSpeedOfSoundInchesPerSec = 1130.0 * 12.0;
   private static Ultrasonic m_firstSensor = null; // head of the ultrasonic
   // sensor list
   private static boolean m_automaticEnabled = false; // automatic round robin
@@ -289,16 +290,24 @@ public class Ultrasonic extends SensorBase implements PIDSource, LiveWindowSenda
   public void ping() {
     setAutomaticMode(false); // turn off automatic round robin if pinging
     // single sensor
+    sendPing();
+  }
+
+  /**
+   * Reset the counter and send a ping without changing automatic mode. Used
+   * by {@link UltrasonicScheduler}, which does its own scheduling.
+   */
+  void sendPing() {
     m_counter.reset(); // reset the counter to zero (invalid data now)
     m_pingChannel.pulse(m_pingChannel.m_channel, (float) kPingTime); // do
-    // the
-    // ping
-    // to
-    // start
-    // getting
-    // a
-    // single
-    // range
+    // the ping to start getting a single range
+  }
+
+  /**
+   * @return The time in seconds of the last echo, if the range is valid
+   */
+  double getEchoTime() {
+    return m_counter.getPeriod();
   }
 
   /**
@@ -417,6 +426,7 @@ public class Ultrasonic extends SensorBase implements PIDSource, LiveWindowSenda
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -438,7 +448,7 @@ public class Ultrasonic extends SensorBase implements PIDSource, LiveWindowSenda
    */
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getRangeInches());
+      m_publisher.putNumber(m_table, "Value", getRangeInches());
     }
   }
 
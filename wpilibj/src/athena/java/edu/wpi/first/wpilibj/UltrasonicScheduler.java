@@ -0,0 +1,410 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import java.util.Arrays;
+import java.util.TreeMap;
+
+/**
+ * Pings a set of ultrasonic sensors from a background thread and keeps the
+ * latest range of each.
+ *
+ * {@link Ultrasonic#setAutomaticMode(boolean)} pings one sensor every 100 ms,
+ * so each of four sensors only updates every 400 ms. The scheduler instead
+ * pings the next sensor as soon as the last echo is back, checking the echo
+ * counters every millisecond, and can ping sensors that do not hear each
+ * other at the same time. How the sensors are pinged is chosen with
+ * {@link Mode}:
+ * <ul>
+ * <li>{@link Mode#kRoundRobin} pings one sensor at a time, in the order they
+ * were added.</li>
+ * <li>{@link Mode#kGrouped} pings all sensors of a group at once, one group at
+ * a time in order of group number. Sensors facing different ways can share a
+ * group.</li>
+ * <li>{@link Mode#kFastest} pings each sensor again as soon as its own echo is
+ * back, for sensors that cannot hear each other at all.</li>
+ * </ul>
+ * A ping whose echo does not come back within {@link #kEchoTimeout} is given
+ * up on. Once a sensor's echo is back the scheduler waits for the settle time
+ * before pinging near it again, so late reflections are not taken as the next
+ * echo.
+ *
+ * Each new range is published as a new immutable set of ranges, so readers
+ * never lock, and {@link #getRanges(double[], double[])} returns a consistent
+ * set.
+ */
+public class UltrasonicScheduler {
+  /**
+   * How the sensors are pinged
+   */
+  public static enum Mode {
+    kRoundRobin, kGrouped, kFastest
+  }
+
+  /**
+   * A sensor being pinged. {@link Ultrasonic} is used on the robot; tests can
+   * supply their own.
+   */
+  public interface Sensor {
+    /**
+     * Clear the last echo and send a ping.
+     */
+    void ping();
+
+    /**
+     * @return true once the echo of the last ping has been timed
+     */
+    boolean isEchoComplete();
+
+    /**
+     * @return The round trip time of the last echo in seconds
+     */
+    double getEchoTime();
+  }
+
+  /**
+   * The latest range of every sensor. Never changed once published.
+   */
+  private static class Ranges {
+    final double[] ranges;
+    final double[] timestamps;
+
+    Ranges(double[] ranges, double[] timestamps) {
+      this.ranges = ranges;
+      this.timestamps = timestamps;
+    }
+  }
+
+  /**
+   * Time in seconds to wait for an echo before giving up on a ping
+   */
+  public static final double kEchoTimeout = 0.06;
+
+  /**
+   * Default time in seconds to wait after an echo before pinging again
+   */
+  public static final double kDefaultSettleTime = 0.005;
+
+  private static final double kPollPeriod = 0.001;
+
+  private Mode m_mode;
+  private volatile double m_settleTime = kDefaultSettleTime;
+  private Sensor[] m_sensors = new Sensor[0];
+  private int[] m_groups = new int[0];
+  private Ultrasonic m_ultrasonic = null;
+
+  // Scheduling state, only used by the scheduler thread. Each step of the
+  // schedule is the sensors pinged together.
+  private int[][] m_schedule = null;
+  private int m_step = -1;
+  private boolean m_stepActive = false;
+  private double m_stepDone = Double.NEGATIVE_INFINITY;
+  private boolean[] m_pending = new boolean[0];
+  private double[] m_pingTimes = new double[0];
+  private double[] m_doneTimes = new double[0];
+
+  // Latest ranges, replaced as a whole each time a range is measured
+  private volatile Ranges m_latest = new Ranges(new double[0], new double[0]);
+  private volatile long m_rangeCount = 0;
+  private volatile long m_timeoutCount = 0;
+
+  private final PeriodicSampler m_sampler =
+      new PeriodicSampler("UltrasonicScheduler", Thread.NORM_PRIORITY,
+          new PeriodicSampler.Task() {
+            @Override
+            public void run(double timestamp) {
+              poll(timestamp);
+            }
+          });
+
+  /**
+   * Create a scheduler.
+   *
+   * @param mode How the sensors are pinged
+   */
+  public UltrasonicScheduler(Mode mode) {
+    setMode(mode);
+  }
+
+  /**
+   * Set how the sensors are pinged. This can only be changed while the
+   * scheduler is stopped.
+   *
+   * @param mode How the sensors are pinged
+   */
+  public synchronized void setMode(Mode mode) {
+    if (mode == null) {
+      throw new NullPointerException("mode");
+    }
+    checkStopped();
+    m_mode = mode;
+    m_schedule = null;
+  }
+
+  /**
+   * @return How the sensors are pinged
+   */
+  public Mode getMode() {
+    return m_mode;
+  }
+
+  /**
+   * Set the time to wait after an echo before pinging again.
+   *
+   * @param settleTime The time in seconds
+   */
+  public void setSettleTime(double settleTime) {
+    m_settleTime = settleTime;
+  }
+
+  /**
+   * Add a sensor in its own group.
+   *
+   * @param sensor The sensor
+   * @return The index used to read the sensor's range
+   */
+  public int add(Ultrasonic sensor) {
+    return add(sensor, m_sensors.length);
+  }
+
+  /**
+   * Add a sensor. This stops the sensors' automatic mode when the scheduler is
+   * started.
+   *
+   * @param sensor The sensor
+   * @param group The group the sensor is pinged with in {@link Mode#kGrouped}
+   * @return The index used to read the sensor's range
+   */
+  public synchronized int add(final Ultrasonic sensor, int group) {
+    int index = add(new Sensor() {
+      @Override
+      public void ping() {
+        sensor.sendPing();
+      }
+
+      @Override
+      public boolean isEchoComplete() {
+        return sensor.isRangeValid();
+      }
+
+      @Override
+      public double getEchoTime() {
+        return sensor.getEchoTime();
+      }
+    }, group);
+    m_ultrasonic = sensor;
+    return index;
+  }
+
+  /**
+   * Add a sensor. Sensors can only be added while the scheduler is stopped.
+   *
+   * @param sensor The sensor
+   * @param group The group the sensor is pinged with in {@link Mode#kGrouped}
+   * @return The index used to read the sensor's range
+   */
+  public synchronized int add(Sensor sensor, int group) {
+    checkStopped();
+    int index = m_sensors.length;
+    int size = index + 1;
+    m_sensors = Arrays.copyOf(m_sensors, size);
+    m_groups = Arrays.copyOf(m_groups, size);
+    m_pending = Arrays.copyOf(m_pending, size);
+    m_pingTimes = Arrays.copyOf(m_pingTimes, size);
+    m_doneTimes = Arrays.copyOf(m_doneTimes, size);
+    m_latest = new Ranges(Arrays.copyOf(m_latest.ranges, size),
+        Arrays.copyOf(m_latest.timestamps, size));
+    m_sensors[index] = sensor;
+    m_groups[index] = group;
+    m_doneTimes[index] = Double.NEGATIVE_INFINITY;
+    m_schedule = null;
+    return index;
+  }
+
+  /**
+   * Start pinging the sensors.
+   */
+  public synchronized void start() {
+    if (m_sampler.isRunning()) {
+      return;
+    }
+    if (m_ultrasonic != null) {
+      m_ultrasonic.setAutomaticMode(false);
+    }
+    m_sampler.start(kPollPeriod);
+  }
+
+  /**
+   * Stop pinging the sensors. The latest ranges are kept.
+   */
+  public synchronized void stop() {
+    m_sampler.stop();
+  }
+
+  /**
+   * @param index The index of the sensor
+   * @return The latest range in inches, or 0 if no echo has come back yet
+   */
+  public double getRangeInches(int index) {
+    Ranges latest = m_latest;
+    checkIndex(latest, index);
+    return latest.ranges[index];
+  }
+
+  /**
+   * @param index The index of the sensor
+   * @return The latest range in millimeters, or 0 if no echo has come back yet
+   */
+  public double getRangeMM(int index) {
+    return getRangeInches(index) * 25.4;
+  }
+
+  /**
+   * @param index The index of the sensor
+   * @return The FPGA time in seconds the ping of the latest range was sent at,
+   *         or 0 if no echo has come back yet
+   */
+  public double getTimestamp(int index) {
+    Ranges latest = m_latest;
+    checkIndex(latest, index);
+    return latest.timestamps[index];
+  }
+
+  /**
+   * Get the latest range of every sensor.
+   *
+   * @param ranges Array to store the ranges in inches in, by sensor index
+   * @param timestamps Array to store the times the pings were sent at in
+   */
+  public void getRanges(double[] ranges, double[] timestamps) {
+    Ranges latest = m_latest;
+    int count = Math.min(Math.min(ranges.length, timestamps.length), latest.ranges.length);
+    System.arraycopy(latest.ranges, 0, ranges, 0, count);
+    System.arraycopy(latest.timestamps, 0, timestamps, 0, count);
+  }
+
+  /**
+   * @return The number of ranges measured
+   */
+  public long getRangeCount() {
+    return m_rangeCount;
+  }
+
+  /**
+   * @return The number of pings whose echo did not come back in time
+   */
+  public long getTimeoutCount() {
+    return m_timeoutCount;
+  }
+
+  /**
+   * Check the echoes and send the pings that are due.
+   *
+   * @param now The current time in seconds
+   */
+  void poll(double now) {
+    if (m_schedule == null) {
+      m_schedule = buildSchedule();
+    }
+    if (m_mode == Mode.kFastest) {
+      for (int i = 0; i < m_sensors.length; i++) {
+        if (m_pending[i]) {
+          check(i, now);
+        } else if (now - m_doneTimes[i] >= m_settleTime) {
+          ping(i, now);
+        }
+      }
+      return;
+    }
+    if (m_schedule.length == 0) {
+      return;
+    }
+
+    if (m_stepActive) {
+      boolean pending = false;
+      for (int i : m_schedule[m_step]) {
+        if (m_pending[i]) {
+          check(i, now);
+          pending |= m_pending[i];
+        }
+      }
+      if (pending) {
+        return;
+      }
+      m_stepActive = false;
+      m_stepDone = now;
+    }
+    if (now - m_stepDone < m_settleTime) {
+      return;
+    }
+    m_step = (m_step + 1) % m_schedule.length;
+    m_stepActive = true;
+    for (int i : m_schedule[m_step]) {
+      ping(i, now);
+    }
+  }
+
+  private void ping(int index, double now) {
+    m_sensors[index].ping();
+    m_pending[index] = true;
+    m_pingTimes[index] = now;
+  }
+
+  private void check(int index, double now) {
+    Sensor sensor = m_sensors[index];
+    if (sensor.isEchoComplete()) {
+      double range = sensor.getEchoTime() * Ultrasonic.kSpeedOfSoundInchesPerSec / 2.0;
+      Ranges latest = m_latest;
+      double[] ranges = latest.ranges.clone();
+      double[] timestamps = latest.timestamps.clone();
+      ranges[index] = range;
+      timestamps[index] = m_pingTimes[index];
+      m_latest = new Ranges(ranges, timestamps);
+      m_rangeCount++;
+    } else if (now - m_pingTimes[index] > kEchoTimeout) {
+      m_timeoutCount++;
+    } else {
+      return;
+    }
+    m_pending[index] = false;
+    m_doneTimes[index] = now;
+  }
+
+  /**
+   * @return The sensors pinged together in each step
+   */
+  private int[][] buildSchedule() {
+    if (m_mode != Mode.kGrouped) {
+      int[][] schedule = new int[m_sensors.length][];
+      for (int i = 0; i < m_sensors.length; i++) {
+        schedule[i] = new int[] {i};
+      }
+      return schedule;
+    }
+    TreeMap<Integer, int[]> groups = new TreeMap<Integer, int[]>();
+    for (int i = 0; i < m_sensors.length; i++) {
+      int[] members = groups.get(m_groups[i]);
+      members = members == null ? new int[1] : Arrays.copyOf(members, members.length + 1);
+      members[members.length - 1] = i;
+      groups.put(m_groups[i], members);
+    }
+    return groups.values().toArray(new int[groups.size()][]);
+  }
+
+  private void checkStopped() {
+    if (m_sampler.isRunning()) {
+      throw new IllegalStateException("Ultrasonic scheduler can't be changed while running");
+    }
+  }
+
+  private static void checkIndex(Ranges latest, int index) {
+    if (index < 0 || index >= latest.ranges.length) {
+      throw new IndexOutOfBoundsException("Invalid ultrasonic index: " + index);
+    }
+  }
+}
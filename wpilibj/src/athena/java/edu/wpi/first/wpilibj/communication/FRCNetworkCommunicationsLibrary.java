@@ -213,6 +213,26 @@ public class FRCNetworkCommunicationsLibrary extends JNIWrapper {
 
   public static native short[] HALGetJoystickPOVs(byte joystickNum);
 
+  /**
+   * Copy the axes of a joystick into a direct buffer without allocating.
+   *
+   * @param joystickNum The joystick port
+   * @param axes A direct buffer in native byte order with room for
+   *        kMaxJoystickAxes shorts
+   * @return The number of axes copied
+   */
+  public static native int HALGetJoystickAxesBuffer(byte joystickNum, ByteBuffer axes);
+
+  /**
+   * Copy the POVs of a joystick into a direct buffer without allocating.
+   *
+   * @param joystickNum The joystick port
+   * @param povs A direct buffer in native byte order with room for
+   *        kMaxJoystickPOVs shorts
+   * @return The number of POVs copied
+   */
+  public static native int HALGetJoystickPOVsBuffer(byte joystickNum, ByteBuffer povs);
+
   public static native int HALGetJoystickButtons(byte joystickNum, ByteBuffer count);
 
   public static native int HALSetJoystickOutputs(byte joystickNum, int outputs, short leftRumble,
@@ -8,6 +8,7 @@
 package edu.wpi.first.wpilibj.hal;
 
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
 
 public class I2CJNI extends JNIWrapper {
   public static native void i2CInitialize(byte port);
@@ -20,5 +21,12 @@ public class I2CJNI extends JNIWrapper {
   public static native int i2CRead(byte port, byte address, ByteBuffer dataRecieved,
       byte receiveSize);
 
+  /**
+   * Run a list of transactions back to back. See I2CBatch for the layout of
+   * the operations buffer.
+   */
+  public static native void i2CTransactionBatch(byte port, ByteBuffer operations, int count,
+      ByteBuffer data, IntBuffer results);
+
   public static native void i2CClose(byte port);
 }
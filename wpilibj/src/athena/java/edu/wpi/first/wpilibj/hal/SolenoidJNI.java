@@ -16,6 +16,8 @@ public class SolenoidJNI extends JNIWrapper {
 
   public static native void setSolenoid(long port, boolean on);
 
+  public static native void setSolenoids(long port, byte value, byte mask);
+
   public static native boolean getSolenoid(long port);
 
   public static native byte getAllSolenoids(long port);
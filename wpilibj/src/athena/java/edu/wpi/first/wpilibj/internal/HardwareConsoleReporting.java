@@ -0,0 +1,18 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.internal;
+
+import edu.wpi.first.wpilibj.ConsoleReporting;
+import edu.wpi.first.wpilibj.ErrorReporter;
+
+public class HardwareConsoleReporting implements ConsoleReporting.Interface {
+  @Override
+  public void println(String message) {
+    ErrorReporter.print(message);
+  }
+}
@@ -0,0 +1,39 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+/**
+ * Support for printing informational messages to the console. On the robot
+ * the messages are printed by a background thread so that the caller is not
+ * stalled; if no implementation has been set they are printed directly to
+ * System.out.
+ */
+public class ConsoleReporting {
+  private static Interface impl;
+
+  public static void SetImplementation(Interface i) {
+    impl = i;
+  }
+
+  /**
+   * Print a message to the console.
+   *
+   * @param message The message to print
+   */
+  public static void println(String message) {
+    if (impl != null) {
+      impl.println(message);
+    } else {
+      System.out.println(message);
+    }
+  }
+
+  public interface Interface {
+    void println(String message);
+  }
+}
@@ -7,18 +7,66 @@
 
 package edu.wpi.first.wpilibj;
 
+import java.util.concurrent.CompletableFuture;
+
 import edu.wpi.first.wpilibj.interfaces.Gyro;
 import edu.wpi.first.wpilibj.livewindow.LiveWindow;
+import edu.wpi.first.wpilibj.livewindow.LiveWindowPublisher;
 import edu.wpi.first.wpilibj.livewindow.LiveWindowSendable;
 import edu.wpi.first.wpilibj.tables.ITable;
 
 /**
  * GyroBase is the common base class for Gyro implementations such as
  * AnalogGyro.
+ *
+ * Calibrating a gyro takes several seconds. {@link #calibrateInBackground()}
+ * runs the calibration on its own thread and returns a future that completes
+ * when it is done, so the robot program can go on starting up and several
+ * gyros can calibrate at the same time. Until the first calibration is done
+ * the angle is not available and is returned as NaN; while a later
+ * calibration runs the angle holds the value it had when it started, and
+ * carries on from that value afterwards.
  */
 public abstract class GyroBase extends SensorBase implements Gyro, PIDSource, LiveWindowSendable {
+  /**
+   * Largest rate in degrees per second at which the gyro is considered
+   * stationary for automatic recalibration
+   */
+  public static final double kStationaryRate = 0.5;
+
+  /**
+   * Time in seconds the gyro must be stationary before it is automatically
+   * recalibrated
+   */
+  public static final double kStationaryTime = 2.0;
+
+  /**
+   * Minimum time in seconds between automatic recalibrations
+   */
+  public static final double kRecalibrationInterval = 60.0;
+
+  /**
+   * Time in seconds the bias is measured for in an automatic recalibration
+   */
+  public static final double kRecalibrationSampleTime = 5.0;
+
+  private static final long kMonitorPeriodMs = 100;
+
   private PIDSourceType m_pidSource = PIDSourceType.kDisplacement;
 
+  private volatile CompletableFuture<Void> m_calibration = CompletableFuture.completedFuture(null);
+  // Angle held while calibrating, NaN before the first calibration
+  private volatile double m_heldAngle = Double.NaN;
+  private volatile double m_angleOffset = 0.0;
+  private boolean m_autoRecalibrate = false;
+  private Thread m_monitor = null;
+  // Cleared to abandon the bias measurement in progress
+  private volatile boolean m_measuring = false;
+  // Automatic recalibration state, only used by the monitor thread
+  private double m_stationarySince = Double.NaN;
+  private double m_lastCalibration = Double.NaN;
+  private double m_measurementStart = Double.NaN;
+
   /**
    * {@inheritDoc}
    */
@@ -39,6 +87,232 @@ public abstract class GyroBase extends SensorBase implements Gyro, PIDSource, Li
    */
   public abstract double getRate();
 
+  /**
+   * Calibrate the gyro on a background thread. Does nothing if a calibration
+   * is already running.
+   *
+   * @return A future that completes when the calibration is done
+   */
+  public CompletableFuture<Void> calibrateInBackground() {
+    return calibrateInBackground(true);
+  }
+
+  /**
+   * Calibrate the gyro on a background thread for the first time. Subclass
+   * constructors call this instead of calibrate() to return before the gyro
+   * is calibrated; the angle is NaN until the calibration is done.
+   *
+   * @return A future that completes when the calibration is done
+   */
+  protected CompletableFuture<Void> startFirstCalibration() {
+    return calibrateInBackground(false);
+  }
+
+  private synchronized CompletableFuture<Void> calibrateInBackground(boolean hold) {
+    if (!m_calibration.isDone()) {
+      return m_calibration;
+    }
+    m_measuring = false;
+    m_heldAngle = hold && isCalibrated() ? getAngle() : Double.NaN;
+    final CompletableFuture<Void> calibration = new CompletableFuture<Void>();
+    m_calibration = calibration;
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          calibrate();
+          double held = m_heldAngle;
+          m_angleOffset = Double.isNaN(held) ? 0.0 : held;
+          calibration.complete(null);
+        } catch (RuntimeException ex) {
+          calibration.completeExceptionally(ex);
+        }
+      }
+    }, "GyroCalibration");
+    thread.setDaemon(true);
+    thread.start();
+    return calibration;
+  }
+
+  /**
+   * @return A future that completes when the current calibration is done,
+   *         which has already completed if no calibration is running
+   */
+  public CompletableFuture<Void> getCalibration() {
+    return m_calibration;
+  }
+
+  /**
+   * @return true if the gyro is not calibrating and its last calibration
+   *         succeeded
+   */
+  public boolean isCalibrated() {
+    CompletableFuture<Void> calibration = m_calibration;
+    return calibration.isDone() && !calibration.isCompletedExceptionally();
+  }
+
+  /**
+   * Recalibrate the gyro in the background whenever the robot is disabled
+   * and the gyro has been stationary for {@link #kStationaryTime}, at most
+   * once every {@link #kRecalibrationInterval}. This corrects drift from the
+   * gyro warming up while the robot waits for a match.
+   *
+   * A recalibration measures the bias for {@link #kRecalibrationSampleTime}
+   * while the angle goes on being measured with the current calibration, and
+   * only then applies it. If the robot is enabled, the gyro moves or the gyro
+   * is reset before the measurement is done, it is abandoned and the current
+   * calibration is kept. Gyros that can't measure their bias without
+   * disturbing the angle are not recalibrated automatically.
+   *
+   * @param enable true to recalibrate automatically
+   */
+  public synchronized void setAutoRecalibrate(boolean enable) {
+    m_autoRecalibrate = enable;
+    if (enable && m_monitor == null) {
+      m_monitor = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          monitor();
+        }
+      }, "GyroRecalibration");
+      m_monitor.setDaemon(true);
+      m_monitor.setPriority(Thread.MIN_PRIORITY);
+      m_monitor.start();
+    }
+  }
+
+  /**
+   * @return true once the first calibration is done, even if the gyro is
+   *         being recalibrated
+   */
+  public boolean hasCalibration() {
+    return isCalibrated() || !Double.isNaN(m_heldAngle);
+  }
+
+  /**
+   * Get the angle to report while the gyro is calibrating. Subclasses return
+   * this from getAngle() when {@link #isCalibrated()} is false.
+   *
+   * @return The angle when the calibration started, or NaN during the first
+   *         calibration
+   */
+  protected double getUncalibratedAngle() {
+    return m_heldAngle;
+  }
+
+  /**
+   * Get the angle the gyro had before it was last recalibrated. Subclasses add
+   * this to the angle they measure, so the angle carries on from where it was.
+   *
+   * @return The angle offset in degrees
+   */
+  protected double getAngleOffset() {
+    return m_angleOffset;
+  }
+
+  /**
+   * Forget the angle offset. Subclasses call this from reset().
+   */
+  protected void clearAngleOffset() {
+    m_measuring = false;
+    m_angleOffset = 0.0;
+    if (!Double.isNaN(m_heldAngle)) {
+      m_heldAngle = 0.0;
+    }
+  }
+
+  /**
+   * Start measuring the bias of the gyro for an automatic recalibration. The
+   * angle must go on being measured with the current calibration while the
+   * bias is measured.
+   *
+   * @return false if the gyro can't measure its bias without disturbing the
+   *         angle
+   */
+  protected boolean startBiasMeasurement() {
+    return false;
+  }
+
+  /**
+   * Calibrate the gyro with the bias measured since
+   * {@link #startBiasMeasurement()}, and start measuring the angle from zero.
+   * Called with the gyro locked.
+   *
+   * @return false if the measurement could not be used and the current
+   *         calibration was kept
+   */
+  protected boolean applyBiasMeasurement() {
+    return false;
+  }
+
+  /**
+   * Move the automatic recalibration on. Called periodically by the monitor
+   * thread, or directly by tests.
+   *
+   * @param now The current time in seconds
+   * @param disabled true if the robot is disabled
+   */
+  void checkRecalibration(double now, boolean disabled) {
+    boolean calibrated = isCalibrated();
+    boolean stationary = disabled && calibrated && Math.abs(getRate()) <= kStationaryRate;
+    if (Double.isNaN(m_lastCalibration) || !calibrated) {
+      m_lastCalibration = now;
+    }
+    if (!Double.isNaN(m_measurementStart)) {
+      if (!stationary || !m_measuring) {
+        // Nothing has been changed yet, so the current calibration is kept
+        m_measuring = false;
+        m_measurementStart = Double.NaN;
+        m_stationarySince = Double.NaN;
+      } else if (now - m_measurementStart >= kRecalibrationSampleTime) {
+        m_measurementStart = Double.NaN;
+        m_stationarySince = Double.NaN;
+        m_lastCalibration = now;
+        finishBiasMeasurement();
+      }
+    } else if (!stationary) {
+      m_stationarySince = Double.NaN;
+    } else if (Double.isNaN(m_stationarySince)) {
+      m_stationarySince = now;
+    } else if (now - m_stationarySince >= kStationaryTime
+        && now - m_lastCalibration >= kRecalibrationInterval) {
+      m_measuring = true;
+      if (startBiasMeasurement()) {
+        m_measurementStart = now;
+      } else {
+        m_measuring = false;
+        m_lastCalibration = now;
+      }
+    }
+  }
+
+  private synchronized void finishBiasMeasurement() {
+    if (!m_measuring) {
+      return;
+    }
+    m_measuring = false;
+    double angle = getAngle();
+    if (applyBiasMeasurement()) {
+      m_angleOffset = angle;
+    }
+  }
+
+  private void monitor() {
+    while (true) {
+      synchronized (this) {
+        if (!m_autoRecalibrate) {
+          m_monitor = null;
+          return;
+        }
+      }
+      checkRecalibration(Timer.getFPGATimestamp(), RobotState.isDisabled());
+      try {
+        Thread.sleep(kMonitorPeriodMs);
+      } catch (InterruptedException ex) {
+      }
+    }
+  }
+
   /**
    * Set which parameter of the gyro you are using as a process control
    * variable. The Gyro class supports the rate and displacement parameters
@@ -83,6 +357,7 @@ public abstract class GyroBase extends SensorBase implements Gyro, PIDSource, Li
   }
 
   private ITable m_table;
+  private final LiveWindowPublisher m_publisher = new LiveWindowPublisher();
 
   /**
    * {@inheritDoc}
@@ -107,7 +382,7 @@ public abstract class GyroBase extends SensorBase implements Gyro, PIDSource, Li
   @Override
   public void updateTable() {
     if (m_table != null) {
-      m_table.putNumber("Value", getAngle());
+      m_publisher.putNumber(m_table, "Value", getAngle());
     }
   }
 
@@ -12,6 +12,10 @@ import edu.wpi.first.wpilibj.util.BaseSystemNotInitializedException;
 public class Timer {
   private static StaticInterface impl;
 
+  // Thread that currently owns a cycle snapshot, or null if none is active.
+  private static volatile Thread m_cycleThread = null;
+  private static double m_cycleTimestamp;
+
   public static void SetImplementation(StaticInterface ti) {
     impl = ti;
   }
@@ -20,9 +24,29 @@ public class Timer {
    * Return the system clock time in seconds. Return the time from the FPGA
    * hardware clock in seconds since the FPGA started.
    *
+   * If a cycle snapshot is active on the calling thread (see
+   * {@link #setCycleTimestamp(double)}), the time captured at the start of the
+   * cycle is returned instead of reading the hardware clock again. Use
+   * {@link #getFreshFPGATimestamp()} when the current time is required, such
+   * as when waiting for a time to pass. Timer objects always read the hardware
+   * clock.
+   *
    * @return Robot running time in seconds.
    */
   public static double getFPGATimestamp() {
+    if (m_cycleThread == Thread.currentThread()) {
+      return m_cycleTimestamp;
+    }
+    return getFreshFPGATimestamp();
+  }
+
+  /**
+   * Return the system clock time in seconds, always reading the FPGA hardware
+   * clock. Unlike {@link #getFPGATimestamp()} this ignores any cycle snapshot.
+   *
+   * @return Robot running time in seconds.
+   */
+  public static double getFreshFPGATimestamp() {
     if (impl != null) {
       return impl.getFPGATimestamp();
     } else {
@@ -30,6 +54,26 @@ public class Timer {
     }
   }
 
+  /**
+   * Capture a timestamp to be returned by {@link #getFPGATimestamp()} on the
+   * calling thread until {@link #clearCycleTimestamp()} is called. Other
+   * threads continue to read the hardware clock.
+   *
+   * @param timestamp The FPGA time, in seconds, at the start of the cycle.
+   */
+  static void setCycleTimestamp(double timestamp) {
+    m_cycleTimestamp = timestamp;
+    m_cycleThread = Thread.currentThread();
+  }
+
+  /**
+   * Stop serving the cycle timestamp captured by
+   * {@link #setCycleTimestamp(double)}.
+   */
+  static void clearCycleTimestamp() {
+    m_cycleThread = null;
+  }
+
   /**
    * Return the approximate match time The FMS does not currently send the
    * official match time to the robots This returns the time since the enable
@@ -4,6 +4,8 @@
  */
 package edu.wpi.first.wpilibj.livewindow;
 
+import edu.wpi.first.wpilibj.ConsoleReporting;
+import edu.wpi.first.wpilibj.Timer;
 import edu.wpi.first.wpilibj.command.Scheduler;
 import edu.wpi.first.wpilibj.networktables.NetworkTable;
 import edu.wpi.first.wpilibj.tables.ITable;
@@ -61,6 +63,18 @@ public class LiveWindow {
   private static boolean liveWindowEnabled = false;
   private static boolean firstTime = true;
 
+  /**
+   * Default time in seconds that {@link #run()} may spend updating sensors
+   */
+  public static final double kDefaultUpdateBudget = 0.005;
+
+  private static double updateEpsilon = 0.0;
+  private static double updateBudget = kDefaultUpdateBudget;
+  private static int nextSensor = 0;
+  static long publishedUpdates = 0;
+  static long skippedUpdates = 0;
+  private static long deferredUpdates = 0;
+
   /**
    * Initialize all the LiveWindow elements the first time we enter LiveWindow
    * mode. By holding off creating the NetworkTable entries, it allows them to
@@ -69,7 +83,7 @@ public class LiveWindow {
    * names from users calling addActuator and addSensor.
    */
   private static void initializeLiveWindowComponents() {
-    System.out.println("Initializing the components first time");
+    ConsoleReporting.println("Initializing the components first time");
     livewindowTable = NetworkTable.getTable("LiveWindow");
     statusTable = livewindowTable.getSubTable("~STATUS~");
     for (Enumeration e = components.keys(); e.hasMoreElements();) {
@@ -77,7 +91,7 @@ public class LiveWindow {
       LiveWindowComponent c = (LiveWindowComponent) components.get(component);
       String subsystem = c.getSubsystem();
       String name = c.getName();
-      System.out.println("Initializing table for '" + subsystem + "' '" + name + "'");
+      ConsoleReporting.println("Initializing table for '" + subsystem + "' '" + name + "'");
       livewindowTable.getSubTable(subsystem).putString("~TYPE~", "LW Subsystem");
       ITable table = livewindowTable.getSubTable(subsystem).getSubTable(name);
       table.putString("~TYPE~", component.getSmartDashboardType());
@@ -103,7 +117,7 @@ public class LiveWindow {
   public static void setEnabled(boolean enabled) {
     if (liveWindowEnabled != enabled) {
       if (enabled) {
-        System.out.println("Starting live window mode.");
+        ConsoleReporting.println("Starting live window mode.");
         if (firstTime) {
           initializeLiveWindowComponents();
           firstTime = false;
@@ -115,7 +129,7 @@ public class LiveWindow {
           component.startLiveWindowMode();
         }
       } else {
-        System.out.println("stopping live window mode.");
+        ConsoleReporting.println("stopping live window mode.");
         for (Enumeration e = components.keys(); e.hasMoreElements();) {
           LiveWindowSendable component = (LiveWindowSendable) e.nextElement();
           component.stopLiveWindowMode();
@@ -160,16 +174,98 @@ public class LiveWindow {
   }
 
   /**
-   * Puts all sensor values on the live window.
+   * Puts sensor values on the live window. The sensors are updated round-robin,
+   * starting after the last one updated by the previous call, until all of them
+   * have been updated or the update budget has been used up. Sensors that are
+   * not reached are updated first on the next call.
    */
   private static void updateValues() {
-    // TODO: gross - needs to be sped up
-    for (int i = 0; i < sensors.size(); i++) {
-      LiveWindowSendable lws = (LiveWindowSendable) sensors.elementAt(i);
+    int count = sensors.size();
+    double deadline = 0.0;
+    if (updateBudget > 0.0) {
+      deadline = Timer.getFreshFPGATimestamp() + updateBudget;
+    }
+    int updated = 0;
+    while (updated < count) {
+      if (nextSensor >= count) {
+        nextSensor = 0;
+      }
+      LiveWindowSendable lws = (LiveWindowSendable) sensors.elementAt(nextSensor++);
       lws.updateTable();
+      updated++;
+      if (updateBudget > 0.0 && Timer.getFreshFPGATimestamp() > deadline) {
+        break;
+      }
     }
+    deferredUpdates += count - updated;
     // TODO: Add actuators?
-    // TODO: Add better rate limiting.
+  }
+
+  /**
+   * Set the amount a number must change by before it is published again.
+   * Booleans and strings are always published when they change.
+   *
+   * @param epsilon The minimum change; 0 publishes every change
+   */
+  public static void setUpdateEpsilon(double epsilon) {
+    updateEpsilon = epsilon;
+  }
+
+  /**
+   * @return The amount a number must change by before it is published again
+   */
+  public static double getUpdateEpsilon() {
+    return updateEpsilon;
+  }
+
+  /**
+   * Set the time that each call to {@link #run()} may spend updating sensors.
+   * At least one sensor is updated per call regardless of the budget.
+   *
+   * @param seconds The budget in seconds; 0 updates every sensor on every call
+   */
+  public static void setUpdateBudget(double seconds) {
+    updateBudget = seconds;
+  }
+
+  /**
+   * @return The time in seconds that each call to {@link #run()} may spend
+   *         updating sensors
+   */
+  public static double getUpdateBudget() {
+    return updateBudget;
+  }
+
+  /**
+   * @return The number of values published to the tables
+   */
+  public static long getPublishedUpdateCount() {
+    return publishedUpdates;
+  }
+
+  /**
+   * @return The number of values that were not published because they had not
+   *         changed
+   */
+  public static long getSkippedUpdateCount() {
+    return skippedUpdates;
+  }
+
+  /**
+   * @return The number of sensor updates put off to a later call of
+   *         {@link #run()} because the update budget was used up
+   */
+  public static long getDeferredUpdateCount() {
+    return deferredUpdates;
+  }
+
+  /**
+   * Reset the published, skipped and deferred update counts to zero.
+   */
+  public static void resetUpdateCounts() {
+    publishedUpdates = 0;
+    skippedUpdates = 0;
+    deferredUpdates = 0;
   }
 
   /**
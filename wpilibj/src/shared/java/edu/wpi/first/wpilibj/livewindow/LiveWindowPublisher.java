@@ -0,0 +1,130 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.livewindow;
+
+import java.util.Arrays;
+
+import edu.wpi.first.wpilibj.tables.ITable;
+
+/**
+ * Publishes the values of a LiveWindow component to its table only when they
+ * change. Each component keeps one publisher and sends all of its values
+ * through it from updateTable().
+ *
+ * A number is only published when it differs from the last published value by
+ * more than {@link LiveWindow#getUpdateEpsilon()}; booleans and strings are
+ * published when they are not equal to the last published value. All values
+ * are published again when the component is given a new table.
+ */
+public class LiveWindowPublisher {
+  private ITable m_table;
+  private String[] m_keys = new String[4];
+  private double[] m_numbers = new double[4];
+  private Object[] m_objects = new Object[4];
+  private boolean[] m_published = new boolean[4];
+  private int m_count = 0;
+
+  /**
+   * Put a number in the table if it has changed since it was last published.
+   *
+   * @param table The component's table
+   * @param key The key of the value
+   * @param value The value
+   */
+  public void putNumber(ITable table, String key, double value) {
+    int slot = slot(table, key);
+    if (m_published[slot]
+        && Math.abs(value - m_numbers[slot]) <= LiveWindow.getUpdateEpsilon()) {
+      LiveWindow.skippedUpdates++;
+      return;
+    }
+    table.putNumber(key, value);
+    m_numbers[slot] = value;
+    m_published[slot] = true;
+    LiveWindow.publishedUpdates++;
+  }
+
+  /**
+   * Put a boolean in the table if it has changed since it was last published.
+   *
+   * @param table The component's table
+   * @param key The key of the value
+   * @param value The value
+   */
+  public void putBoolean(ITable table, String key, boolean value) {
+    int slot = slot(table, key);
+    if (m_published[slot] && (m_numbers[slot] != 0.0) == value) {
+      LiveWindow.skippedUpdates++;
+      return;
+    }
+    table.putBoolean(key, value);
+    m_numbers[slot] = value ? 1.0 : 0.0;
+    m_published[slot] = true;
+    LiveWindow.publishedUpdates++;
+  }
+
+  /**
+   * Put a string in the table if it has changed since it was last published.
+   *
+   * @param table The component's table
+   * @param key The key of the value
+   * @param value The value
+   */
+  public void putString(ITable table, String key, String value) {
+    int slot = slot(table, key);
+    if (m_published[slot] && value.equals(m_objects[slot])) {
+      LiveWindow.skippedUpdates++;
+      return;
+    }
+    table.putString(key, value);
+    m_objects[slot] = value;
+    m_published[slot] = true;
+    LiveWindow.publishedUpdates++;
+  }
+
+  /**
+   * Forget the published values so that they are all published again on the
+   * next update.
+   */
+  public void reset() {
+    for (int i = 0; i < m_count; i++) {
+      m_published[i] = false;
+    }
+  }
+
+  /**
+   * Find the slot for a key, adding it the first time it is seen. Keys are
+   * almost always string literals, so they are compared by reference first.
+   */
+  private int slot(ITable table, String key) {
+    if (table != m_table) {
+      m_table = table;
+      reset();
+    }
+    for (int i = 0; i < m_count; i++) {
+      if (m_keys[i] == key) {
+        return i;
+      }
+    }
+    for (int i = 0; i < m_count; i++) {
+      if (m_keys[i].equals(key)) {
+        return i;
+      }
+    }
+    if (m_count == m_keys.length) {
+      int size = m_count * 2;
+      m_keys = Arrays.copyOf(m_keys, size);
+      m_numbers = Arrays.copyOf(m_numbers, size);
+      m_objects = Arrays.copyOf(m_objects, size);
+      m_published = Arrays.copyOf(m_published, size);
+    }
+    m_keys[m_count] = key;
+    m_published[m_count] = false;
+    return m_count++;
+  }
+}
@@ -0,0 +1,141 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.smartdashboard;
+
+import edu.wpi.first.wpilibj.Timer;
+import edu.wpi.first.wpilibj.tables.ITable;
+
+/**
+ * A handle to a single value on the SmartDashboard. Handles are obtained once
+ * from {@link SmartDashboard}, for example with
+ * {@link SmartDashboard#getNumberEntry(String)}, and then used every loop in
+ * place of the put methods.
+ *
+ * A handle remembers the last value it published and only passes a new value
+ * to the table when it has changed, so setting an unchanged value does no
+ * string or table work. A minimum publish interval can also be set, in which
+ * case changes made more often than the interval are held back and the latest
+ * one is published once the interval has passed.
+ *
+ * The handle does not see values written to the same key by other code; call
+ * {@link #reset()} to have the next value published unconditionally. A handle
+ * is meant to be set from a single thread, normally the robot loop.
+ */
+public abstract class DashboardEntry {
+  protected final ITable m_table;
+  protected final String m_key;
+  private double m_minInterval = 0.0;
+  private double m_lastPublishTime = Double.NEGATIVE_INFINITY;
+  protected boolean m_published = false;
+  protected boolean m_pending = false;
+  private long m_publishCount = 0;
+  private long m_skipCount = 0;
+
+  DashboardEntry(ITable table, String key) {
+    if (key == null) {
+      throw new NullPointerException("key");
+    }
+    m_table = table;
+    m_key = key;
+  }
+
+  /**
+   * @return The key of the value on the SmartDashboard
+   */
+  public String getKey() {
+    return m_key;
+  }
+
+  /**
+   * Set the minimum time between two values being published.
+   *
+   * @param seconds The minimum interval in seconds; 0 publishes every change
+   */
+  public void setMinPublishInterval(double seconds) {
+    m_minInterval = seconds;
+  }
+
+  /**
+   * @return The minimum time in seconds between two values being published
+   */
+  public double getMinPublishInterval() {
+    return m_minInterval;
+  }
+
+  /**
+   * Publish the latest value if it was held back by the minimum publish
+   * interval, regardless of the interval.
+   */
+  public void flush() {
+    if (m_pending) {
+      publish(m_minInterval > 0.0 ? Timer.getFPGATimestamp() : 0.0);
+    }
+  }
+
+  /**
+   * Forget the last published value so that the next value is published even
+   * if it has not changed.
+   */
+  public void reset() {
+    m_published = false;
+  }
+
+  /**
+   * @return The number of values passed to the table
+   */
+  public long getPublishCount() {
+    return m_publishCount;
+  }
+
+  /**
+   * @return The number of values not passed to the table because they were
+   *         unchanged or held back by the minimum publish interval
+   */
+  public long getSkipCount() {
+    return m_skipCount;
+  }
+
+  /**
+   * Called by the typed set methods after the new value has been stored and
+   * found to differ from the last published value.
+   */
+  void changed() {
+    double now = 0.0;
+    if (m_minInterval > 0.0) {
+      now = Timer.getFPGATimestamp();
+      if (m_published && now - m_lastPublishTime < m_minInterval) {
+        m_pending = true;
+        m_skipCount++;
+        return;
+      }
+    }
+    publish(now);
+  }
+
+  /**
+   * Called by the typed set methods when the new value equals the last
+   * published value.
+   */
+  void unchanged() {
+    m_pending = false;
+    m_skipCount++;
+  }
+
+  private void publish(double now) {
+    write();
+    m_published = true;
+    m_pending = false;
+    m_lastPublishTime = now;
+    m_publishCount++;
+  }
+
+  /**
+   * Write the current value to the table.
+   */
+  abstract void write();
+}
@@ -0,0 +1,55 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.smartdashboard;
+
+import edu.wpi.first.wpilibj.tables.ITable;
+
+/**
+ * A handle to a number on the SmartDashboard.
+ *
+ * @see DashboardEntry
+ */
+public class NumberEntry extends DashboardEntry {
+  private double m_value;
+  private double m_publishedValue;
+
+  NumberEntry(ITable table, String key) {
+    super(table, key);
+  }
+
+  /**
+   * Set the value, publishing it if it differs from the last published value.
+   *
+   * @param value The value
+   */
+  public void set(double value) {
+    m_value = value;
+    if (m_published && value == m_publishedValue) {
+      unchanged();
+    } else {
+      changed();
+    }
+  }
+
+  /**
+   * Get the value from the table, which may have been changed on the
+   * SmartDashboard.
+   *
+   * @param defaultValue The value returned if the key is undefined
+   * @return The value
+   */
+  public double get(double defaultValue) {
+    return m_table.getNumber(m_key, defaultValue);
+  }
+
+  @Override
+  void write() {
+    m_table.putNumber(m_key, m_value);
+    m_publishedValue = m_value;
+  }
+}
@@ -37,6 +37,10 @@ public class SmartDashboard {
    * {@link SmartDashboardData} objects they came from.
    */
   private static final Hashtable tablesToData = new Hashtable();
+  /** The {@link DashboardEntry} handles created for each key */
+  private static final Hashtable entries = new Hashtable();
+  /** Publishes values to {@link #table} from a background thread */
+  private static final TelemetryPublisher publisher = new TelemetryPublisher(table);
 
   static {
     HLUsageReporting.reportSmartDashboard();
@@ -217,6 +221,87 @@ public class SmartDashboard {
     return table.getString(key, defaultValue);
   }
 
+  /**
+   * Returns a handle to the number at the specified key. Setting a value
+   * through the handle only sends it to the SmartDashboard when it has
+   * changed, so it can be called every loop at little cost. The same handle
+   * is returned every time this is called with the same key.
+   *
+   * @param key the key
+   * @return the handle
+   * @throws IllegalArgumentException if a handle of another type was already
+   *         created for the key
+   */
+  public static NumberEntry getNumberEntry(String key) {
+    synchronized (entries) {
+      DashboardEntry entry = (DashboardEntry) entries.get(key);
+      if (entry == null) {
+        entry = new NumberEntry(table, key);
+        entries.put(key, entry);
+      }
+      return (NumberEntry) checkEntryType(entry, NumberEntry.class);
+    }
+  }
+
+  /**
+   * Returns a handle to the boolean at the specified key.
+   *
+   * @param key the key
+   * @return the handle
+   * @throws IllegalArgumentException if a handle of another type was already
+   *         created for the key
+   * @see #getNumberEntry(String)
+   */
+  public static BooleanEntry getBooleanEntry(String key) {
+    synchronized (entries) {
+      DashboardEntry entry = (DashboardEntry) entries.get(key);
+      if (entry == null) {
+        entry = new BooleanEntry(table, key);
+        entries.put(key, entry);
+      }
+      return (BooleanEntry) checkEntryType(entry, BooleanEntry.class);
+    }
+  }
+
+  /**
+   * Returns a handle to the string at the specified key.
+   *
+   * @param key the key
+   * @return the handle
+   * @throws IllegalArgumentException if a handle of another type was already
+   *         created for the key
+   * @see #getNumberEntry(String)
+   */
+  public static StringEntry getStringEntry(String key) {
+    synchronized (entries) {
+      DashboardEntry entry = (DashboardEntry) entries.get(key);
+      if (entry == null) {
+        entry = new StringEntry(table, key);
+        entries.put(key, entry);
+      }
+      return (StringEntry) checkEntryType(entry, StringEntry.class);
+    }
+  }
+
+  /**
+   * Returns the {@link TelemetryPublisher} for the SmartDashboard. Values put
+   * through it are published from a background thread instead of the calling
+   * thread, with only the latest value of each key published each period.
+   *
+   * @return the publisher
+   */
+  public static TelemetryPublisher getTelemetryPublisher() {
+    return publisher;
+  }
+
+  private static DashboardEntry checkEntryType(DashboardEntry entry, Class type) {
+    if (!type.isInstance(entry)) {
+      throw new IllegalArgumentException("SmartDashboard key " + entry.getKey()
+          + " already has a handle of type " + entry.getClass().getSimpleName());
+    }
+    return entry;
+  }
+
 
 
   /*
@@ -0,0 +1,58 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.smartdashboard;
+
+import edu.wpi.first.wpilibj.tables.ITable;
+
+/**
+ * A handle to a string on the SmartDashboard.
+ *
+ * @see DashboardEntry
+ */
+public class StringEntry extends DashboardEntry {
+  private String m_value;
+  private String m_publishedValue;
+
+  StringEntry(ITable table, String key) {
+    super(table, key);
+  }
+
+  /**
+   * Set the value, publishing it if it differs from the last published value.
+   *
+   * @param value The value
+   */
+  public void set(String value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    m_value = value;
+    if (m_published && value.equals(m_publishedValue)) {
+      unchanged();
+    } else {
+      changed();
+    }
+  }
+
+  /**
+   * Get the value from the table, which may have been changed on the
+   * SmartDashboard.
+   *
+   * @param defaultValue The value returned if the key is undefined
+   * @return The value
+   */
+  public String get(String defaultValue) {
+    return m_table.getString(m_key, defaultValue);
+  }
+
+  @Override
+  void write() {
+    m_table.putString(m_key, m_value);
+    m_publishedValue = m_value;
+  }
+}
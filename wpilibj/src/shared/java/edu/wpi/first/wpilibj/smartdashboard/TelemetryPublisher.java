@@ -0,0 +1,328 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.smartdashboard;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import edu.wpi.first.wpilibj.tables.ITable;
+
+/**
+ * Publishes values to a table from a background thread, so that a slow or
+ * contended NetworkTables connection does not slow down the robot loop.
+ *
+ * Each key has a preallocated slot protected by a sequence lock. Putting a
+ * value only stores it in the slot and marks the slot dirty; a low priority
+ * thread publishes the dirty slots to the table at a fixed rate. A value that
+ * is replaced before it has been published is never sent, so a key only costs
+ * one table write per period however often it is put.
+ *
+ * Only the first put of a key takes a lock, to assign it a slot. Once all
+ * slots are in use, values for new keys are dropped and counted.
+ */
+public class TelemetryPublisher {
+  /**
+   * Default time in seconds between publishing the values
+   */
+  public static final double kDefaultPeriod = 0.1;
+
+  /**
+   * Default number of keys that can be published
+   */
+  public static final int kDefaultCapacity = 256;
+
+  private static final int kTypeNumber = 0;
+  private static final int kTypeBoolean = 1;
+  private static final int kTypeString = 2;
+
+  private static class Slot {
+    // Odd while a value is being written; see put() and publish()
+    final AtomicInteger sequence = new AtomicInteger();
+    final AtomicBoolean dirty = new AtomicBoolean();
+    String key;
+    // The value fields are volatile so that reads of them cannot move past
+    // the second read of the sequence number.
+    volatile int type;
+    volatile double number;
+    volatile String string;
+  }
+
+  private final ITable m_table;
+  private final Slot[] m_slots;
+  private volatile int m_slotCount = 0;
+  private final ConcurrentHashMap<String, Slot> m_slotsByKey =
+      new ConcurrentHashMap<String, Slot>();
+  private final Object m_registerLock = new Object();
+  private final Object m_flushLock = new Object();
+
+  private final AtomicInteger m_queueDepth = new AtomicInteger();
+  private final AtomicLong m_coalesced = new AtomicLong();
+  private final AtomicLong m_dropped = new AtomicLong();
+  private volatile long m_flushCount = 0;
+  private volatile double m_lastFlushDuration = 0.0;
+  private volatile double m_maxFlushDuration = 0.0;
+
+  private volatile double m_period = kDefaultPeriod;
+  private volatile Thread m_thread = null;
+
+  /**
+   * Create a publisher for a table with the default capacity.
+   *
+   * @param table The table to publish the values to
+   */
+  public TelemetryPublisher(ITable table) {
+    this(table, kDefaultCapacity);
+  }
+
+  /**
+   * Create a publisher for a table.
+   *
+   * @param table The table to publish the values to
+   * @param capacity The number of keys that can be published
+   */
+  public TelemetryPublisher(ITable table, int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("Telemetry capacity must be positive");
+    }
+    m_table = table;
+    m_slots = new Slot[capacity];
+    for (int i = 0; i < capacity; i++) {
+      m_slots[i] = new Slot();
+    }
+  }
+
+  /**
+   * Queue a number to be published.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void putNumber(String key, double value) {
+    put(key, kTypeNumber, value, null);
+  }
+
+  /**
+   * Queue a boolean to be published.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void putBoolean(String key, boolean value) {
+    put(key, kTypeBoolean, value ? 1.0 : 0.0, null);
+  }
+
+  /**
+   * Queue a string to be published.
+   *
+   * @param key the key
+   * @param value the value
+   */
+  public void putString(String key, String value) {
+    if (value == null) {
+      throw new NullPointerException("value");
+    }
+    put(key, kTypeString, 0.0, value);
+  }
+
+  /**
+   * Set the time between publishing the values.
+   *
+   * @param seconds The period in seconds
+   */
+  public void setPeriod(double seconds) {
+    if (seconds <= 0.0) {
+      throw new IllegalArgumentException("Telemetry period must be positive");
+    }
+    m_period = seconds;
+  }
+
+  /**
+   * @return The time in seconds between publishing the values
+   */
+  public double getPeriod() {
+    return m_period;
+  }
+
+  /**
+   * Publish all queued values from the calling thread.
+   */
+  public void flush() {
+    synchronized (m_flushLock) {
+      long start = System.nanoTime();
+      int count = m_slotCount;
+      for (int i = 0; i < count; i++) {
+        Slot slot = m_slots[i];
+        if (slot.dirty.getAndSet(false)) {
+          m_queueDepth.decrementAndGet();
+          publish(slot);
+        }
+      }
+      double duration = (System.nanoTime() - start) / 1e9;
+      m_lastFlushDuration = duration;
+      if (duration > m_maxFlushDuration) {
+        m_maxFlushDuration = duration;
+      }
+      m_flushCount++;
+    }
+  }
+
+  /**
+   * @return The number of keys with a value waiting to be published
+   */
+  public int getQueueDepth() {
+    return m_queueDepth.get();
+  }
+
+  /**
+   * @return The number of values that were replaced by a newer value before
+   *         they were published
+   */
+  public long getCoalescedCount() {
+    return m_coalesced.get();
+  }
+
+  /**
+   * @return The number of values dropped because there was no free slot for
+   *         their key
+   */
+  public long getDroppedCount() {
+    return m_dropped.get();
+  }
+
+  /**
+   * @return The number of times the values have been published
+   */
+  public long getFlushCount() {
+    return m_flushCount;
+  }
+
+  /**
+   * @return The time in seconds taken to publish the values the last time
+   */
+  public double getLastFlushDuration() {
+    return m_lastFlushDuration;
+  }
+
+  /**
+   * @return The longest time in seconds taken to publish the values
+   */
+  public double getMaxFlushDuration() {
+    return m_maxFlushDuration;
+  }
+
+  private void put(String key, int type, double number, String string) {
+    Slot slot = m_slotsByKey.get(key);
+    if (slot == null) {
+      slot = register(key);
+      if (slot == null) {
+        m_dropped.incrementAndGet();
+        return;
+      }
+    }
+
+    // Take the sequence lock; it is only contended if several threads put the
+    // same key at once.
+    int sequence;
+    do {
+      sequence = slot.sequence.get();
+    } while ((sequence & 1) != 0 || !slot.sequence.compareAndSet(sequence, sequence + 1));
+    slot.type = type;
+    slot.number = number;
+    slot.string = string;
+    slot.sequence.set(sequence + 2);
+
+    if (slot.dirty.getAndSet(true)) {
+      m_coalesced.incrementAndGet();
+    } else {
+      m_queueDepth.incrementAndGet();
+    }
+
+    if (m_thread == null) {
+      startThread();
+    }
+  }
+
+  private Slot register(String key) {
+    if (key == null) {
+      throw new NullPointerException("key");
+    }
+    synchronized (m_registerLock) {
+      Slot slot = m_slotsByKey.get(key);
+      if (slot != null) {
+        return slot;
+      }
+      int count = m_slotCount;
+      if (count == m_slots.length) {
+        return null;
+      }
+      slot = m_slots[count];
+      slot.key = key;
+      m_slotCount = count + 1;
+      m_slotsByKey.put(key, slot);
+      return slot;
+    }
+  }
+
+  /**
+   * Read a consistent copy of the slot's value and write it to the table.
+   */
+  private void publish(Slot slot) {
+    int type;
+    double number;
+    String string;
+    while (true) {
+      int sequence = slot.sequence.get();
+      if ((sequence & 1) != 0) {
+        Thread.yield();
+        continue;
+      }
+      type = slot.type;
+      number = slot.number;
+      string = slot.string;
+      if (slot.sequence.get() == sequence) {
+        break;
+      }
+    }
+
+    switch (type) {
+      case kTypeNumber:
+        m_table.putNumber(slot.key, number);
+        break;
+      case kTypeBoolean:
+        m_table.putBoolean(slot.key, number != 0.0);
+        break;
+      default:
+        m_table.putString(slot.key, string);
+        break;
+    }
+  }
+
+  private synchronized void startThread() {
+    if (m_thread != null) {
+      return;
+    }
+    m_thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        while (true) {
+          long sleepMs = (long) ((m_period - m_lastFlushDuration) * 1000);
+          try {
+            Thread.sleep(Math.max(sleepMs, 1));
+          } catch (InterruptedException ex) {
+          }
+          flush();
+        }
+      }
+    }, "TelemetryPublisher");
+    m_thread.setDaemon(true);
+    m_thread.setPriority(Thread.MIN_PRIORITY);
+    m_thread.start();
+  }
+}
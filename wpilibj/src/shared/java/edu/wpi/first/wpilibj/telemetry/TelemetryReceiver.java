@@ -0,0 +1,366 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.telemetry;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Receives and decodes the frames sent by a {@link TelemetryStream}. This runs
+ * on the computer the stream is sent to, either from a program using it to
+ * collect the values in memory or on its own through {@link #main(String[])},
+ * which writes every frame as a line of CSV.
+ *
+ * Each call to {@link #receive(double)} waits for the next data frame and
+ * makes its values available through {@link #getValue(int)}. Schema frames are
+ * handled along the way to learn the signal names; until one arrives the
+ * signals are named "signal0", "signal1" and so on. Frames missing from the
+ * sequence are counted as lost.
+ *
+ * When recording is enabled, the timestamp and values of every data frame are
+ * also kept as a time series.
+ */
+public class TelemetryReceiver {
+  private final DatagramChannel m_channel;
+  private final Selector m_selector;
+  private final ByteBuffer m_buffer = ByteBuffer.allocateDirect(65536);
+
+  private String[] m_names = new String[0];
+  private int m_schemaId = -1;
+  private boolean m_schemaChanged = false;
+
+  private double[] m_values = new double[0];
+  private int m_signalCount = 0;
+  private double m_timestamp = 0.0;
+  private int m_sequence = 0;
+  private long m_frameCount = 0;
+  private long m_lostCount = 0;
+
+  private boolean m_recording = false;
+  private int m_recordedCount = 0;
+  private double[] m_recordedTimestamps = new double[0];
+  private double[][] m_recordedValues = new double[0][];
+
+  /**
+   * Create a receiver listening on the given port.
+   *
+   * @param port The UDP port to listen on, or 0 to pick a free port
+   * @throws IOException if the port cannot be opened
+   */
+  public TelemetryReceiver(int port) throws IOException {
+    m_channel = DatagramChannel.open();
+    m_channel.bind(new InetSocketAddress(port));
+    m_channel.configureBlocking(false);
+    m_selector = Selector.open();
+    m_channel.register(m_selector, SelectionKey.OP_READ);
+  }
+
+  /**
+   * @return The UDP port the receiver is listening on
+   * @throws IOException if the channel has been closed
+   */
+  public int getLocalPort() throws IOException {
+    return ((InetSocketAddress) m_channel.getLocalAddress()).getPort();
+  }
+
+  /**
+   * Wait for the next data frame.
+   *
+   * @param timeout The maximum time to wait in seconds
+   * @return true if a data frame was received, false if the time ran out
+   * @throws IOException if reading from the channel fails
+   */
+  public boolean receive(double timeout) throws IOException {
+    long deadline = System.nanoTime() + (long) (timeout * 1e9);
+    while (true) {
+      m_buffer.clear();
+      if (m_channel.receive(m_buffer) != null) {
+        m_buffer.flip();
+        if (decode(m_buffer)) {
+          return true;
+        }
+        continue;
+      }
+      long remainingMs = (deadline - System.nanoTime()) / 1000000;
+      if (remainingMs <= 0) {
+        return false;
+      }
+      m_selector.select(remainingMs);
+      m_selector.selectedKeys().clear();
+    }
+  }
+
+  /**
+   * @return The number of signals in the last data frame
+   */
+  public int getSignalCount() {
+    return m_signalCount;
+  }
+
+  /**
+   * @param id The signal id
+   * @return The name of the signal
+   */
+  public String getSignalName(int id) {
+    if (id < m_names.length) {
+      return m_names[id];
+    }
+    return "signal" + id;
+  }
+
+  /**
+   * @param id The signal id
+   * @return The value of the signal in the last data frame
+   */
+  public double getValue(int id) {
+    if (id < 0 || id >= m_signalCount) {
+      throw new IndexOutOfBoundsException("Invalid telemetry signal id: " + id);
+    }
+    return m_values[id];
+  }
+
+  /**
+   * @return The time in seconds the last data frame was sampled at
+   */
+  public double getTimestamp() {
+    return m_timestamp;
+  }
+
+  /**
+   * @return The sequence number of the last data frame
+   */
+  public int getSequence() {
+    return m_sequence;
+  }
+
+  /**
+   * @return The number of data frames received
+   */
+  public long getFrameCount() {
+    return m_frameCount;
+  }
+
+  /**
+   * @return The number of data frames missing from the sequence
+   */
+  public long getLostFrameCount() {
+    return m_lostCount;
+  }
+
+  /**
+   * Start or stop keeping the values of every data frame. Recorded values are
+   * cleared when the signals change.
+   *
+   * @param recording true to record
+   */
+  public void setRecording(boolean recording) {
+    m_recording = recording;
+  }
+
+  /**
+   * Discard the recorded values.
+   */
+  public void clearRecording() {
+    m_recordedCount = 0;
+  }
+
+  /**
+   * @return The number of frames recorded
+   */
+  public int getRecordedCount() {
+    return m_recordedCount;
+  }
+
+  /**
+   * @return The timestamps of the recorded frames in seconds
+   */
+  public double[] getRecordedTimestamps() {
+    return Arrays.copyOf(m_recordedTimestamps, m_recordedCount);
+  }
+
+  /**
+   * @param name The name of the signal
+   * @return The recorded values of the signal, or null if there is no such
+   *         signal
+   */
+  public double[] getRecordedValues(String name) {
+    for (int i = 0; i < m_signalCount; i++) {
+      if (getSignalName(i).equals(name)) {
+        return Arrays.copyOf(m_recordedValues[i], m_recordedCount);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Write a CSV header line naming the columns written by
+   * {@link #writeCsvRow(PrintStream)}.
+   *
+   * @param out The stream to write to
+   */
+  public void writeCsvHeader(PrintStream out) {
+    StringBuilder line = new StringBuilder("timestamp,sequence");
+    for (int i = 0; i < m_signalCount; i++) {
+      line.append(',').append(getSignalName(i));
+    }
+    out.println(line);
+    m_schemaChanged = false;
+  }
+
+  /**
+   * Write the last data frame as a CSV line.
+   *
+   * @param out The stream to write to
+   */
+  public void writeCsvRow(PrintStream out) {
+    StringBuilder line = new StringBuilder();
+    line.append(m_timestamp).append(',').append(m_sequence);
+    for (int i = 0; i < m_signalCount; i++) {
+      line.append(',').append(m_values[i]);
+    }
+    out.println(line);
+  }
+
+  /**
+   * @return true if the signals have changed since the CSV header was last
+   *         written
+   */
+  public boolean isSchemaChanged() {
+    return m_schemaChanged;
+  }
+
+  /**
+   * Stop listening.
+   */
+  public void close() {
+    try {
+      m_selector.close();
+      m_channel.close();
+    } catch (IOException ex) {
+    }
+  }
+
+  /**
+   * Decode a frame.
+   *
+   * @return true if it was a data frame
+   */
+  private boolean decode(ByteBuffer frame) {
+    if (frame.remaining() < TelemetryStream.kHeaderSize
+        || frame.getInt() != TelemetryStream.kMagic) {
+      return false;
+    }
+    byte type = frame.get();
+    if (frame.get() != TelemetryStream.kVersion) {
+      return false;
+    }
+    int count = frame.getShort() & 0xffff;
+    int schemaId = frame.getInt();
+    int sequence = frame.getInt();
+    double timestamp = frame.getDouble();
+
+    if (type == TelemetryStream.kTypeSchema) {
+      decodeSchema(frame, count, schemaId);
+      return false;
+    }
+    if (type != TelemetryStream.kTypeData || frame.remaining() < 8 * count) {
+      return false;
+    }
+
+    if (count != m_signalCount) {
+      m_signalCount = count;
+      m_values = new double[count];
+      m_schemaChanged = true;
+      resetRecording();
+    }
+    for (int i = 0; i < count; i++) {
+      m_values[i] = frame.getDouble();
+    }
+    if (m_frameCount > 0 && sequence - m_sequence > 1) {
+      m_lostCount += sequence - m_sequence - 1;
+    }
+    m_sequence = sequence;
+    m_timestamp = timestamp;
+    m_frameCount++;
+
+    if (m_recording) {
+      record();
+    }
+    return true;
+  }
+
+  private void decodeSchema(ByteBuffer frame, int count, int schemaId) {
+    if (schemaId == m_schemaId) {
+      return;
+    }
+    String[] names = new String[count];
+    for (int i = 0; i < count; i++) {
+      if (frame.remaining() < 2) {
+        return;
+      }
+      int length = frame.getShort() & 0xffff;
+      if (frame.remaining() < length) {
+        return;
+      }
+      byte[] bytes = new byte[length];
+      frame.get(bytes);
+      names[i] = new String(bytes, StandardCharsets.UTF_8);
+    }
+    m_names = names;
+    m_schemaId = schemaId;
+    m_schemaChanged = true;
+    resetRecording();
+  }
+
+  private void resetRecording() {
+    m_recordedCount = 0;
+    m_recordedValues = new double[m_signalCount][m_recordedTimestamps.length];
+  }
+
+  private void record() {
+    if (m_recordedCount == m_recordedTimestamps.length) {
+      int size = Math.max(1024, m_recordedCount * 2);
+      m_recordedTimestamps = Arrays.copyOf(m_recordedTimestamps, size);
+      for (int i = 0; i < m_recordedValues.length; i++) {
+        m_recordedValues[i] = Arrays.copyOf(m_recordedValues[i], size);
+      }
+    }
+    m_recordedTimestamps[m_recordedCount] = m_timestamp;
+    for (int i = 0; i < m_signalCount; i++) {
+      m_recordedValues[i][m_recordedCount] = m_values[i];
+    }
+    m_recordedCount++;
+  }
+
+  /**
+   * Write a telemetry stream to standard output as CSV.
+   *
+   * @param args The UDP port to listen on, by default
+   *        {@link TelemetryStream#kDefaultPort}
+   * @throws IOException if the port cannot be opened
+   */
+  public static void main(String[] args) throws IOException {
+    int port = args.length > 0 ? Integer.parseInt(args[0]) : TelemetryStream.kDefaultPort;
+    TelemetryReceiver receiver = new TelemetryReceiver(port);
+    while (true) {
+      if (receiver.receive(1.0)) {
+        if (receiver.isSchemaChanged()) {
+          receiver.writeCsvHeader(System.out);
+        }
+        receiver.writeCsvRow(System.out);
+      }
+    }
+  }
+}
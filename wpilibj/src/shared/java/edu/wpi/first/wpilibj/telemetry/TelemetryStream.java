@@ -0,0 +1,270 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.telemetry;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.charset.StandardCharsets;
+
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Sends the values of a set of signals to a computer as UDP datagrams, one
+ * frame per call to {@link #send()}. This is intended for signals that change
+ * too quickly to follow through NetworkTables, such as the setpoint,
+ * measurement and output of a control loop at its full rate, and is read on
+ * the other end with a {@link TelemetryReceiver}.
+ *
+ * Signals are registered once by name and are then set by the id returned from
+ * {@link #addSignal(String)}. Each frame is packed into a preallocated direct
+ * buffer and written to a non-blocking channel, so sending never allocates or
+ * waits for the network; a frame that cannot be sent immediately is dropped.
+ * The signal names are sent in a separate schema frame whenever they change
+ * and then once every {@link #kSchemaInterval} frames, so a receiver started
+ * late still learns them.
+ *
+ * A stream is not thread safe; it should be set and sent from a single
+ * thread, normally the loop producing the values.
+ *
+ * <p>
+ * All frames start with this header, in network byte order:
+ * </p>
+ * <pre>
+ * int    magic ({@link #kMagic})
+ * byte   frame type ({@link #kTypeData} or {@link #kTypeSchema})
+ * byte   protocol version ({@link #kVersion})
+ * short  number of signals
+ * int    schema id, changed whenever a signal is added
+ * int    frame sequence number
+ * double FPGA time in seconds
+ * </pre>
+ * A data frame follows the header with one double per signal in id order. A
+ * schema frame follows it with each signal's name as a short byte count and
+ * the UTF-8 bytes.
+ */
+public class TelemetryStream {
+  /**
+   * Default UDP port, in the range the field network leaves open for teams
+   */
+  public static final int kDefaultPort = 5805;
+
+  /**
+   * Default maximum number of signals
+   */
+  public static final int kDefaultMaxSignals = 32;
+
+  /**
+   * Number of data frames between repeats of the schema frame
+   */
+  public static final int kSchemaInterval = 100;
+
+  public static final int kMagic = 0x46524354;
+  public static final byte kVersion = 1;
+  public static final byte kTypeData = 0;
+  public static final byte kTypeSchema = 1;
+  public static final int kHeaderSize = 24;
+
+  // Largest payload of a UDP datagram
+  private static final int kMaxFrameSize = 65507;
+
+  private final DatagramChannel m_channel;
+  private final InetSocketAddress m_address;
+  private final ByteBuffer m_frame;
+  private final double[] m_values;
+  private String[] m_names;
+  private int m_signalCount = 0;
+
+  private ByteBuffer m_schema = null;
+  private int m_schemaId = 0;
+  private int m_framesSinceSchema = 0;
+  private int m_sequence = 0;
+
+  private long m_sentCount = 0;
+  private long m_droppedCount = 0;
+
+  /**
+   * Create a stream to the given host on the default port.
+   *
+   * @param host The name or address of the computer receiving the stream
+   */
+  public TelemetryStream(String host) {
+    this(host, kDefaultPort, kDefaultMaxSignals);
+  }
+
+  /**
+   * Create a stream.
+   *
+   * @param host The name or address of the computer receiving the stream
+   * @param port The UDP port the receiver listens on
+   * @param maxSignals The maximum number of signals that can be added
+   */
+  public TelemetryStream(String host, int port, int maxSignals) {
+    if (maxSignals <= 0 || kHeaderSize + 8 * maxSignals > kMaxFrameSize) {
+      throw new IllegalArgumentException("Invalid maximum number of telemetry signals: "
+          + maxSignals);
+    }
+    m_address = new InetSocketAddress(host, port);
+    m_frame = ByteBuffer.allocateDirect(kHeaderSize + 8 * maxSignals);
+    m_values = new double[maxSignals];
+    m_names = new String[maxSignals];
+    try {
+      m_channel = DatagramChannel.open();
+      m_channel.configureBlocking(false);
+    } catch (IOException ex) {
+      throw new RuntimeException("Could not open telemetry channel", ex);
+    }
+  }
+
+  /**
+   * Add a signal to the stream.
+   *
+   * @param name The name of the signal
+   * @return The id used to set the signal's value
+   */
+  public int addSignal(String name) {
+    if (name == null) {
+      throw new NullPointerException("name");
+    }
+    if (m_signalCount == m_values.length) {
+      throw new IllegalStateException("Telemetry stream already has " + m_signalCount
+          + " signals");
+    }
+    m_names[m_signalCount] = name;
+    m_signalCount++;
+    buildSchema();
+    return m_signalCount - 1;
+  }
+
+  /**
+   * @return The number of signals in the stream
+   */
+  public int getSignalCount() {
+    return m_signalCount;
+  }
+
+  /**
+   * Set the value of a signal to be sent in the next frame.
+   *
+   * @param id The id returned when the signal was added
+   * @param value The value
+   */
+  public void set(int id, double value) {
+    if (id < 0 || id >= m_signalCount) {
+      throw new IndexOutOfBoundsException("Invalid telemetry signal id: " + id);
+    }
+    m_values[id] = value;
+  }
+
+  /**
+   * Send a frame with the current values of all signals, stamped with the
+   * current FPGA time.
+   */
+  public void send() {
+    send(Timer.getFPGATimestamp());
+  }
+
+  /**
+   * Send a frame with the current values of all signals.
+   *
+   * @param timestamp The time in seconds the values were sampled at
+   */
+  public void send(double timestamp) {
+    if (m_schema == null) {
+      return;
+    }
+    if (m_framesSinceSchema == 0) {
+      m_schema.putDouble(16, timestamp);
+      m_schema.rewind();
+      write(m_schema);
+    }
+    m_framesSinceSchema = (m_framesSinceSchema + 1) % kSchemaInterval;
+
+    m_frame.clear();
+    putHeader(m_frame, kTypeData, m_sequence++, timestamp);
+    for (int i = 0; i < m_signalCount; i++) {
+      m_frame.putDouble(m_values[i]);
+    }
+    m_frame.flip();
+    write(m_frame);
+  }
+
+  /**
+   * @return The number of frames sent, including schema frames
+   */
+  public long getSentCount() {
+    return m_sentCount;
+  }
+
+  /**
+   * @return The number of frames that could not be sent
+   */
+  public long getDroppedCount() {
+    return m_droppedCount;
+  }
+
+  /**
+   * Close the channel. No more frames can be sent.
+   */
+  public void close() {
+    try {
+      m_channel.close();
+    } catch (IOException ex) {
+    }
+  }
+
+  private void write(ByteBuffer frame) {
+    try {
+      if (m_channel.send(frame, m_address) > 0) {
+        m_sentCount++;
+        return;
+      }
+    } catch (IOException ex) {
+    }
+    m_droppedCount++;
+  }
+
+  private void putHeader(ByteBuffer frame, byte type, int sequence, double timestamp) {
+    frame.putInt(kMagic);
+    frame.put(type);
+    frame.put(kVersion);
+    frame.putShort((short) m_signalCount);
+    frame.putInt(m_schemaId);
+    frame.putInt(sequence);
+    frame.putDouble(timestamp);
+  }
+
+  /**
+   * Rebuild the schema frame after the signals have changed, and send it with
+   * the next frame.
+   */
+  private void buildSchema() {
+    byte[][] names = new byte[m_signalCount][];
+    int size = kHeaderSize;
+    for (int i = 0; i < m_signalCount; i++) {
+      names[i] = m_names[i].getBytes(StandardCharsets.UTF_8);
+      size += 2 + names[i].length;
+    }
+    if (size > kMaxFrameSize) {
+      m_signalCount--;
+      m_names[m_signalCount] = null;
+      throw new IllegalStateException("Telemetry signal names are too long to send");
+    }
+    m_schemaId++;
+    ByteBuffer schema = ByteBuffer.allocateDirect(size);
+    putHeader(schema, kTypeSchema, m_schemaId, 0.0);
+    for (byte[] name : names) {
+      schema.putShort((short) name.length);
+      schema.put(name);
+    }
+    schema.flip();
+    m_schema = schema;
+    m_framesSinceSchema = 0;
+  }
+}
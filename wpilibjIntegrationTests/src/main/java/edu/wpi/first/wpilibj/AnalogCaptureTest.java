@@ -0,0 +1,155 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests {@link AnalogCapture} with fake channels in place of the analog
+ * inputs.
+ */
+public class AnalogCaptureTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(AnalogCaptureTest.class.getName());
+
+  private static final double kVoltsPerCount = 0.01;
+  private static final double kOffset = 0.5;
+  private static final double kDelta = 1e-9;
+
+  private int m_valueA;
+  private int m_valueB;
+  private AnalogCapture m_capture;
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  private final AnalogCapture.Source m_sourceA = new AnalogCapture.Source() {
+    @Override
+    public int getValue() {
+      return m_valueA;
+    }
+  };
+
+  private final AnalogCapture.Source m_sourceB = new AnalogCapture.Source() {
+    @Override
+    public int getValue() {
+      return m_valueB;
+    }
+  };
+
+  @Before
+  public void setUp() {
+    m_valueA = 0;
+    m_valueB = 0;
+    m_capture = new AnalogCapture(5);
+    m_capture.addChannel(m_sourceA, kVoltsPerCount, kOffset);
+  }
+
+  @Test
+  public void testWindowStatistics() {
+    assertEquals(0.0, m_capture.getLatestVoltage(0), 0.0);
+    assertEquals(0.0, m_capture.getAverageVoltage(0, 3), 0.0);
+
+    pollA(1.0, 10);
+    pollA(1.1, 30);
+    pollA(1.2, 20);
+
+    assertEquals(-0.3, m_capture.getLatestVoltage(0), kDelta);
+    assertEquals(-0.25, m_capture.getAverageVoltage(0, 2), kDelta);
+    assertEquals(-0.3, m_capture.getAverageVoltage(0, 10), kDelta);
+    assertEquals(-0.4, m_capture.getMinVoltage(0, 3), kDelta);
+    assertEquals(-0.3, m_capture.getMinVoltage(0, 2), kDelta);
+    assertEquals(-0.2, m_capture.getMaxVoltage(0, 10), kDelta);
+
+    // Only size - 1 samples are kept, so the first one has dropped out
+    pollA(1.3, 40);
+    pollA(1.4, 50);
+    assertEquals(-0.3, m_capture.getMinVoltage(0, 10), kDelta);
+    assertEquals(-0.15, m_capture.getAverageVoltage(0, 10), kDelta);
+  }
+
+  @Test
+  public void testReadNewAdvancesCursor() {
+    double[] timestamps = new double[2];
+    int[] values = new int[2];
+    assertEquals(0, m_capture.readNew(0, timestamps, values));
+
+    pollA(2.0, 1);
+    pollA(2.1, 2);
+    pollA(2.2, 3);
+    assertEquals(2, m_capture.readNew(0, timestamps, values));
+    assertArrayEquals(new double[] {2.0, 2.1}, timestamps, 0.0);
+    assertEquals(1, values[0]);
+    assertEquals(2, values[1]);
+    assertEquals(1, m_capture.readNew(0, timestamps, values));
+    assertEquals(2.2, timestamps[0], 0.0);
+    assertEquals(3, values[0]);
+    assertEquals(0, m_capture.readNew(0, timestamps, values));
+
+    pollA(2.3, 4);
+    assertEquals(1, m_capture.readNew(0, timestamps, values));
+    assertEquals(4, values[0]);
+    assertEquals(0, m_capture.getOverrunCount());
+  }
+
+  @Test
+  public void testLappedReaderCountsOverruns() {
+    for (int i = 0; i < 10; i++) {
+      pollA(i, i);
+    }
+
+    double[] timestamps = new double[8];
+    int[] values = new int[8];
+    // Only the last 4 samples are still in the ring
+    assertEquals(4, m_capture.readNew(0, timestamps, values));
+    assertEquals(6, m_capture.getOverrunCount());
+    assertEquals(6.0, timestamps[0], 0.0);
+    assertEquals(9, values[3]);
+  }
+
+  @Test
+  public void testChannelAddedAfterSamples() {
+    pollA(3.0, 10);
+    pollA(3.1, 20);
+    assertEquals(1, m_capture.addChannel(m_sourceB, kVoltsPerCount, kOffset));
+    assertEquals(2, m_capture.getChannelCount());
+
+    double[] timestamps = new double[8];
+    int[] values = new int[8];
+    assertEquals("New channel should have no samples", 0.0, m_capture.getLatestVoltage(1), 0.0);
+    assertEquals(0.0, m_capture.getAverageVoltage(1, 4), 0.0);
+    assertEquals(0, m_capture.readNew(1, timestamps, values));
+
+    m_valueB = 70;
+    pollA(3.2, 30);
+    assertEquals(0.2, m_capture.getLatestVoltage(1), kDelta);
+    assertEquals("Samples from before the channel was added should not count", 0.2,
+        m_capture.getAverageVoltage(1, 4), kDelta);
+    assertEquals(0.2, m_capture.getMinVoltage(1, 4), kDelta);
+    assertEquals(1, m_capture.readNew(1, timestamps, values));
+    assertEquals(3.2, timestamps[0], 0.0);
+    assertEquals(70, values[0]);
+
+    assertEquals(3, m_capture.readNew(0, timestamps, values));
+    assertEquals(30, values[2]);
+  }
+
+  private void pollA(double timestamp, int value) {
+    m_valueA = value;
+    m_capture.poll(timestamp);
+  }
+}
@@ -0,0 +1,130 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests the velocity and acceleration estimates of {@link EncoderSampler}
+ * with a simulated distance in place of the encoder.
+ */
+public class EncoderSamplerTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(EncoderSamplerTest.class.getName());
+
+  private double m_distance;
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  private final EncoderSampler.Source m_source = new EncoderSampler.Source() {
+    @Override
+    public double get() {
+      return m_distance;
+    }
+  };
+
+  @Test
+  public void testConstantVelocity() {
+    EncoderSampler sampler = new EncoderSampler(m_source, 10);
+    // Start late in the match to check the fit does not lose precision
+    for (int i = 0; i < 100; i++) {
+      double time = 120.0 + i * 0.001;
+      m_distance = 5000.0 + 2.5 * i * 0.001;
+      sampler.sample(time);
+    }
+    assertEquals(2.5, sampler.getVelocity(), 1e-6);
+    assertEquals(0.0, sampler.getAcceleration(), 1e-3);
+    assertEquals(m_distance, sampler.getDistance(), 0.0);
+  }
+
+  @Test
+  public void testConstantAcceleration() {
+    EncoderSampler sampler = new EncoderSampler(m_source, 25);
+    double time = 0.0;
+    for (int i = 0; i < 200; i++) {
+      time = 30.0 + i * 0.001;
+      double t = i * 0.001;
+      m_distance = 1.0 + 0.5 * t + 2.0 * t * t;
+      sampler.sample(time);
+    }
+    double[] estimate = new double[3];
+    assertEquals(time, sampler.getEstimate(estimate), 0.0);
+    assertEquals(0.5 + 4.0 * 0.199, estimate[1], 1e-6);
+    assertEquals(4.0, estimate[2], 1e-3);
+  }
+
+  @Test
+  public void testWindowChange() {
+    EncoderSampler sampler = new EncoderSampler(m_source, 50);
+    for (int i = 0; i < 100; i++) {
+      m_distance = i < 80 ? 0.0 : (i - 80) * 0.01;
+      sampler.sample(i * 0.001);
+    }
+    // Only the samples since the encoder started moving are in the new window
+    sampler.setWindow(5);
+    m_distance += 0.01;
+    sampler.sample(0.1);
+    assertEquals(10.0, sampler.getVelocity(), 1e-6);
+
+    sampler.setPIDSourceType(PIDSourceType.kDisplacement);
+    assertEquals(m_distance, sampler.pidGet(), 0.0);
+  }
+
+  @Test
+  public void testMaxWindowMatchesDirectFit() {
+    int window = EncoderSampler.kMaxWindow;
+    EncoderSampler sampler = new EncoderSampler(m_source, window);
+    // A sine is not fit exactly by any parabola, so a wrong set of samples in
+    // the sums changes the estimate. Stop between two rebuilds so the last
+    // samples were added and removed incrementally.
+    int count = 1500;
+    double[] times = new double[count];
+    double[] distances = new double[count];
+    for (int i = 0; i < count; i++) {
+      times[i] = i * 0.001;
+      distances[i] = Math.sin(2.0 * Math.PI * 0.7 * times[i]);
+      m_distance = distances[i];
+      sampler.sample(times[i]);
+    }
+
+    // Least squares parabola through the last window, relative to the latest
+    // sample, from the normal equations
+    double[][] a = new double[3][4];
+    for (int i = count - window; i < count; i++) {
+      double t = times[i] - times[count - 1];
+      double[] powers = {1.0, t, t * t};
+      for (int row = 0; row < 3; row++) {
+        for (int col = 0; col < 3; col++) {
+          a[row][col] += powers[row] * powers[col];
+        }
+        a[row][3] += powers[row] * distances[i];
+      }
+    }
+    for (int pivot = 0; pivot < 3; pivot++) {
+      for (int row = pivot + 1; row < 3; row++) {
+        double factor = a[row][pivot] / a[pivot][pivot];
+        for (int col = pivot; col < 4; col++) {
+          a[row][col] -= factor * a[pivot][col];
+        }
+      }
+    }
+    double c = a[2][3] / a[2][2];
+    double b = (a[1][3] - a[1][2] * c) / a[1][1];
+
+    assertEquals(b, sampler.getVelocity(), 1e-6);
+    assertEquals(2.0 * c, sampler.getAcceleration(), 1e-4);
+  }
+}
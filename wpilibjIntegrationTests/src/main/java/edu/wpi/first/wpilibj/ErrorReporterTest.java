@@ -0,0 +1,146 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the locations and repeat counts sent by {@link ErrorReporter}, with
+ * the messages captured instead of sent to the Driver Station. This does not
+ * use the HAL, so it can be run on any computer as a plain JUnit test as well
+ * as on the robot.
+ */
+public class ErrorReporterTest {
+  /**
+   * One message as it was sent.
+   */
+  private static class Sent {
+    final int code;
+    final String details;
+    final String location;
+    final String callStack;
+
+    Sent(int code, String details, String location, String callStack) {
+      this.code = code;
+      this.details = details;
+      this.location = location;
+      this.callStack = callStack;
+    }
+  }
+
+  private final List<Sent> m_sent = new ArrayList<Sent>();
+
+  @Before
+  public void setUp() {
+    ErrorReporter.setSink(new ErrorReporter.Sink() {
+      @Override
+      public void send(boolean isError, int code, String details, String location,
+          String callStack) {
+        synchronized (m_sent) {
+          m_sent.add(new Sent(code, details, location, callStack));
+        }
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    ErrorReporter.flush();
+    ErrorReporter.setSink(null);
+  }
+
+  @Test
+  public void testLocationSentWithoutTrace() {
+    ErrorReporter.reportError(101, "Location without trace", false);
+    ErrorReporter.reportError(102, "Location with trace", true);
+    ErrorReporter.flush();
+
+    Sent withoutTrace = find("Location without trace");
+    assertFalse("The location should be sent without the trace",
+        withoutTrace.location.isEmpty());
+    assertEquals("", withoutTrace.callStack);
+
+    Sent withTrace = find("Location with trace");
+    assertFalse(withTrace.location.isEmpty());
+    assertTrue("The trace should start at the caller",
+        withTrace.callStack.startsWith(" at " + ErrorReporterTest.class.getName()
+            + ".testLocationSentWithoutTrace"));
+  }
+
+  @Test
+  public void testRepeatsCounted() throws InterruptedException {
+    long suppressed = ErrorReporter.getSuppressedCount();
+    for (int i = 0; i < 3; i++) {
+      ErrorReporter.reportWarning(103, "Repeated warning", false);
+    }
+    ErrorReporter.flush();
+    assertEquals(1, count("Repeated warning"));
+    assertEquals(2, ErrorReporter.getSuppressedCount() - suppressed);
+
+    // The count is sent once the message would have been allowed again
+    Thread.sleep((long) ((ErrorReporter.kRepeatInterval + 0.1) * 1000));
+    ErrorReporter.flush();
+    assertEquals(1, count("Repeated warning (repeated 2 times)"));
+  }
+
+  @Test
+  public void testReplacedMessageCountSent() {
+    String first = "Replaced error";
+    int slot = ErrorReporter.getRepeatSlot(ErrorReporter.kTypeError, 104, first);
+    String second = null;
+    for (int i = 0; second == null; i++) {
+      String candidate = "Replacing error " + i;
+      if (ErrorReporter.getRepeatSlot(ErrorReporter.kTypeError, 104, candidate) == slot) {
+        second = candidate;
+      }
+    }
+
+    ErrorReporter.reportError(104, first, false);
+    ErrorReporter.reportError(104, first, false);
+    ErrorReporter.reportError(104, second, false);
+    ErrorReporter.flush();
+
+    assertEquals(1, count(first));
+    assertEquals("The count of the replaced message should be sent", 1,
+        count(first + " (repeated 1 times)"));
+    assertEquals(1, count(second));
+    assertEquals(104, find(first + " (repeated 1 times)").code);
+  }
+
+  private Sent find(String details) {
+    synchronized (m_sent) {
+      for (Sent sent : m_sent) {
+        if (sent.details.equals(details)) {
+          return sent;
+        }
+      }
+    }
+    throw new AssertionError("Not sent: " + details);
+  }
+
+  private int count(String details) {
+    int count = 0;
+    synchronized (m_sent) {
+      for (Sent sent : m_sent) {
+        if (sent.details.equals(details)) {
+          count++;
+        }
+      }
+    }
+    return count;
+  }
+}
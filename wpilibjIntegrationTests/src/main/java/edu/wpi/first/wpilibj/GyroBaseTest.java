@@ -0,0 +1,177 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the calibration state kept by {@link GyroBase} with a fake gyro. This
+ * does not use the HAL, so it can be run on any computer as a plain JUnit
+ * test as well as on the robot.
+ */
+public class GyroBaseTest {
+  /**
+   * A gyro whose angle since the last calibration is set by the test, and
+   * whose calibrations finish when the test releases them.
+   */
+  private static class FakeGyro extends GyroBase {
+    final Semaphore m_release = new Semaphore(0);
+    volatile double m_measured = 0.0;
+    volatile double m_rate = 0.0;
+    int m_measurementsStarted = 0;
+    int m_measurementsApplied = 0;
+
+    @Override
+    public void calibrate() {
+      m_release.acquireUninterruptibly();
+      m_measured = 0.0;
+    }
+
+    @Override
+    public void reset() {
+      m_measured = 0.0;
+      clearAngleOffset();
+    }
+
+    @Override
+    public double getAngle() {
+      if (!isCalibrated()) {
+        return getUncalibratedAngle();
+      }
+      return m_measured + getAngleOffset();
+    }
+
+    @Override
+    public double getRate() {
+      return m_rate;
+    }
+
+    @Override
+    protected boolean startBiasMeasurement() {
+      m_measurementsStarted++;
+      return true;
+    }
+
+    @Override
+    protected boolean applyBiasMeasurement() {
+      m_measurementsApplied++;
+      m_measured = 0.0;
+      return true;
+    }
+  }
+
+  private FakeGyro m_gyro;
+
+  @Before
+  public void setUp() throws Exception {
+    m_gyro = new FakeGyro();
+    m_gyro.m_release.release();
+    m_gyro.startFirstCalibration().get(1, TimeUnit.SECONDS);
+  }
+
+  @Test
+  public void testAngleHeldWhileCalibrating() throws Exception {
+    FakeGyro gyro = new FakeGyro();
+    gyro.startFirstCalibration();
+    assertFalse(gyro.hasCalibration());
+    assertTrue(Double.isNaN(gyro.getAngle()));
+    gyro.m_release.release();
+    gyro.getCalibration().get(1, TimeUnit.SECONDS);
+    assertTrue(gyro.isCalibrated());
+    assertEquals(0.0, gyro.getAngle(), 0.0);
+
+    gyro.m_measured = 30.0;
+    gyro.calibrateInBackground();
+    assertFalse(gyro.isCalibrated());
+    assertTrue(gyro.hasCalibration());
+    gyro.m_measured = 45.0;
+    assertEquals("Angle should hold while recalibrating", 30.0, gyro.getAngle(), 0.0);
+
+    gyro.m_release.release();
+    gyro.getCalibration().get(1, TimeUnit.SECONDS);
+    assertEquals("Angle should carry on after recalibrating", 30.0, gyro.getAngle(), 0.0);
+    gyro.m_measured = 5.0;
+    assertEquals(35.0, gyro.getAngle(), 0.0);
+
+    gyro.reset();
+    assertEquals(0.0, gyro.getAngle(), 0.0);
+  }
+
+  @Test
+  public void testRecalibrationAppliedWhenStationary() {
+    m_gyro.m_measured = 12.0;
+    m_gyro.checkRecalibration(0.0, true);
+    m_gyro.checkRecalibration(GyroBase.kRecalibrationInterval, true);
+    assertEquals(1, m_gyro.m_measurementsStarted);
+    assertEquals("Angle should not change while the bias is measured", 12.0,
+        m_gyro.getAngle(), 0.0);
+
+    m_gyro.checkRecalibration(GyroBase.kRecalibrationInterval + 1.0, true);
+    assertEquals(0, m_gyro.m_measurementsApplied);
+    m_gyro.checkRecalibration(
+        GyroBase.kRecalibrationInterval + GyroBase.kRecalibrationSampleTime, true);
+    assertEquals(1, m_gyro.m_measurementsApplied);
+    assertEquals("Angle should carry on after recalibrating", 12.0, m_gyro.getAngle(), 0.0);
+    m_gyro.m_measured = 1.0;
+    assertEquals(13.0, m_gyro.getAngle(), 0.0);
+  }
+
+  @Test
+  public void testRecalibrationAbandonedWhenEnabled() {
+    startMeasurement();
+    m_gyro.checkRecalibration(GyroBase.kRecalibrationInterval + 1.0, false);
+    m_gyro.checkRecalibration(
+        GyroBase.kRecalibrationInterval + GyroBase.kRecalibrationSampleTime, true);
+    assertEquals(0, m_gyro.m_measurementsApplied);
+    assertTrue(m_gyro.isCalibrated());
+  }
+
+  @Test
+  public void testRecalibrationAbandonedWhenMoving() {
+    startMeasurement();
+    m_gyro.m_rate = 2.0 * GyroBase.kStationaryRate;
+    m_gyro.checkRecalibration(GyroBase.kRecalibrationInterval + 1.0, true);
+    m_gyro.m_rate = 0.0;
+    m_gyro.checkRecalibration(
+        GyroBase.kRecalibrationInterval + GyroBase.kRecalibrationSampleTime, true);
+    assertEquals(0, m_gyro.m_measurementsApplied);
+
+    // The gyro has to be stationary again before the next measurement
+    double now = GyroBase.kRecalibrationInterval + GyroBase.kRecalibrationSampleTime;
+    m_gyro.checkRecalibration(now + GyroBase.kStationaryTime, true);
+    assertEquals(2, m_gyro.m_measurementsStarted);
+  }
+
+  @Test
+  public void testRecalibrationAbandonedOnReset() {
+    startMeasurement();
+    m_gyro.m_measured = 3.0;
+    m_gyro.reset();
+    m_gyro.checkRecalibration(
+        GyroBase.kRecalibrationInterval + GyroBase.kRecalibrationSampleTime, true);
+    assertEquals(0, m_gyro.m_measurementsApplied);
+    assertEquals(0.0, m_gyro.getAngle(), 0.0);
+  }
+
+  /**
+   * Leave the gyro stationary until a bias measurement starts.
+   */
+  private void startMeasurement() {
+    m_gyro.checkRecalibration(0.0, true);
+    m_gyro.checkRecalibration(GyroBase.kRecalibrationInterval, true);
+    assertEquals(1, m_gyro.m_measurementsStarted);
+  }
+}
@@ -0,0 +1,96 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.interfaces.Gyro;
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests the lookups of {@link GyroHistory} with a simulated gyro.
+ */
+public class GyroHistoryTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(GyroHistoryTest.class.getName());
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  /**
+   * A gyro turning at a constant rate, driven by the test's clock.
+   */
+  private static class FakeGyro implements Gyro {
+    static final double kRate = 90.0;
+    double m_time = 0.0;
+
+    @Override
+    public void calibrate() {}
+
+    @Override
+    public void reset() {}
+
+    @Override
+    public double getAngle() {
+      return kRate * m_time;
+    }
+
+    @Override
+    public double getRate() {
+      return kRate;
+    }
+
+    @Override
+    public void free() {}
+  }
+
+  private static void fill(GyroHistory history, FakeGyro gyro, int samples, double period) {
+    for (int i = 0; i < samples; i++) {
+      gyro.m_time = i * period;
+      history.sample(gyro.m_time);
+    }
+  }
+
+  @Test
+  public void testInterpolatesBetweenSamples() {
+    FakeGyro gyro = new FakeGyro();
+    GyroHistory history = new GyroHistory(gyro, 1.0, 0.005);
+    fill(history, gyro, 100, 0.005);
+
+    assertEquals(FakeGyro.kRate * 0.1234, history.getAngleAt(0.1234), 1e-9);
+    assertEquals(FakeGyro.kRate, history.getRateAt(0.3), 1e-9);
+  }
+
+  @Test
+  public void testExtrapolatesPastNewestSample() {
+    FakeGyro gyro = new FakeGyro();
+    GyroHistory history = new GyroHistory(gyro, 1.0, 0.005);
+    fill(history, gyro, 10, 0.005);
+
+    assertEquals(FakeGyro.kRate * 0.06, history.getAngleAt(0.06), 1e-9);
+  }
+
+  @Test
+  public void testOlderThanHistoryIsNaN() {
+    FakeGyro gyro = new FakeGyro();
+    GyroHistory history = new GyroHistory(gyro, 0.1, 0.005);
+    assertTrue(Double.isNaN(history.getAngleAt(0.0)));
+
+    fill(history, gyro, 100, 0.005);
+    double oldest = history.getOldestTimestamp();
+    assertTrue(oldest > 0.35);
+    assertTrue(Double.isNaN(history.getAngleAt(oldest - 0.001)));
+    assertEquals(FakeGyro.kRate * oldest, history.getAngleAt(oldest), 1e-9);
+  }
+}
@@ -0,0 +1,204 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.fixtures.DIOCrossConnectFixture;
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+import edu.wpi.first.wpilibj.test.TestBench;
+
+/**
+ * Tests the queueing and fan out of {@link InterruptMultiplexer} with polled
+ * inputs, and with an interrupt on a cross connected digital input.
+ */
+public class InterruptMultiplexerTest extends AbstractComsSetup {
+  private static final Logger logger =
+      Logger.getLogger(InterruptMultiplexerTest.class.getName());
+
+  private boolean m_stateA;
+  private boolean m_stateB;
+  private final List<String> m_edges = new ArrayList<String>();
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  private final InterruptMultiplexer.Input m_inputA = new InterruptMultiplexer.Input() {
+    @Override
+    public boolean get() {
+      return m_stateA;
+    }
+  };
+
+  private final InterruptMultiplexer.Input m_inputB = new InterruptMultiplexer.Input() {
+    @Override
+    public boolean get() {
+      return m_stateB;
+    }
+  };
+
+  /**
+   * Records each edge as "subscription:R|F@timestamp".
+   */
+  private final InterruptMultiplexer.EdgeHandler m_handler =
+      new InterruptMultiplexer.EdgeHandler() {
+        @Override
+        public void edge(int subscription, boolean rising, double timestamp) {
+          m_edges.add(subscription + (rising ? ":R@" : ":F@") + timestamp);
+        }
+      };
+
+  @Before
+  public void setUp() {
+    m_stateA = false;
+    m_stateB = false;
+    m_edges.clear();
+  }
+
+  @Test
+  public void testFanOut() {
+    InterruptMultiplexer mux = new InterruptMultiplexer(16, 0.001, false);
+    int risingA = mux.subscribe(m_inputA, true, false);
+    int bothA = mux.subscribe(m_inputA, true, true);
+    int fallingB = mux.subscribe(m_inputB, false, true);
+
+    m_stateA = true;
+    m_stateB = true;
+    mux.poll(1.0);
+    mux.poll(2.0);
+    m_stateA = false;
+    m_stateB = false;
+    mux.poll(3.0);
+
+    assertEquals(4, mux.getQueueDepth());
+    assertEquals(4, mux.drain(m_handler));
+    assertEquals(risingA + ":R@1.0", m_edges.get(0));
+    assertEquals(bothA + ":R@1.0", m_edges.get(1));
+    assertEquals(bothA + ":F@3.0", m_edges.get(2));
+    assertEquals(fallingB + ":F@3.0", m_edges.get(3));
+    assertEquals(0, mux.drain(m_handler));
+  }
+
+  @Test
+  public void testUnsubscribe() {
+    InterruptMultiplexer mux = new InterruptMultiplexer(16, 0.001, false);
+    int first = mux.subscribe(m_inputA, true, true);
+    int second = mux.subscribe(m_inputA, true, true);
+    mux.unsubscribe(first);
+
+    m_stateA = true;
+    mux.poll(1.0);
+    mux.drain(m_handler);
+
+    assertEquals(1, m_edges.size());
+    assertEquals(second + ":R@1.0", m_edges.get(0));
+  }
+
+  @Test
+  public void testFullQueueDropsEdges() {
+    InterruptMultiplexer mux = new InterruptMultiplexer(4, 0.001, false);
+    mux.subscribe(m_inputA, true, true);
+    for (int i = 0; i < 6; i++) {
+      m_stateA = !m_stateA;
+      mux.poll(i);
+    }
+
+    assertEquals(2, mux.getDroppedCount());
+    assertEquals(4, mux.drain(m_handler));
+    assertEquals("0:R@0.0", m_edges.get(0));
+    assertEquals("0:F@3.0", m_edges.get(3));
+
+    // The queue wraps around once it has been drained
+    m_stateA = !m_stateA;
+    mux.poll(6.0);
+    assertEquals(1, mux.drain(m_handler));
+    assertEquals("0:R@6.0", m_edges.get(4));
+  }
+
+  @Test
+  public void testInterruptEdges() {
+    DIOCrossConnectFixture dio = TestBench.getInstance().getDIOCrossConnectFixture(
+        TestBench.DIOCrossConnectA1, TestBench.DIOCrossConnectA2);
+    InterruptMultiplexer mux = new InterruptMultiplexer();
+    try {
+      dio.getOutput().set(false);
+      Timer.delay(0.01);
+      // More subscriptions than the tables start with, so they grow while
+      // the interrupt is attached
+      int[] subscriptions = new int[20];
+      for (int i = 0; i < subscriptions.length; i++) {
+        subscriptions[i] = mux.subscribe(dio.getInput(), true, i % 2 == 0);
+        assertTrue(mux.hasInterrupt(subscriptions[i]));
+      }
+
+      dio.getOutput().set(true);
+      Timer.delay(0.01);
+      dio.getOutput().set(false);
+      Timer.delay(0.01);
+
+      // Every subscription sees the rising edge, half of them the falling one
+      assertEquals(30, mux.drain(m_handler));
+      assertEquals(0, mux.getDroppedCount());
+      int rising = 0;
+      for (String edge : m_edges) {
+        if (edge.contains(":R@")) {
+          rising++;
+        }
+      }
+      assertEquals(20, rising);
+      assertTrue(m_edges.get(0).startsWith(subscriptions[0] + ":R@"));
+      assertTrue(m_edges.get(29).contains(":F@"));
+    } finally {
+      mux.free();
+      dio.teardown();
+    }
+  }
+
+  @Test
+  public void testInterruptEdgesOfSecondInput() {
+    DIOCrossConnectFixture first = TestBench.getInstance().getDIOCrossConnectFixture(
+        TestBench.DIOCrossConnectB1, TestBench.DIOCrossConnectB2);
+    DIOCrossConnectFixture second = TestBench.getInstance().getDIOCrossConnectFixture(
+        TestBench.DIOCrossConnectA1, TestBench.DIOCrossConnectA2);
+    InterruptMultiplexer mux = new InterruptMultiplexer();
+    try {
+      first.getOutput().set(false);
+      second.getOutput().set(false);
+      Timer.delay(0.01);
+      // The first input takes the lower interrupt index, so the edges of the
+      // second come in on the higher bits of the asserted mask
+      int firstSubscription = mux.subscribe(first.getInput(), true, true);
+      int secondSubscription = mux.subscribe(second.getInput(), true, true);
+      assertTrue(mux.hasInterrupt(firstSubscription));
+      assertTrue(mux.hasInterrupt(secondSubscription));
+
+      second.getOutput().set(true);
+      Timer.delay(0.01);
+      second.getOutput().set(false);
+      Timer.delay(0.01);
+
+      assertEquals(2, mux.drain(m_handler));
+      assertTrue(m_edges.get(0).startsWith(secondSubscription + ":R@"));
+      assertTrue(m_edges.get(1).startsWith(secondSubscription + ":F@"));
+    } finally {
+      mux.free();
+      first.teardown();
+      second.teardown();
+    }
+  }
+}
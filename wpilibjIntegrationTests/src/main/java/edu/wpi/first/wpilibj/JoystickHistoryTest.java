@@ -0,0 +1,114 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.communication.FRCNetworkCommunicationsLibrary;
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+public class JoystickHistoryTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(JoystickHistoryTest.class.getName());
+
+  private JoystickHistory m_history;
+  private short[][] m_axes;
+  private int[] m_axisCounts;
+  private short[][] m_povs;
+  private int[] m_povCounts;
+  private int[] m_buttons;
+  private int[] m_buttonCounts;
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  @Before
+  public void setUp() {
+    m_history = new JoystickHistory(8);
+    m_axes = new short[DriverStation.kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickAxes];
+    m_axisCounts = new int[DriverStation.kJoystickPorts];
+    m_povs = new short[DriverStation.kJoystickPorts][FRCNetworkCommunicationsLibrary.kMaxJoystickPOVs];
+    m_povCounts = new int[DriverStation.kJoystickPorts];
+    m_buttons = new int[DriverStation.kJoystickPorts];
+    m_buttonCounts = new int[DriverStation.kJoystickPorts];
+    m_axisCounts[0] = 2;
+    m_povCounts[0] = 1;
+    m_buttonCounts[0] = 4;
+  }
+
+  private void record(double time, short axis, int buttons) {
+    m_axes[0][1] = axis;
+    m_povs[0][0] = (short) (axis > 0 ? 90 : -1);
+    m_buttons[0] = buttons;
+    m_history.record(time, m_axes, m_axisCounts, m_povs, m_povCounts, m_buttons, m_buttonCounts);
+  }
+
+  @Test
+  public void testValueAtTime() {
+    record(1.00, (short) 0, 0);
+    record(1.02, (short) 127, 1);
+    record(1.04, (short) -128, 0);
+
+    assertEquals(0.0, m_history.getStickAxisAt(0, 1, 1.01), 0.0001);
+    assertEquals(1.0, m_history.getStickAxisAt(0, 1, 1.02), 0.0001);
+    assertEquals(-1.0, m_history.getStickAxisAt(0, 1, 2.0), 0.0001);
+    assertEquals(90, m_history.getStickPOVAt(0, 0, 1.03));
+    assertEquals(1, m_history.getStickButtonsAt(0, 1.03));
+    assertEquals(1.02, m_history.getPacketTimestampAt(1.035), 0.0001);
+    assertEquals(-1.0, m_history.getPacketTimestampAt(0.5), 0.0001);
+    // Axis not reported by the joystick
+    assertEquals(0.0, m_history.getStickAxisAt(0, 5, 2.0), 0.0001);
+  }
+
+  @Test
+  public void testEdgesSince() {
+    record(1.00, (short) 0, 0);
+    record(1.02, (short) 0, 1);
+    record(1.04, (short) 0, 0);
+    record(1.06, (short) 0, 1);
+    record(1.08, (short) 0, 3);
+
+    assertEquals(2, m_history.getButtonPressesSince(0, 1, 1.00));
+    assertEquals(1, m_history.getButtonReleasesSince(0, 1, 1.00));
+    assertEquals(1, m_history.getButtonPressesSince(0, 1, 1.02));
+    assertEquals(1, m_history.getButtonPressesSince(0, 2, 1.00));
+    assertEquals(0, m_history.getButtonPressesSince(0, 1, 1.08));
+  }
+
+  @Test
+  public void testRingOverwritesOldest() {
+    for (int i = 0; i < 20; i++) {
+      record(i * 0.02, (short) i, 0);
+    }
+
+    assertEquals(7, m_history.getCount());
+    assertEquals(0.38, m_history.getLatestTimestamp(), 0.0001);
+    // Packets older than the ring are no longer available
+    assertEquals(-1.0, m_history.getPacketTimestampAt(0.20), 0.0001);
+    assertEquals(13 / 127.0, m_history.getStickAxisAt(0, 1, 0.26), 0.0001);
+  }
+
+  @Test
+  public void testPacketIntervalStatistics() {
+    record(1.00, (short) 0, 0);
+    record(1.02, (short) 0, 0);
+    record(1.05, (short) 0, 0);
+    record(1.06, (short) 0, 0);
+
+    assertEquals(0.01, m_history.getMinPacketInterval(), 0.0001);
+    assertEquals(0.03, m_history.getMaxPacketInterval(), 0.0001);
+    assertEquals(0.02, m_history.getMeanPacketInterval(), 0.0001);
+    assertEquals(Math.sqrt(2.0 / 3.0) * 0.01, m_history.getPacketIntervalJitter(), 0.0001);
+  }
+}
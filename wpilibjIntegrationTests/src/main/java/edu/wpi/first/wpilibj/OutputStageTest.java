@@ -0,0 +1,125 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.Relay.Direction;
+import edu.wpi.first.wpilibj.Relay.Value;
+import edu.wpi.first.wpilibj.fixtures.RelayCrossConnectFixture;
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+import edu.wpi.first.wpilibj.test.TestBench;
+
+/**
+ * Checks that outputs set during a cycle only reach the hardware when the
+ * {@link OutputStage} is flushed, using the relay cross connect and the PCM
+ * solenoid inputs of the test bench.
+ */
+public class OutputStageTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(OutputStageTest.class.getName());
+
+  /* The PCM takes a moment to switch a solenoid */
+  private static final double kSolenoidDelayTime = 1.0;
+
+  private RelayCrossConnectFixture m_relayFixture;
+
+  @Before
+  public void setUp() throws Exception {
+    m_relayFixture = TestBench.getRelayCrossConnectFixture();
+    m_relayFixture.setup();
+    m_relayFixture.getRelay().setDirection(Direction.kBoth);
+    OutputStage.setEnabled(true);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    OutputStage.setEnabled(false);
+    m_relayFixture.reset();
+    m_relayFixture.teardown();
+  }
+
+  @Test
+  public void testRelayWrittenOnFlush() {
+    Relay relay = m_relayFixture.getRelay();
+    OutputStage.beginCycle();
+    relay.set(Value.kForward);
+    assertEquals("Relay should report the staged value", Value.kForward, relay.get());
+    assertFalse("Input one changed before the flush", m_relayFixture.getInputOne().get());
+    assertFalse("Input two changed before the flush", m_relayFixture.getInputTwo().get());
+
+    OutputStage.flush();
+    assertFalse("Input one was not low after the flush", m_relayFixture.getInputOne().get());
+    assertTrue("Input two was not high after the flush", m_relayFixture.getInputTwo().get());
+    assertEquals(Value.kForward, relay.get());
+  }
+
+  @Test
+  public void testWriteFromOtherThreadReplacesStaged() throws Exception {
+    final Relay relay = m_relayFixture.getRelay();
+    OutputStage.beginCycle();
+    relay.set(Value.kForward);
+
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        relay.set(Value.kReverse);
+      }
+    });
+    thread.start();
+    thread.join();
+    assertEquals(Value.kReverse, relay.get());
+    assertTrue("Input one was not high after the direct write",
+        m_relayFixture.getInputOne().get());
+    assertFalse("Input two was not low after the direct write",
+        m_relayFixture.getInputTwo().get());
+
+    OutputStage.flush();
+    assertEquals("The flush undid the direct write", Value.kReverse, relay.get());
+    assertTrue("Input one was not high after the flush", m_relayFixture.getInputOne().get());
+    assertFalse("Input two was not low after the flush", m_relayFixture.getInputTwo().get());
+  }
+
+  @Test
+  public void testSolenoidWrittenOnFlush() {
+    Solenoid solenoid = new Solenoid(0);
+    DigitalInput fakeSolenoid = new DigitalInput(12);
+    try {
+      solenoid.set(false);
+      Timer.delay(kSolenoidDelayTime);
+
+      OutputStage.beginCycle();
+      solenoid.set(true);
+      assertTrue("Solenoid should report the staged value", solenoid.get());
+      Timer.delay(kSolenoidDelayTime);
+      assertTrue("Solenoid turned on before the flush", fakeSolenoid.get());
+
+      OutputStage.flush();
+      Timer.delay(kSolenoidDelayTime);
+      assertFalse("Solenoid did not turn on after the flush", fakeSolenoid.get());
+      assertTrue(solenoid.get());
+    } finally {
+      OutputStage.setEnabled(false);
+      solenoid.set(false);
+      solenoid.free();
+      fakeSolenoid.free();
+    }
+  }
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+}
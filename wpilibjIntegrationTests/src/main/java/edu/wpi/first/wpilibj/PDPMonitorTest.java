@@ -0,0 +1,164 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests the statistics and thresholds of {@link PDPMonitor} with a simulated
+ * panel.
+ */
+public class PDPMonitorTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(PDPMonitorTest.class.getName());
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  /**
+   * A panel whose values are set by the test.
+   */
+  private static class FakePanel implements PDPMonitor.Source {
+    double m_voltage = 12.0;
+    final double[] m_currents = new double[16];
+
+    @Override
+    public double getVoltage() {
+      return m_voltage;
+    }
+
+    @Override
+    public double getTemperature() {
+      return 25.0;
+    }
+
+    @Override
+    public double getCurrent(int channel) {
+      return m_currents[channel];
+    }
+
+    @Override
+    public double getTotalCurrent() {
+      double total = 0.0;
+      for (double current : m_currents) {
+        total += current;
+      }
+      return total;
+    }
+  }
+
+  @Test
+  public void testWindowStatistics() {
+    FakePanel panel = new FakePanel();
+    PDPMonitor monitor = new PDPMonitor(panel, 4);
+    for (int i = 1; i <= 6; i++) {
+      panel.m_currents[3] = i;
+      panel.m_voltage = 12.0 - 0.1 * i;
+      monitor.poll(0.02 * i);
+    }
+
+    assertEquals(6.0, monitor.getCurrent(3), 1e-9);
+    // Window holds 3, 4, 5 and 6
+    assertEquals(4.5, monitor.getAverageCurrent(3), 1e-9);
+    assertEquals(6.0, monitor.getPeakCurrent(3), 1e-9);
+    assertEquals(11.4, monitor.getMinVoltage(), 1e-9);
+    assertEquals(6.0, monitor.getTotalCurrent(), 1e-9);
+    assertEquals(0.12, monitor.getTimestamp(), 1e-9);
+
+    double[] currents = new double[16];
+    assertEquals(0.12, monitor.getCurrents(currents), 1e-9);
+    assertEquals(6.0, currents[3], 1e-9);
+  }
+
+  @Test
+  public void testOvercurrentToldOncePerCrossing() {
+    FakePanel panel = new FakePanel();
+    PDPMonitor monitor = new PDPMonitor(panel, 2);
+    final int[] calls = new int[1];
+    monitor.setCurrentLimit(5, 30.0);
+    monitor.setOvercurrentListener(new PDPMonitor.OvercurrentListener() {
+      @Override
+      public void overcurrent(int channel, double current, double timestamp) {
+        assertEquals(5, channel);
+        calls[0]++;
+      }
+    });
+
+    double[] currents = {10.0, 40.0, 40.0, 40.0, 10.0, 10.0, 50.0, 50.0};
+    for (int i = 0; i < currents.length; i++) {
+      panel.m_currents[5] = currents[i];
+      monitor.poll(0.02 * i);
+    }
+    assertEquals(2, calls[0]);
+  }
+
+  @Test
+  public void testBrownoutPredictedFromTrend() {
+    FakePanel panel = new FakePanel();
+    PDPMonitor monitor = new PDPMonitor(panel, 5);
+    monitor.setBrownoutPrediction(6.8, 0.1);
+    final int[] calls = new int[1];
+    monitor.setBrownoutListener(new PDPMonitor.BrownoutListener() {
+      @Override
+      public void brownoutPredicted(double voltage, double predictedVoltage, double timestamp) {
+        assertTrue(voltage > 6.8);
+        assertTrue(predictedVoltage < 6.8);
+        calls[0]++;
+      }
+    });
+
+    // Falling 0.5 volts every 20 ms, 2.5 volts over the lookahead
+    for (int i = 0; i < 6; i++) {
+      panel.m_voltage = 12.0 - 0.5 * i;
+      monitor.poll(0.02 * i);
+      assertEquals(0, calls[0]);
+    }
+    panel.m_voltage = 9.0;
+    monitor.poll(0.12);
+    assertEquals(6.5, monitor.getPredictedVoltage(), 1e-9);
+    assertEquals(1, calls[0]);
+
+    panel.m_voltage = 8.5;
+    monitor.poll(0.14);
+    assertEquals(1, calls[0]);
+  }
+
+  @Test
+  public void testListenerExceptionDoesNotStopChecks() {
+    FakePanel panel = new FakePanel();
+    PDPMonitor monitor = new PDPMonitor(panel, 2);
+    final int[] calls = new int[16];
+    monitor.setCurrentLimit(2, 30.0);
+    monitor.setCurrentLimit(5, 30.0);
+    monitor.setOvercurrentListener(new PDPMonitor.OvercurrentListener() {
+      @Override
+      public void overcurrent(int channel, double current, double timestamp) {
+        calls[channel]++;
+        if (channel == 2) {
+          throw new IllegalStateException("Listener failed");
+        }
+      }
+    });
+
+    panel.m_currents[2] = 40.0;
+    panel.m_currents[5] = 40.0;
+    monitor.poll(0.0);
+    monitor.poll(0.02);
+    assertEquals(1, calls[2]);
+    assertEquals("Channels after the failing one should still be checked", 1, calls[5]);
+    assertEquals(2, monitor.getSampleCount());
+  }
+}
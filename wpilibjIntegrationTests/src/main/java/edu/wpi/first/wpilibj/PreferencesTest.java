@@ -121,4 +121,40 @@ public class PreferencesTest extends AbstractComsSetup {
     pref.remove(networkedNumber);
   }
 
+  @Test
+  public void testCachedValueFollowsTable() {
+    String key = "cachedValue";
+    pref.putDouble(key, 1.5);
+    assertEquals(1.5, pref.getDouble(key, 0), 0);
+    pref.putDouble(key, 2.5);
+    assertEquals(2.5, pref.getDouble(key, 0), 0);
+    prefTable.putNumber(key, 3.5);
+    Timer.delay(0.1);
+    assertEquals(3.5, pref.getDouble(key, 0), 0);
+    pref.remove(key);
+    assertEquals(0, pref.getDouble(key, 0), 0);
+  }
+
+  @Test
+  public void testListenerIsNotified() {
+    final String key = "listenedValue";
+    final int[] changes = new int[1];
+    PreferencesListener listener = new PreferencesListener() {
+      @Override
+      public void preferenceChanged(String changedKey) {
+        synchronized (changes) {
+          changes[0]++;
+        }
+      }
+    };
+    pref.addListener(key, listener);
+    pref.putDouble(key, 1.0);
+    Timer.delay(0.1);
+    pref.removeListener(listener);
+    pref.remove(key);
+    synchronized (changes) {
+      assertTrue(changes[0] > 0);
+    }
+  }
+
 }
@@ -0,0 +1,112 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+import edu.wpi.first.wpilibj.util.AllocationException;
+import edu.wpi.first.wpilibj.util.CheckedAllocationException;
+
+public class ResourceTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(ResourceTest.class.getName());
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  @Test
+  public void testAllocateFindsFirstFree() throws CheckedAllocationException {
+    Resource resource = new Resource(130);
+    for (int i = 0; i < 130; i++) {
+      assertEquals(i, resource.allocate());
+    }
+    resource.free(70);
+    resource.free(3);
+    assertEquals(3, resource.allocate());
+    assertEquals(70, resource.allocate());
+    assertEquals(130, resource.getAllocatedCount());
+  }
+
+  @Test(expected = CheckedAllocationException.class)
+  public void testAllocateWhenFull() throws CheckedAllocationException {
+    Resource resource = new Resource(65);
+    for (int i = 0; i < 65; i++) {
+      resource.allocate();
+    }
+    resource.allocate();
+  }
+
+  @Test(expected = CheckedAllocationException.class)
+  public void testAllocateIndexTwice() throws CheckedAllocationException {
+    Resource resource = new Resource(8);
+    resource.allocate(5);
+    resource.allocate(5);
+  }
+
+  @Test(expected = AllocationException.class)
+  public void testFreeUnallocated() {
+    Resource resource = new Resource(8);
+    resource.free(2);
+  }
+
+  @Test
+  public void testAllocationsRecordOwner() throws CheckedAllocationException {
+    Resource resource = new Resource(100);
+    Object owner = new Object();
+    resource.allocate(66, owner);
+    resource.allocate(2);
+
+    Resource.Allocation[] allocations = resource.getAllocations();
+    assertEquals(2, allocations.length);
+    assertEquals(2, allocations[0].index);
+    assertEquals(66, allocations[1].index);
+    assertSame(owner, allocations[1].owner);
+    assertNotNull(allocations[1].site);
+
+    resource.free(66);
+    assertFalse(resource.isAllocated(66));
+    assertTrue(resource.isAllocated(2));
+  }
+
+  @Test
+  public void testConcurrentAllocationsAreUnique() throws InterruptedException {
+    final Resource resource = new Resource(4000);
+    final boolean[] failed = new boolean[1];
+    Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            for (int i = 0; i < 1000; i++) {
+              resource.allocate();
+            }
+          } catch (CheckedAllocationException ex) {
+            failed[0] = true;
+          }
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertFalse(failed[0]);
+    assertEquals(4000, resource.getAllocatedCount());
+  }
+}
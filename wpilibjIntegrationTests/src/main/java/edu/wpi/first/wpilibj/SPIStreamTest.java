@@ -0,0 +1,118 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests {@link SPIStream} with a fake device in place of the SPI port.
+ */
+public class SPIStreamTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(SPIStreamTest.class.getName());
+
+  private byte m_nextValue;
+  private int m_fifoCount;
+  private SPIStream m_stream;
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  /**
+   * A device that returns a counter in each byte after the command byte, and
+   * reports how many of them are valid in the command byte's reply.
+   */
+  private final SPIStream.Transport m_device = new SPIStream.Transport() {
+    @Override
+    public int transaction(byte[] dataToSend, byte[] dataReceived, int size) {
+      dataReceived[0] = (byte) m_fifoCount;
+      for (int i = 1; i < size; i++) {
+        dataReceived[i] = m_nextValue++;
+      }
+      return size;
+    }
+  };
+
+  /**
+   * Decodes each valid byte as a sample with the byte and its negation.
+   */
+  private final SPIStream.Decoder m_decoder = new SPIStream.Decoder() {
+    @Override
+    public int decode(byte[] dataReceived, double[] samples) {
+      int count = dataReceived[0];
+      for (int i = 0; i < count; i++) {
+        samples[2 * i] = dataReceived[i + 1];
+        samples[2 * i + 1] = -dataReceived[i + 1];
+      }
+      return count;
+    }
+  };
+
+  @Before
+  public void setUp() {
+    m_nextValue = 0;
+    m_fifoCount = 1;
+    m_stream = new SPIStream(m_device, new byte[] {0x0f, 0, 0, 0}, 2, 3, m_decoder, 8);
+  }
+
+  @Test
+  public void testLatestAndAverage() {
+    double[] sample = new double[2];
+    assertEquals(-1.0, m_stream.getLatest(sample), 0.0);
+
+    m_stream.poll(1.0);
+    m_stream.poll(1.1);
+    m_stream.poll(1.2);
+
+    assertEquals(1.2, m_stream.getLatest(sample), 0.0);
+    assertArrayEquals(new double[] {6.0, -6.0}, sample, 0.0);
+    assertEquals(2, m_stream.getAverage(2, sample));
+    assertArrayEquals(new double[] {4.5, -4.5}, sample, 0.0);
+    assertEquals(3, m_stream.getAverage(10, sample));
+    assertArrayEquals(new double[] {3.0, -3.0}, sample, 0.0);
+  }
+
+  @Test
+  public void testBurstReadsAllSamples() {
+    m_fifoCount = 3;
+    m_stream.poll(2.0);
+
+    double[] timestamps = new double[4];
+    double[] values = new double[8];
+    assertEquals(3, m_stream.readNew(timestamps, values));
+    assertArrayEquals(new double[] {2.0, 2.0, 2.0}, new double[] {timestamps[0], timestamps[1],
+        timestamps[2]}, 0.0);
+    assertEquals(1.0, values[2], 0.0);
+    assertEquals(-2.0, values[5], 0.0);
+    assertEquals(0, m_stream.readNew(timestamps, values));
+  }
+
+  @Test
+  public void testOverwrittenSamplesAreCounted() {
+    for (int i = 0; i < 10; i++) {
+      m_stream.poll(i);
+    }
+
+    double[] timestamps = new double[16];
+    double[] values = new double[32];
+    // Only the last 7 samples are still in the ring
+    assertEquals(7, m_stream.readNew(timestamps, values));
+    assertEquals(3, m_stream.getOverrunCount());
+    assertEquals(3.0, timestamps[0], 0.0);
+    assertEquals(9.0, timestamps[6], 0.0);
+  }
+}
@@ -0,0 +1,150 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests {@link SerialReader} and the {@link SerialFrameParser}s with a
+ * loopback in place of the serial port.
+ */
+public class SerialReaderTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(SerialReaderTest.class.getName());
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  /**
+   * Returns the bytes written to it, at most a few at a time so that frames
+   * are split across reads.
+   */
+  private static class Loopback implements SerialReader.Source {
+    private final byte[] m_data = new byte[1024];
+    private int m_written = 0;
+    private int m_read = 0;
+    private final int m_chunk;
+
+    Loopback(int chunk) {
+      m_chunk = chunk;
+    }
+
+    void write(byte... data) {
+      for (byte b : data) {
+        m_data[m_written++] = b;
+      }
+    }
+
+    void write(String data) {
+      write(data.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    @Override
+    public int read(byte[] buffer, int count) {
+      int length = Math.min(Math.min(count, m_chunk), m_written - m_read);
+      System.arraycopy(m_data, m_read, buffer, 0, length);
+      m_read += length;
+      return length;
+    }
+  }
+
+  private static void drain(SerialReader reader) {
+    while (reader.poll(1.0) > 0) {
+    }
+  }
+
+  private static String readString(SerialReader reader) {
+    byte[] buffer = new byte[64];
+    int length = reader.readFrame(buffer);
+    if (length < 0) {
+      return null;
+    }
+    return new String(buffer, 0, length, StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void testDelimitedFrames() {
+    Loopback port = new Loopback(3);
+    SerialReader reader = new SerialReader(port, new SerialFrameParser.Delimited((byte) '\n', 8),
+        4);
+    port.write("range 12\n\nthis line is too long\nok\n");
+    drain(reader);
+
+    assertEquals(2, reader.getQueuedFrameCount());
+    assertEquals(1.0, reader.getFrameTimestamp(), 0.0);
+    assertEquals("range 12", readString(reader));
+    assertEquals("ok", readString(reader));
+    assertEquals(null, readString(reader));
+    assertEquals(1, reader.getParseErrorCount());
+    assertEquals(35, reader.getByteCount());
+  }
+
+  @Test
+  public void testLengthPrefixedFrames() {
+    Loopback port = new Loopback(5);
+    SerialReader reader = new SerialReader(port, new SerialFrameParser.LengthPrefixed(2, 8), 4);
+    port.write((byte) 0, (byte) 3, (byte) 'a', (byte) 'b', (byte) 'c');
+    port.write((byte) 0, (byte) 0);
+    port.write((byte) 1, (byte) 0);
+    port.write((byte) 0, (byte) 2, (byte) 'd', (byte) 'e');
+    drain(reader);
+
+    assertEquals("abc", readString(reader));
+    assertEquals("de", readString(reader));
+    assertEquals(null, readString(reader));
+    assertEquals(1, reader.getParseErrorCount());
+  }
+
+  @Test
+  public void testFullQueueDropsFrames() {
+    Loopback port = new Loopback(16);
+    SerialReader reader = new SerialReader(port, new SerialFrameParser.FixedLength(2), 2);
+    port.write("aabbccdd");
+    drain(reader);
+
+    assertEquals(4, reader.getFrameCount());
+    assertEquals(2, reader.getDroppedFrameCount());
+    assertEquals("aa", readString(reader));
+    port.write("ee");
+    drain(reader);
+    assertEquals("bb", readString(reader));
+    assertEquals("ee", readString(reader));
+    assertEquals(null, readString(reader));
+  }
+
+  @Test
+  public void testListener() {
+    Loopback port = new Loopback(4);
+    SerialReader reader = new SerialReader(port, new SerialFrameParser.Delimited((byte) ';', 8),
+        4);
+    final List<String> frames = new ArrayList<String>();
+    reader.setListener(new SerialReader.FrameListener() {
+      @Override
+      public void frameReceived(byte[] frame, int length, double timestamp) {
+        frames.add(new String(frame, 0, length, StandardCharsets.US_ASCII));
+      }
+    });
+    port.write("x=1;y=22;z");
+    drain(reader);
+
+    assertEquals(2, frames.size());
+    assertEquals("x=1", frames.get(0));
+    assertEquals("y=22", frames.get(1));
+    assertEquals(0, reader.getQueuedFrameCount());
+  }
+}
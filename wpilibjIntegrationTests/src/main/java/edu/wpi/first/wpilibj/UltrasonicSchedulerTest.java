@@ -0,0 +1,139 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+/**
+ * Tests the ping order of {@link UltrasonicScheduler} with simulated sensors.
+ */
+public class UltrasonicSchedulerTest extends AbstractComsSetup {
+  private static final Logger logger =
+      Logger.getLogger(UltrasonicSchedulerTest.class.getName());
+
+  // Round trip time of an echo from 10 inches away
+  private static final double kEchoTime = 20.0 / (1130.0 * 12.0);
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  /**
+   * A sensor whose echo comes back when the test says so.
+   */
+  private static class FakeSensor implements UltrasonicScheduler.Sensor {
+    int m_pings = 0;
+    boolean m_echoed = false;
+
+    @Override
+    public void ping() {
+      m_pings++;
+      m_echoed = false;
+    }
+
+    @Override
+    public boolean isEchoComplete() {
+      return m_echoed;
+    }
+
+    @Override
+    public double getEchoTime() {
+      return kEchoTime;
+    }
+  }
+
+  @Test
+  public void testRoundRobinAdvancesOnEcho() {
+    UltrasonicScheduler scheduler = new UltrasonicScheduler(UltrasonicScheduler.Mode.kRoundRobin);
+    scheduler.setSettleTime(0.0);
+    FakeSensor first = new FakeSensor();
+    FakeSensor second = new FakeSensor();
+    scheduler.add(first, 0);
+    scheduler.add(second, 0);
+
+    scheduler.poll(0.000);
+    assertEquals(1, first.m_pings);
+    assertEquals(0, second.m_pings);
+
+    // The second sensor is pinged as soon as the first echo is back
+    first.m_echoed = true;
+    scheduler.poll(0.003);
+    assertEquals(1, second.m_pings);
+    assertEquals(10.0, scheduler.getRangeInches(0), 1e-9);
+    assertEquals(0.0, scheduler.getTimestamp(0), 0.0);
+
+    second.m_echoed = true;
+    scheduler.poll(0.005);
+    assertEquals(2, first.m_pings);
+    assertEquals(0.003, scheduler.getTimestamp(1), 0.0);
+    assertEquals(2, scheduler.getRangeCount());
+  }
+
+  @Test
+  public void testGroupsPingTogether() {
+    UltrasonicScheduler scheduler = new UltrasonicScheduler(UltrasonicScheduler.Mode.kGrouped);
+    scheduler.setSettleTime(0.002);
+    FakeSensor front = new FakeSensor();
+    FakeSensor left = new FakeSensor();
+    FakeSensor back = new FakeSensor();
+    scheduler.add(front, 1);
+    scheduler.add(left, 2);
+    scheduler.add(back, 1);
+
+    scheduler.poll(0.000);
+    assertEquals(1, front.m_pings);
+    assertEquals(1, back.m_pings);
+    assertEquals(0, left.m_pings);
+
+    // The next group waits for every echo of the group and the settle time
+    front.m_echoed = true;
+    scheduler.poll(0.001);
+    back.m_echoed = true;
+    scheduler.poll(0.002);
+    scheduler.poll(0.003);
+    assertEquals(0, left.m_pings);
+    scheduler.poll(0.004);
+    assertEquals(1, left.m_pings);
+
+    double[] ranges = new double[3];
+    double[] timestamps = new double[3];
+    scheduler.getRanges(ranges, timestamps);
+    assertEquals(10.0, ranges[0], 1e-9);
+    assertEquals(0.0, ranges[1], 0.0);
+    assertEquals(10.0, ranges[2], 1e-9);
+  }
+
+  @Test
+  public void testTimeout() {
+    UltrasonicScheduler scheduler = new UltrasonicScheduler(UltrasonicScheduler.Mode.kFastest);
+    scheduler.setSettleTime(0.0);
+    FakeSensor quiet = new FakeSensor();
+    FakeSensor near = new FakeSensor();
+    scheduler.add(quiet, 0);
+    scheduler.add(near, 0);
+
+    scheduler.poll(0.0);
+    near.m_echoed = true;
+    scheduler.poll(0.001);
+    scheduler.poll(0.002);
+    assertEquals(2, near.m_pings);
+    assertEquals(1, quiet.m_pings);
+
+    scheduler.poll(UltrasonicScheduler.kEchoTimeout + 0.001);
+    scheduler.poll(UltrasonicScheduler.kEchoTimeout + 0.002);
+    assertEquals(1, scheduler.getTimeoutCount());
+    assertEquals(2, quiet.m_pings);
+  }
+}
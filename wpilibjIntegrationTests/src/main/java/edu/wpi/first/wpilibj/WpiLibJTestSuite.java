@@ -19,13 +19,17 @@ import edu.wpi.first.wpilibj.test.AbstractTestSuite;
  *         if a test is missing from the list
  */
 @RunWith(Suite.class)
-@SuiteClasses({AnalogCrossConnectTest.class, AnalogPotentiometerTest.class,
-    BuiltInAccelerometerTest.class, CANTalonTest.class,
+@SuiteClasses({AnalogCaptureTest.class, AnalogCrossConnectTest.class,
+    AnalogPotentiometerTest.class, BuiltInAccelerometerTest.class, CANTalonTest.class,
     CircularBufferTest.class, CounterTest.class, DigitalGlitchFilterTest.class,
-    DIOCrossConnectTest.class, EncoderTest.class, FilterNoiseTest.class,
-    FilterOutputTest.class, GyroTest.class, MotorEncoderTest.class,
-    MotorInvertingTest.class, PCMTest.class, PDPTest.class, PIDTest.class,
-    PIDToleranceTest.class, PreferencesTest.class, RelayCrossConnectTest.class, 
-    SampleTest.class, TimerTest.class})
+    DIOCrossConnectTest.class, EncoderSamplerTest.class, EncoderTest.class,
+    ErrorReporterTest.class, FilterNoiseTest.class, FilterOutputTest.class,
+    GyroBaseTest.class, GyroHistoryTest.class,
+    GyroTest.class, InterruptMultiplexerTest.class, JoystickHistoryTest.class,
+    MotorEncoderTest.class, MotorInvertingTest.class, OutputStageTest.class, PCMTest.class,
+    PDPMonitorTest.class, PDPTest.class, PIDTest.class,
+    PIDToleranceTest.class, PreferencesTest.class, RelayCrossConnectTest.class,
+    ResourceTest.class, SampleTest.class, SerialReaderTest.class, SPIStreamTest.class,
+    TimerTest.class, UltrasonicSchedulerTest.class})
 public class WpiLibJTestSuite extends AbstractTestSuite {
 }
@@ -18,6 +18,6 @@ import edu.wpi.first.wpilibj.test.AbstractTestSuite;
  *
  */
 @RunWith(Suite.class)
-@SuiteClasses({SmartDashboardTest.class})
+@SuiteClasses({SmartDashboardTest.class, TelemetryPublisherTest.class})
 public class SmartDashboardTestSuite extends AbstractTestSuite {
 }
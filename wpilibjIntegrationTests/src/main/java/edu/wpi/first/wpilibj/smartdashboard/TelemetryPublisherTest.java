@@ -0,0 +1,75 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.smartdashboard;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.logging.Logger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import edu.wpi.first.wpilibj.networktables.NetworkTable;
+import edu.wpi.first.wpilibj.tables.ITable;
+import edu.wpi.first.wpilibj.test.AbstractComsSetup;
+
+public class TelemetryPublisherTest extends AbstractComsSetup {
+  private static final Logger logger = Logger.getLogger(TelemetryPublisherTest.class.getName());
+  private static final ITable table = NetworkTable.getTable("TelemetryPublisherTest");
+
+  private TelemetryPublisher m_publisher;
+
+  @Override
+  protected Logger getClassLogger() {
+    return logger;
+  }
+
+  @Before
+  public void setUp() {
+    m_publisher = new TelemetryPublisher(table, 3);
+    // Keep the background thread from flushing during the test
+    m_publisher.setPeriod(60.0);
+  }
+
+  @Test
+  public void testLatestValueIsPublished() {
+    m_publisher.putNumber("number", 1.0);
+    m_publisher.putNumber("number", 2.0);
+    m_publisher.putBoolean("boolean", true);
+    m_publisher.putString("string", "first");
+    m_publisher.putString("string", "second");
+
+    assertEquals(3, m_publisher.getQueueDepth());
+    assertEquals(2, m_publisher.getCoalescedCount());
+
+    m_publisher.flush();
+
+    assertEquals(0, m_publisher.getQueueDepth());
+    assertEquals(2.0, table.getNumber("number", 0.0), 0.0);
+    assertEquals(true, table.getBoolean("boolean", false));
+    assertEquals("second", table.getString("string", ""));
+    assertEquals(1, m_publisher.getFlushCount());
+  }
+
+  @Test
+  public void testValuesForNewKeysAreDroppedWhenFull() {
+    m_publisher.putNumber("a", 1.0);
+    m_publisher.putNumber("b", 1.0);
+    m_publisher.putNumber("c", 1.0);
+    m_publisher.putNumber("d", 1.0);
+    m_publisher.putNumber("a", 2.0);
+
+    assertEquals(1, m_publisher.getDroppedCount());
+    assertEquals(3, m_publisher.getQueueDepth());
+
+    m_publisher.flush();
+
+    assertEquals(2.0, table.getNumber("a", 0.0), 0.0);
+    assertEquals(-1.0, table.getNumber("d", -1.0), 0.0);
+  }
+}
@@ -0,0 +1,122 @@
+/*----------------------------------------------------------------------------*/
+/* Copyright (c) FIRST 2016. All Rights Reserved.                             */
+/* Open Source Software - may be modified and shared by FRC teams. The code   */
+/* must be accompanied by the FIRST BSD license file in the root directory of */
+/* the project.                                                               */
+/*----------------------------------------------------------------------------*/
+
+package edu.wpi.first.wpilibj.telemetry;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Sends a telemetry stream to a receiver on the same machine over the loopback
+ * interface. This does not use the HAL, so it can be run on any computer as a
+ * plain JUnit test as well as on the robot.
+ */
+public class TelemetryStreamTest {
+  private TelemetryReceiver m_receiver;
+  private TelemetryStream m_stream;
+
+  @Before
+  public void setUp() throws IOException {
+    m_receiver = new TelemetryReceiver(0);
+    m_stream = new TelemetryStream("127.0.0.1", m_receiver.getLocalPort(), 4);
+  }
+
+  @After
+  public void tearDown() {
+    m_stream.close();
+    m_receiver.close();
+  }
+
+  @Test
+  public void testFramesAreDecoded() throws IOException {
+    int setpoint = m_stream.addSignal("setpoint");
+    int measurement = m_stream.addSignal("measurement");
+
+    m_stream.set(setpoint, 1.5);
+    m_stream.set(measurement, -2.25);
+    m_stream.send(10.0);
+
+    assertTrue(m_receiver.receive(1.0));
+    assertEquals(2, m_receiver.getSignalCount());
+    assertEquals("setpoint", m_receiver.getSignalName(setpoint));
+    assertEquals("measurement", m_receiver.getSignalName(measurement));
+    assertEquals(1.5, m_receiver.getValue(setpoint), 0.0);
+    assertEquals(-2.25, m_receiver.getValue(measurement), 0.0);
+    assertEquals(10.0, m_receiver.getTimestamp(), 0.0);
+  }
+
+  @Test
+  public void testRecordedTimeSeries() throws IOException {
+    int output = m_stream.addSignal("output");
+    m_receiver.setRecording(true);
+
+    for (int i = 0; i < 200; i++) {
+      m_stream.set(output, i * 0.5);
+      m_stream.send(i * 0.005);
+      assertTrue(m_receiver.receive(1.0));
+    }
+
+    assertEquals(200, m_receiver.getRecordedCount());
+    assertEquals(0, m_receiver.getLostFrameCount());
+    double[] values = m_receiver.getRecordedValues("output");
+    assertEquals(99.5, values[199], 0.0);
+    assertEquals(0.995, m_receiver.getRecordedTimestamps()[199], 0.0);
+  }
+
+  @Test
+  public void testAddingSignalChangesSchema() throws IOException {
+    m_stream.addSignal("output");
+    m_stream.send(0.0);
+    assertTrue(m_receiver.receive(1.0));
+    assertTrue(m_receiver.isSchemaChanged());
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    m_receiver.writeCsvHeader(new PrintStream(csv, true));
+    assertEquals("timestamp,sequence,output", csv.toString().trim());
+
+    m_stream.send(0.005);
+    assertTrue(m_receiver.receive(1.0));
+    assertFalse(m_receiver.isSchemaChanged());
+
+    int current = m_stream.addSignal("current");
+    m_stream.set(current, 40.0);
+    m_stream.send(0.010);
+    assertTrue(m_receiver.receive(1.0));
+    assertTrue(m_receiver.isSchemaChanged());
+    assertEquals(2, m_receiver.getSignalCount());
+    assertEquals("current", m_receiver.getSignalName(current));
+    assertEquals(40.0, m_receiver.getValue(current), 0.0);
+  }
+
+  @Test
+  public void testCsvRow() throws IOException {
+    int setpoint = m_stream.addSignal("setpoint");
+    int measurement = m_stream.addSignal("measurement");
+    m_stream.set(setpoint, 1.5);
+    m_stream.set(measurement, -2.25);
+    m_stream.send(10.0);
+    assertTrue(m_receiver.receive(1.0));
+
+    ByteArrayOutputStream csv = new ByteArrayOutputStream();
+    PrintStream out = new PrintStream(csv, true);
+    m_receiver.writeCsvHeader(out);
+    m_receiver.writeCsvRow(out);
+    String[] lines = csv.toString().trim().split("\\r?\\n");
+    assertEquals(2, lines.length);
+    assertEquals("timestamp,sequence,setpoint,measurement", lines[0]);
+    assertEquals("10.0,0,1.5,-2.25", lines[1]);
+    assertFalse(m_receiver.isSchemaChanged());
+  }
+}
@@ -31,6 +31,7 @@ import edu.wpi.first.wpilibj.WpiLibJTestSuite;
 import edu.wpi.first.wpilibj.can.CANTestSuite;
 import edu.wpi.first.wpilibj.command.CommandTestSuite;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboardTestSuite;
+import edu.wpi.first.wpilibj.telemetry.TelemetryTestSuite;
 
 /**
  * The WPILibJ Integeration Test Suite collects all of the tests to be run by
@@ -41,7 +42,7 @@ import edu.wpi.first.wpilibj.smartdashboard.SmartDashboardTestSuite;
 @RunWith(Suite.class)
 // These are listed on separate lines to prevent merge conflicts
 @SuiteClasses({WpiLibJTestSuite.class, CANTestSuite.class, CommandTestSuite.class,
-    SmartDashboardTestSuite.class})
+    SmartDashboardTestSuite.class, TelemetryTestSuite.class})
 public class TestSuite extends AbstractTestSuite {
   static {
     // Sets up the logging output